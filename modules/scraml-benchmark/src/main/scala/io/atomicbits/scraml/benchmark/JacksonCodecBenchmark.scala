@@ -0,0 +1,227 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+import java.io.File
+import java.net.URLClassLoader
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path }
+import javax.tools.ToolProvider
+
+import com.fasterxml.jackson.databind.{ DeserializationFeature, Module, ObjectMapper }
+import io.atomicbits.scraml.generator.codegen.{ DslSourceCache, GenerationAggr }
+import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
+import io.atomicbits.scraml.ramlparser.parser.{ ParseSnapshot, SourceFile }
+
+import scala.collection.JavaConverters._
+
+/**
+  * Compares the generated streaming Jackson codecs with Jackson's reflective (de)serialization of the same transfer objects.
+  *
+  * The transfer objects and their codecs are generated from a small RAML specification with a class hierarchy, an enum, lists and
+  * nested objects, compiled in memory and then used to read and write the same JSON document with and without the generated
+  * module. Each variant is warmed up before it is measured on the calling thread. Both are measured with boxed and with primitive
+  * fields, where the latter turns required scalars into primitives and the number list of the owner into a double array.
+  *
+  * Run it with: sbt "scraml-benchmark/runMain io.atomicbits.scraml.benchmark.JacksonCodecBenchmark [iterations]"
+  */
+object JacksonCodecBenchmark {
+
+  private val basePackage = List("io", "atomicbits", "codecs")
+
+  private val apiClassName = "CodecApi"
+
+  private val typeNames = List("Color", "Animal", "Dog", "Cat", "Address", "Owner")
+
+  private val dslBaseClasses = List("PojoSerializer", "PojoDeserializer", "PolymorphicPojoDeserializer")
+
+  val ramlSpec: String =
+    """#%RAML 1.0
+      |---
+      |title: codec benchmark
+      |version: 1.0
+      |mediaType: application/json
+      |
+      |types:
+      |  Color:
+      |    type: string
+      |    enum: [ red, green, light blue ]
+      |  Animal:
+      |    type: object
+      |    discriminator: kind
+      |    properties:
+      |      kind: string
+      |      name: string
+      |      age?: integer
+      |  Dog:
+      |    type: Animal
+      |    discriminatorValue: dog
+      |    properties:
+      |      goodBoy: boolean
+      |  Cat:
+      |    type: Animal
+      |    discriminatorValue: cat
+      |    properties:
+      |      color: Color
+      |      weight?: number
+      |  Address:
+      |    type: object
+      |    properties:
+      |      street: string
+      |      number: integer
+      |  Owner:
+      |    type: object
+      |    properties:
+      |      name: string
+      |      address: Address
+      |      pets: Animal[]
+      |      favourite?: Animal
+      |      tags: string[]
+      |      readings: number[]
+      |
+      |/owners:
+      |  get:
+      |    responses:
+      |      200:
+      |        body:
+      |          application/json:
+      |            type: Owner
+      |""".stripMargin
+
+  /**
+    * A JSON document for an owner, with the type discriminators of the pets in front and, for the favourite pet, at the end.
+    * The owner also carries a list of a thousand numbers.
+    */
+  val ownerJson: String = {
+    val pets =
+      (0 until 20).map { index =>
+        if (index % 2 == 0) s"""{"kind":"dog","name":"dog $index","age":$index,"goodBoy":true}"""
+        else s"""{"kind":"cat","name":"cat $index","age":null,"color":"light blue","weight":${index + 0.5}}"""
+      }
+    s"""{"name":"owner","address":{"street":"main street","number":12},"pets":${pets.mkString("[", ",", "]")},""" +
+      s""""favourite":{"name":"rex","age":null,"goodBoy":false,"kind":"dog"},"tags":["a","b","c"],""" +
+      s""""readings":${(0 until 1000).map(index => index * 0.25).mkString("[", ",", "]")}}"""
+  }
+
+  /**
+    * The ObjectMappers and the owner class of a compiled set of generated transfer objects.
+    */
+  case class CompiledCodecs(ownerClass: Class[_], reflectiveMapper: ObjectMapper, codecMapper: ObjectMapper)
+
+  def compile(directory: Path, primitiveFields: Boolean = false): CompiledCodecs = {
+
+    implicit val platform: Platform = JavaJackson(basePackage, jacksonCodecs = true, primitiveFields = primitiveFields)
+
+    val ramlFile = directory.resolve("codecs.raml")
+    Files.createDirectories(directory)
+    Files.write(ramlFile, ramlSpec.getBytes(StandardCharsets.UTF_8))
+
+    val snapshot = ParseSnapshot.parse(None, ramlFile.toString, "UTF-8", basePackage).get
+    val generated =
+      GenerationAggr(apiName        = apiClassName,
+                     apiBasePackage = basePackage,
+                     raml           = snapshot.raml,
+                     canonicalToMap = snapshot.canonicalLookup.map)
+        .generateWithParallelism(1)
+        .sourceFilesGenerated
+
+    val classNames = typeNames ++ typeNames.map(name => s"${name}JsonCodec") :+ s"${apiClassName}JacksonModule"
+    val dslSources = DslSourceCache.rewrittenDslSources(None, None).toSeq.filter(isOneOf(dslBaseClasses))
+    val sources    = generated.filter(isOneOf(classNames)) ++ dslSources
+
+    val sourceDirectory = directory.resolve("src")
+    val classDirectory  = Files.createDirectories(directory.resolve("classes"))
+    val sourcePaths =
+      sources.map { sourceFile =>
+        val path = sourceDirectory.resolve(sourceFile.filePath)
+        Files.createDirectories(path.getParent)
+        Files.write(path, sourceFile.content.getBytes(StandardCharsets.UTF_8))
+        path.toString
+      }
+
+    val jacksonClassPath =
+      List(classOf[ObjectMapper], classOf[com.fasterxml.jackson.core.JsonParser], classOf[com.fasterxml.jackson.annotation.JsonProperty])
+        .map(jacksonClass => new File(jacksonClass.getProtectionDomain.getCodeSource.getLocation.toURI).toString)
+        .mkString(File.pathSeparator)
+
+    val compiler  = Option(ToolProvider.getSystemJavaCompiler).getOrElse(sys.error("Compiling the codecs requires a JDK."))
+    val arguments = List("-nowarn", "-classpath", jacksonClassPath, "-d", classDirectory.toString) ++ sourcePaths
+    val result    = compiler.run(null, null, null, arguments: _*)
+    if (result != 0) sys.error(s"Compiling the generated codecs failed with exit code $result.")
+
+    val classLoader = new URLClassLoader(Array(classDirectory.toUri.toURL), getClass.getClassLoader)
+    val module =
+      classLoader.loadClass((basePackage :+ s"${apiClassName}JacksonModule").mkString(".")).newInstance().asInstanceOf[Module]
+
+    CompiledCodecs(
+      ownerClass       = classLoader.loadClass((basePackage :+ "Owner").mkString(".")),
+      reflectiveMapper = objectMapper(None),
+      codecMapper      = objectMapper(Some(module))
+    )
+  }
+
+  private def isOneOf(classNames: List[String])(sourceFile: SourceFile): Boolean =
+    classNames.exists(className => sourceFile.filePath.getFileName.toString == s"$className.java")
+
+  private def objectMapper(module: Option[Module]): ObjectMapper = {
+    val mapper = new ObjectMapper()
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+    module.foreach(mapper.registerModule)
+    mapper
+  }
+
+  /**
+    * The average time in nanoseconds to read and then write the owner document with the given mapper, in the fastest of a few
+    * measured rounds.
+    */
+  def measure(mapper: ObjectMapper, ownerClass: Class[_], iterations: Int, rounds: Int = 3): Double = {
+    def roundTrip(): Int = mapper.writeValueAsBytes(mapper.readValue(ownerJson, ownerClass)).length
+    (0 until iterations).foreach(_ => roundTrip())
+    val roundNanos =
+      (0 until rounds).map { _ =>
+        val start = System.nanoTime()
+        val bytes = (0 until iterations).map(_ => roundTrip().toLong).sum
+        val nanos = System.nanoTime() - start
+        if (bytes == 0L) sys.error("Expected the owner document to be written.")
+        nanos.toDouble / iterations
+      }
+    roundNanos.min
+  }
+
+  def main(args: Array[String]): Unit = {
+    val iterations = args.headOption.map(_.toInt).getOrElse(20000)
+
+    println(f"${"variant"}%-12s ${"fields"}%-10s ${"round trip (us)"}%16s")
+    List(false, true).foreach { primitiveFields =>
+      val codecs = compile(Files.createTempDirectory("scraml-codecs"), primitiveFields)
+      val fields = if (primitiveFields) "primitive" else "boxed"
+
+      val reflectiveNanos = measure(codecs.reflectiveMapper, codecs.ownerClass, iterations)
+      val codecNanos      = measure(codecs.codecMapper, codecs.ownerClass, iterations)
+
+      println(f"${"reflective"}%-12s $fields%-10s ${reflectiveNanos / 1000.0}%16.2f")
+      println(f"${"codecs"}%-12s $fields%-10s ${codecNanos / 1000.0}%16.2f")
+    }
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+import java.lang.management.ManagementFactory
+
+/**
+  * The cost of one phase of a benchmark run.
+  *
+  * @param phase          The name of the phase.
+  * @param wallNanos      The wall clock time the phase took.
+  * @param allocatedBytes The bytes allocated by the measuring thread during the phase, or -1 if the JVM can't tell.
+  */
+case class PhaseMeasurement(phase: String, wallNanos: Long, allocatedBytes: Long) {
+
+  def wallMillis: Double = wallNanos / 1000000.0
+
+}
+
+object PhaseMeasurement {
+
+  private lazy val threadMXBean: Option[com.sun.management.ThreadMXBean] =
+    ManagementFactory.getThreadMXBean match {
+      case bean: com.sun.management.ThreadMXBean if bean.isThreadAllocatedMemorySupported =>
+        bean.setThreadAllocatedMemoryEnabled(true)
+        Some(bean)
+      case _ => None
+    }
+
+  /**
+    * Measure the given phase on the current thread. Only allocations on the current thread are counted, so the phase should
+    * not hand off work to other threads.
+    */
+  def measure[T](phase: String)(fn: => T): (T, PhaseMeasurement) = {
+    val threadId        = Thread.currentThread().getId
+    val allocatedBefore = allocatedBytes(threadId)
+    val start           = System.nanoTime()
+    val result          = fn
+    val wallNanos       = System.nanoTime() - start
+    val allocated       = threadMXBean.map(_ => allocatedBytes(threadId) - allocatedBefore).getOrElse(-1L)
+    (result, PhaseMeasurement(phase, wallNanos, allocated))
+  }
+
+  private def allocatedBytes(threadId: Long): Long = threadMXBean.map(_.getThreadAllocatedBytes(threadId)).getOrElse(-1L)
+
+}
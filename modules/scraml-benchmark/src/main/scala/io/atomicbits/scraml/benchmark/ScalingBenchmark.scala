@@ -0,0 +1,141 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+import java.nio.file.{ Files, Path }
+
+import io.atomicbits.scraml.generator.codegen.GenerationAggr
+import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
+import io.atomicbits.scraml.ramlparser.lookup.{ CanonicalNameGenerator, CanonicalTypeCollector }
+import io.atomicbits.scraml.ramlparser.parser.RamlParser
+
+/**
+  * Measures how the parse, canonical type collection and code generation phases scale with the size of a synthetic RAML
+  * specification.
+  *
+  * All phases run on the calling thread (with a parallelism of 1), so that the allocations of each phase can be measured
+  * exactly and don't depend on the number of cores of the machine the benchmark runs on.
+  *
+  * Run it with: sbt "scraml-benchmark/run [factor ...]"
+  * The run fails when a phase scales worse than the maximum scaling exponent, which can be set with the system property
+  * 'scraml.benchmark.maxExponent' (default 1.5).
+  */
+object ScalingBenchmark {
+
+  val phases: List[String] = List("parse", "canonicals", "aggregate", "generate")
+
+  val defaultFactors: List[Int] = List(1, 2, 4, 8)
+
+  val defaultMaxExponent: Double = 1.5
+
+  private val basePackage = List("io", "atomicbits", "synthetic")
+
+  /**
+    * Generate a specification of the given shape and measure all phases on it.
+    */
+  def measure(shape: SpecShape, directory: Path, platform: Platform = JavaJackson(basePackage)): List[PhaseMeasurement] = {
+
+    implicit val thePlatform: Platform = platform
+
+    val ramlFile = SyntheticSpec.write(shape, directory)
+
+    val (raml, parse) = PhaseMeasurement.measure("parse") {
+      RamlParser(ramlFile.toString, "UTF-8", parallelism = 1).parse.get
+    }
+
+    val ((ramlExp, canonicalLookup), canonicals) = PhaseMeasurement.measure("canonicals") {
+      CanonicalTypeCollector(CanonicalNameGenerator(basePackage), parallelism = 1).collect(raml)
+    }
+
+    val (generationAggr, aggregate) = PhaseMeasurement.measure("aggregate") {
+      GenerationAggr(apiName = "SyntheticApi", apiBasePackage = basePackage, raml = ramlExp, canonicalToMap = canonicalLookup.map)
+    }
+
+    val (_, generate) = PhaseMeasurement.measure("generate") {
+      generationAggr.generateWithParallelism(1)
+    }
+
+    List(parse, canonicals, aggregate, generate)
+  }
+
+  /**
+    * Measure all phases for the base shape scaled with each of the given factors. A warm-up run on the base shape precedes the
+    * measurements.
+    */
+  def run(baseShape: SpecShape, factors: List[Int]): Map[Int, List[PhaseMeasurement]] = {
+    val workDirectory = Files.createTempDirectory("scraml-benchmark")
+    measure(baseShape, workDirectory.resolve("warmup"))
+    factors.map { factor =>
+      factor -> measure(baseShape.scaled(factor), workDirectory.resolve(s"factor$factor"))
+    }.toMap
+  }
+
+  /**
+    * The exponent k in cost ~ factor^k between the smallest and the largest factor, per phase. An exponent around 1 means the
+    * phase scales linearly with the size of the specification.
+    */
+  def scalingExponents(results: Map[Int, List[PhaseMeasurement]], cost: PhaseMeasurement => Double): Map[String, Double] = {
+    val smallest = results.keys.min
+    val largest  = results.keys.max
+    phases.map { phase =>
+      def costAt(factor: Int): Double = results(factor).find(_.phase == phase).map(cost).getOrElse(0.0)
+      val exponent =
+        if (largest == smallest || costAt(smallest) <= 0.0) 0.0
+        else math.log(costAt(largest) / costAt(smallest)) / math.log(largest.toDouble / smallest.toDouble)
+      phase -> exponent
+    }.toMap
+  }
+
+  def report(results: Map[Int, List[PhaseMeasurement]]): String = {
+    val header = f"${"factor"}%8s ${"phase"}%-12s ${"wall (ms)"}%12s ${"allocated (MB)"}%16s"
+    val rows =
+      for {
+        factor <- results.keys.toList.sorted
+        measurement <- results(factor)
+      } yield f"$factor%8d ${measurement.phase}%-12s ${measurement.wallMillis}%12.1f ${measurement.allocatedBytes / 1048576.0}%16.1f"
+    val timeExponents       = scalingExponents(results, _.wallNanos.toDouble)
+    val allocationExponents = scalingExponents(results, _.allocatedBytes.toDouble)
+    val exponents =
+      phases.map { phase =>
+        f"${phase}%-12s time exponent ${timeExponents(phase)}%5.2f, allocation exponent ${allocationExponents(phase)}%5.2f"
+      }
+    (header :: rows ::: "" :: exponents).mkString("\n")
+  }
+
+  def main(args: Array[String]): Unit = {
+    val factors     = if (args.isEmpty) defaultFactors else args.toList.map(_.toInt)
+    val maxExponent = sys.props.get("scraml.benchmark.maxExponent").map(_.toDouble).getOrElse(defaultMaxExponent)
+
+    val results = run(SpecShape.default, factors)
+    println(report(results))
+
+    val superLinear =
+      scalingExponents(results, _.allocatedBytes.toDouble).filter {
+        case (_, exponent) => exponent > maxExponent
+      }
+    if (superLinear.nonEmpty) {
+      sys.error(s"Phases scaling worse than factor^$maxExponent: ${superLinear.keys.mkString(", ")}")
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+/**
+  * The shape of a synthetic RAML specification.
+  *
+  * @param resources        The number of top-level resources.
+  * @param nestingDepth     The number of nested sub-resources under each top-level resource.
+  * @param traits           The number of traits, applied round robin on the resource methods.
+  * @param includes         The number of types that are defined in a separate file that is included in the main RAML file.
+  * @param types            The number of object types.
+  * @param inheritanceDepth The length of the inheritance chains the types are organised in (1 means no inheritance).
+  * @param unionWidth       The number of types in the union-typed property of each type (0 means no union-typed property).
+  */
+case class SpecShape(resources: Int, nestingDepth: Int, traits: Int, includes: Int, types: Int, inheritanceDepth: Int, unionWidth: Int) {
+
+  require(types > 0, "A synthetic specification needs at least one type.")
+  require(inheritanceDepth > 0, "The inheritance depth must be at least 1.")
+
+  /**
+    * Scale the shape by the given factor. The counts grow with the factor, the depths and widths stay the same so that the
+    * size of the specification grows linearly with the factor.
+    */
+  def scaled(factor: Int): SpecShape =
+    copy(
+      resources = resources * factor,
+      traits    = traits * factor,
+      includes  = includes * factor,
+      types     = types * factor
+    )
+
+}
+
+object SpecShape {
+
+  val default = SpecShape(resources = 20, nestingDepth = 3, traits = 4, includes = 10, types = 40, inheritanceDepth = 3, unionWidth = 2)
+
+}
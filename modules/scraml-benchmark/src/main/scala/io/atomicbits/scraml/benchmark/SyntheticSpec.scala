@@ -0,0 +1,165 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path }
+
+/**
+  * Writes synthetic RAML 1.0 specifications of a given shape to disk.
+  */
+object SyntheticSpec {
+
+  val mainFileName = "synthetic-api.raml"
+
+  /**
+    * Write a synthetic specification with the given shape into the given directory.
+    *
+    * @return The path of the main RAML file.
+    */
+  def write(shape: SpecShape, directory: Path): Path = {
+    Files.createDirectories(directory.resolve("types"))
+    (0 until math.min(shape.includes, shape.types)).foreach { index =>
+      writeFile(directory.resolve(includeFile(index)), typeDefinition(shape, index, indent = 0))
+    }
+    val mainFile = directory.resolve(mainFileName)
+    writeFile(mainFile, mainRaml(shape))
+    mainFile
+  }
+
+  def typeName(index: Int): String = s"Type$index"
+
+  private def includeFile(index: Int): String = s"types/${typeName(index)}.raml"
+
+  private def mainRaml(shape: SpecShape): String = {
+    val types =
+      (0 until shape.types).map { index =>
+        if (index < shape.includes) s"  ${typeName(index)}: !include ${includeFile(index)}\n"
+        else s"  ${typeName(index)}:\n${typeDefinition(shape, index, indent = 4)}"
+      }
+
+    val traits =
+      (0 until shape.traits).map { index =>
+        s"""  trait$index:
+           |    queryParameters:
+           |      filter$index:
+           |        type: string
+           |        required: false
+           |""".stripMargin
+      }
+
+    val resources = (0 until shape.resources).map(resource(shape, _))
+
+    s"""#%RAML 1.0
+       |---
+       |title: synthetic api
+       |version: 1.0
+       |mediaType: application/json
+       |
+       |types:
+       |${types.mkString}${if (traits.nonEmpty) s"traits:\n${traits.mkString}" else ""}
+       |${resources.mkString}""".stripMargin
+  }
+
+  /**
+    * The types are organised in inheritance chains of the shape's inheritance depth. Each type refers to the root type of the
+    * next chain and has a union-typed property over the root types of the following chains.
+    */
+  private def typeDefinition(shape: SpecShape, index: Int, indent: Int): String = {
+    val chainPosition                  = index % shape.inheritanceDepth
+    val chainRoots                     = (0 until shape.types by shape.inheritanceDepth).toVector
+    val chain                          = index / shape.inheritanceDepth
+    def chainRoot(offset: Int): String = typeName(chainRoots((chain + offset) % chainRoots.size))
+
+    val parentType = if (chainPosition == 0) "object" else typeName(index - 1)
+    val union =
+      if (shape.unionWidth > 0) {
+        val members = (1 to shape.unionWidth).map(chainRoot).distinct
+        s"""  variant$index:
+           |    type: ${members.mkString(" | ")}
+           |""".stripMargin
+      } else ""
+
+    val definition =
+      s"""type: $parentType
+         |properties:
+         |  name$index:
+         |    type: string
+         |    required: true
+         |  count$index:
+         |    type: integer
+         |  next$index:
+         |    type: ${chainRoot(1)}
+         |$union""".stripMargin
+
+    definition.linesWithSeparators.map(" " * indent + _).mkString
+  }
+
+  private def resource(shape: SpecShape, index: Int): String = {
+    val responseType = typeName(index % shape.types)
+
+    def traits(indent: String): String =
+      if (shape.traits > 0) s"$indent  is: [ trait${index % shape.traits} ]\n" else ""
+
+    def get(indent: String, listResponse: Boolean): String =
+      s"""${indent}get:
+         |${traits(indent)}$indent  responses:
+         |$indent    200:
+         |$indent      body:
+         |$indent        application/json:
+         |$indent          type: $responseType${if (listResponse) "[]" else ""}
+         |""".stripMargin
+
+    def post(indent: String): String =
+      s"""${indent}post:
+         |$indent  body:
+         |$indent    application/json:
+         |$indent      type: $responseType
+         |$indent  responses:
+         |$indent    200:
+         |$indent      body:
+         |$indent        application/json:
+         |$indent          type: $responseType
+         |""".stripMargin
+
+    def nested(level: Int): String = {
+      val indent = "  " * level
+      if (level > shape.nestingDepth) {
+        ""
+      } else {
+        s"""$indent/{item${index}Level$level}:
+           |$indent  uriParameters:
+           |$indent    item${index}Level$level:
+           |$indent      type: string
+           |$indent      required: true
+           |${get(indent + "  ", listResponse = false)}${nested(level + 1)}""".stripMargin
+      }
+    }
+
+    s"""/resource$index:
+       |${get("  ", listResponse = true)}${post("  ")}${nested(1)}""".stripMargin
+  }
+
+  private def writeFile(file: Path, content: String): Unit =
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8))
+
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+import java.nio.file.Files
+
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+class JacksonCodecBenchmarkTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("The generated Jackson codecs are equivalent to Jackson's reflective (de)serialization") {
+
+    Scenario("reading and writing a document with a class hierarchy, an enum, lists and nested objects") {
+
+      Given("the compiled transfer objects and codecs of the benchmark specification")
+      val codecs = JacksonCodecBenchmark.compile(Files.createTempDirectory("scraml-codecs-test"))
+
+      When("we read the owner document with and without the generated codecs")
+      val reflectiveOwner = codecs.reflectiveMapper.readValue(JacksonCodecBenchmark.ownerJson, codecs.ownerClass)
+      val codecOwner      = codecs.codecMapper.readValue(JacksonCodecBenchmark.ownerJson, codecs.ownerClass)
+
+      Then("both write the same JSON document")
+      val reflectiveJson = codecs.reflectiveMapper.writeValueAsString(reflectiveOwner)
+      val codecJson      = codecs.codecMapper.writeValueAsString(codecOwner)
+      codecs.reflectiveMapper.readTree(codecJson) shouldBe codecs.reflectiveMapper.readTree(reflectiveJson)
+
+      And("the written document matches the original one")
+      codecs.reflectiveMapper.readTree(codecJson) shouldBe codecs.reflectiveMapper.readTree(JacksonCodecBenchmark.ownerJson)
+
+      And("the owner round trip can be measured with the codecs")
+      JacksonCodecBenchmark.measure(codecs.codecMapper, codecs.ownerClass, iterations = 10) should be > 0.0
+    }
+
+    Scenario("reading and writing the same document into transfer objects with primitive fields") {
+
+      Given("the compiled transfer objects with primitive fields and their codecs")
+      val codecs = JacksonCodecBenchmark.compile(Files.createTempDirectory("scraml-codecs-test"), primitiveFields = true)
+
+      When("we read the owner document with and without the generated codecs")
+      val reflectiveOwner = codecs.reflectiveMapper.readValue(JacksonCodecBenchmark.ownerJson, codecs.ownerClass)
+      val codecOwner      = codecs.codecMapper.readValue(JacksonCodecBenchmark.ownerJson, codecs.ownerClass)
+
+      Then("the owner holds its readings in a primitive array")
+      codecs.ownerClass.getMethod("getReadings").getReturnType shouldBe classOf[Array[Double]]
+
+      And("both write the original JSON document")
+      val reflectiveJson = codecs.reflectiveMapper.writeValueAsString(reflectiveOwner)
+      val codecJson      = codecs.codecMapper.writeValueAsString(codecOwner)
+      codecs.reflectiveMapper.readTree(codecJson) shouldBe codecs.reflectiveMapper.readTree(reflectiveJson)
+      codecs.reflectiveMapper.readTree(codecJson) shouldBe codecs.reflectiveMapper.readTree(JacksonCodecBenchmark.ownerJson)
+    }
+
+  }
+
+}
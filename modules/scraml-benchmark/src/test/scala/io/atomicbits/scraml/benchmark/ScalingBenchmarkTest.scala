@@ -0,0 +1,50 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.benchmark
+
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+class ScalingBenchmarkTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("The parser and generator scale linearly with the size of the RAML specification") {
+
+    Scenario("allocations grow at most slightly super-linearly with the size of a synthetic specification") {
+
+      Given("a small synthetic specification shape")
+      val shape = SpecShape(resources = 5, nestingDepth = 2, traits = 2, includes = 3, types = 12, inheritanceDepth = 3, unionWidth = 2)
+
+      When("we measure all phases on the shape scaled with factors 1 and 4")
+      val results = ScalingBenchmark.run(shape, List(1, 4))
+
+      Then("no phase allocates super-linearly more")
+      val exponents = ScalingBenchmark.scalingExponents(results, _.allocatedBytes.toDouble)
+      exponents.keySet shouldBe ScalingBenchmark.phases.toSet
+      exponents.foreach {
+        case (phase, exponent) => withClue(s"Phase $phase: ") { exponent should be <= ScalingBenchmark.defaultMaxExponent }
+      }
+    }
+
+  }
+
+}
@@ -50,6 +50,14 @@ public class BinaryMethodSegment<B> extends MethodSegment<B, BinaryData> {
         this.primitiveBody = primitiveBody;
     }
 
+    /**
+     * Set the cache policy for this request, overriding the default cache policy from the client configuration.
+     */
+    public BinaryMethodSegment<B> withCachePolicy(CachePolicy cachePolicy) {
+        getRequestBuilder().setCachePolicy(cachePolicy);
+        return this;
+    }
+
     public void call(Callback<BinaryData> callback) {
         if (this.primitiveBody) {
             getRequestBuilder().callToBinaryResponse(getPlainStringBody(), callback);
@@ -52,6 +52,14 @@ public abstract class BinaryRequest {
         return new InputStreamBinaryRequest(inputStream);
     }
 
+    public static BinaryRequest create(InputStream inputStream, long contentLength) {
+        return new InputStreamBinaryRequest(inputStream, contentLength);
+    }
+
+    public static BinaryRequest create(InputStream inputStream, long contentLength, ProgressListener progressListener) {
+        return new InputStreamBinaryRequest(inputStream, contentLength).withProgressListener(progressListener);
+    }
+
     public static BinaryRequest create(byte[] bytes) {
         return new ByteArrayBinaryRequest(bytes);
     }
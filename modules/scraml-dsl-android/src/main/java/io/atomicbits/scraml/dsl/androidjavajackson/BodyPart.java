@@ -31,4 +31,6 @@ public interface BodyPart {
 
     Boolean isByteArray();
 
+    Boolean isInputStream();
+
 }
@@ -93,4 +93,9 @@ public class ByteArrayPart implements BodyPart {
         return true;
     }
 
+    @Override
+    public Boolean isInputStream() {
+        return false;
+    }
+
 }
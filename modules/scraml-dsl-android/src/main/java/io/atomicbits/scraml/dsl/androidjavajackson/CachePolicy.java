@@ -0,0 +1,83 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson;
+
+/**
+ * Describes how a request uses the HTTP response cache. The cache itself is enabled in the client configuration by setting
+ * a cache directory, without a cache directory all policies behave as NETWORK.
+ */
+public class CachePolicy {
+
+    public enum Mode {
+        /**
+         * Standard HTTP caching semantics: fresh cached responses are used, stale ones are revalidated with a conditional request.
+         */
+        NETWORK,
+        /**
+         * Use a cached response, even when it is stale up to maxStaleSeconds, and only go to the network when nothing is cached.
+         */
+        OFFLINE_FIRST,
+        /**
+         * Deliver a cached response (stale up to maxStaleSeconds) immediately and refresh the cache with a background network call.
+         * When nothing is cached, the network response is delivered.
+         */
+        STALE_WHILE_REVALIDATE,
+        /**
+         * Only use the cache, a 504 response is delivered when the response is not cached.
+         */
+        CACHE_ONLY
+    }
+
+    public static final CachePolicy NETWORK = new CachePolicy(Mode.NETWORK, 0);
+
+    public static final CachePolicy CACHE_ONLY = new CachePolicy(Mode.CACHE_ONLY, Integer.MAX_VALUE);
+
+    private final Mode mode;
+    private final int maxStaleSeconds;
+
+    public CachePolicy(Mode mode, int maxStaleSeconds) {
+        this.mode = mode;
+        this.maxStaleSeconds = maxStaleSeconds;
+    }
+
+    public static CachePolicy offlineFirst(int maxStaleSeconds) {
+        return new CachePolicy(Mode.OFFLINE_FIRST, maxStaleSeconds);
+    }
+
+    public static CachePolicy staleWhileRevalidate(int maxStaleSeconds) {
+        return new CachePolicy(Mode.STALE_WHILE_REVALIDATE, maxStaleSeconds);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getMaxStaleSeconds() {
+        return maxStaleSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return mode + " (max stale " + maxStaleSeconds + "s)";
+    }
+
+}
@@ -20,12 +20,18 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateOnlyDeserializer;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateOnlySerializer;
 
 import java.util.Date;
 
 /**
  * Created by peter on 8/10/17.
  */
+@JsonSerialize(using = DateOnlySerializer.class)
+@JsonDeserialize(using = DateOnlyDeserializer.class)
 public class DateOnly {
 
     public DateOnly(){}
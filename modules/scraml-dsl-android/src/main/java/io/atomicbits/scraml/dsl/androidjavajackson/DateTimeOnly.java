@@ -20,12 +20,18 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateTimeOnlyDeserializer;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateTimeOnlySerializer;
 
 import java.util.Date;
 
 /**
  * Created by peter on 8/10/17.
  */
+@JsonSerialize(using = DateTimeOnlySerializer.class)
+@JsonDeserialize(using = DateTimeOnlyDeserializer.class)
 public class DateTimeOnly {
 
     public DateTimeOnly() {
@@ -20,11 +20,18 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateTimeRFC2616Deserializer;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateTimeRFC2616Serializer;
+
 import java.util.Date;
 
 /**
  * Created by peter on 8/10/17.
  */
+@JsonSerialize(using = DateTimeRFC2616Serializer.class)
+@JsonDeserialize(using = DateTimeRFC2616Deserializer.class)
 public class DateTimeRFC2616 {
 
     public DateTimeRFC2616() {
@@ -20,11 +20,18 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateTimeRFC3339Deserializer;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.DateTimeRFC3339Serializer;
+
 import java.util.Date;
 
 /**
  * Created by peter on 8/10/17.
  */
+@JsonSerialize(using = DateTimeRFC3339Serializer.class)
+@JsonDeserialize(using = DateTimeRFC3339Deserializer.class)
 public class DateTimeRFC3339 {
 
     public DateTimeRFC3339() {
@@ -0,0 +1,39 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A callback that chooses the executor on which its results are delivered.
+ * <p>
+ * Response decoding always happens on the HTTP client's dispatcher thread, only the decoded result is posted to the executor.
+ * This keeps heavy JSON parsing off, for instance, the Android main thread when the executor posts to a main looper handler.
+ */
+public interface DispatchingCallback<T> extends Callback<T> {
+
+    /**
+     * @return The executor to deliver the callback results on, or null to deliver them on the HTTP client's dispatcher thread.
+     */
+    Executor getCallbackExecutor();
+
+}
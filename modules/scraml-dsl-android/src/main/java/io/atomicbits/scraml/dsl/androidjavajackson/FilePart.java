@@ -94,4 +94,9 @@ public class FilePart implements BodyPart {
         return false;
     }
 
+    @Override
+    public Boolean isInputStream() {
+        return false;
+    }
+
 }
@@ -28,15 +28,39 @@ import java.io.InputStream;
 public class InputStreamBinaryRequest extends BinaryRequest {
 
     private final InputStream inputStream;
+    private final long contentLength;
+    private ProgressListener progressListener;
 
     public InputStreamBinaryRequest(InputStream inputStream) {
+        this(inputStream, -1);
+    }
+
+    /**
+     * @param inputStream   The stream to upload, it is read chunk by chunk while the request body is written.
+     * @param contentLength The length of the stream content in bytes, or -1 if unknown (chunked transfer encoding is used then).
+     */
+    public InputStreamBinaryRequest(InputStream inputStream, long contentLength) {
         this.inputStream = inputStream;
+        this.contentLength = contentLength;
     }
 
     public InputStream getInputStream() {
         return inputStream;
     }
 
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public ProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    public InputStreamBinaryRequest withProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
     public boolean isInputStream() {
         return true;
     }
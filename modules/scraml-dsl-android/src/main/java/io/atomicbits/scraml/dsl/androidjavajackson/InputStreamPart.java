@@ -0,0 +1,129 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * A multipart body part whose content is streamed from an input stream instead of being held in memory.
+ */
+public class InputStreamPart implements BodyPart {
+
+    private String name;
+    private InputStream inputStream;
+    private long contentLength = -1;
+    private String contentType;
+    private Charset charset = Charset.forName("UTF8");
+    private String contentId;
+    private String fileName;
+    private String transferEncoding;
+    private ProgressListener progressListener;
+
+    public InputStreamPart(String name, InputStream inputStream) {
+        this.name = name;
+        this.inputStream = inputStream;
+    }
+
+    public InputStreamPart(String name,
+                           InputStream inputStream,
+                           long contentLength,
+                           String contentId,
+                           Charset charset,
+                           String fileName,
+                           String contentType,
+                           String transferEncoding) {
+        this.name = name;
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+        this.contentId = contentId;
+        this.charset = charset;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.transferEncoding = transferEncoding;
+    }
+
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * The length of the stream content in bytes, -1 if unknown.
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTransferEncoding() {
+        return transferEncoding;
+    }
+
+    public ProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    public InputStreamPart withProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    @Override
+    public Boolean isString() {
+        return false;
+    }
+
+    @Override
+    public Boolean isFile() {
+        return false;
+    }
+
+    @Override
+    public Boolean isByteArray() {
+        return false;
+    }
+
+    @Override
+    public Boolean isInputStream() {
+        return true;
+    }
+
+}
@@ -35,8 +35,18 @@ public abstract class ParamSegment<T> extends Segment {
     }
 
     public ParamSegment(T value, RequestBuilder parentRequestBuilder) {
+        this(value, null, parentRequestBuilder);
+    }
+
+    /**
+     * @param value                The value of the path parameter.
+     * @param parameterName        The RAML name of the path parameter, used in the resource template of the request.
+     * @param parentRequestBuilder The request builder of the parent segment.
+     */
+    public ParamSegment(T value, String parameterName, RequestBuilder parentRequestBuilder) {
         // The preceding part of the path will be prepended on fold().
-        this._requestBuilder.appendPathElement(value.toString());
+        String templateElement = parameterName != null ? "{" + parameterName + "}" : "{}";
+        this._requestBuilder.appendPathElement(value.toString(), templateElement);
         this._requestBuilder.setParentRequestBuilder(parentRequestBuilder);
     }
 
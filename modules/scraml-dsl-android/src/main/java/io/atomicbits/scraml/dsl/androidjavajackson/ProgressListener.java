@@ -0,0 +1,37 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson;
+
+/**
+ * Receives progress notifications while a streaming request body is being written to the network.
+ * <p>
+ * Notifications are called on the OkHttp dispatcher thread, so keep the implementation light-weight.
+ */
+public interface ProgressListener {
+
+    /**
+     * @param bytesWritten  The number of bytes written so far.
+     * @param contentLength The total number of bytes to write, or -1 when the content length is unknown.
+     */
+    void onProgress(long bytesWritten, long contentLength);
+
+}
@@ -34,6 +34,7 @@ public class RequestBuilder {
 
     private Client client;
     private List<String> path = new ArrayList<String>();
+    private List<String> templatePath = new ArrayList<String>();
     private Method method = Method.GET;
     private Map<String, HttpParam> queryParameters = new HashMap<String, HttpParam>();
     private Map<String, HttpParam> formParameters = new HashMap<String, HttpParam>();
@@ -41,6 +42,7 @@ public class RequestBuilder {
     private BinaryRequest binaryRequest = null;
     private HeaderMap headerMap = new HeaderMap();
     private List<HeaderOp> headerOps = new ArrayList<>(1);
+    private CachePolicy cachePolicy = null;
 
     RequestBuilder parentRequestBuilder;
 
@@ -67,8 +69,9 @@ public class RequestBuilder {
             folded.setClient(getClient());
         }
         // Java 1.7 specific
-        for (String pathElement : path) {
-            folded.appendPathElement(pathElement);
+        for (int i = 0; i < path.size(); i++) {
+            String templateElement = i < templatePath.size() ? templatePath.get(i) : path.get(i);
+            folded.appendPathElement(path.get(i), templateElement);
         }
         if (method != null) {
             folded.setMethod(method);
@@ -136,6 +139,17 @@ public class RequestBuilder {
         this.binaryRequest = binaryRequest;
     }
 
+    /**
+     * The cache policy for this request, null means the default cache policy from the client configuration is used.
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public void setCachePolicy(CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+
     public Map<String, HttpParam> getQueryParameters() {
         return queryParameters;
     }
@@ -183,6 +197,7 @@ public class RequestBuilder {
         } else {
             this.path = path;
         }
+        this.templatePath = new ArrayList<>(this.path);
     }
 
     public void setQueryParameters(Map<String, HttpParam> queryParameters) {
@@ -209,8 +224,21 @@ public class RequestBuilder {
         return ListUtils.mkString(path, "/");
     }
 
+    /**
+     * The RAML resource template of the request path, e.g. "/users/{userid}/address".
+     * Path parameters keep their parameter name instead of their value, which makes it a good tag for per-resource metrics.
+     */
+    public String getResourceTemplate() {
+        return "/" + ListUtils.mkString(templatePath, "/");
+    }
+
     public void appendPathElement(String pathElement) {
+        appendPathElement(pathElement, pathElement);
+    }
+
+    public void appendPathElement(String pathElement, String templateElement) {
         this.path.add(pathElement);
+        this.templatePath.add(templateElement);
     }
 
     public void callToStringResponse(String body, Callback<String> callback) {
@@ -50,6 +50,14 @@ public class StringMethodSegment<B> extends MethodSegment<B, String> {
         this.primitiveBody = primitiveBody;
     }
 
+    /**
+     * Set the cache policy for this request, overriding the default cache policy from the client configuration.
+     */
+    public StringMethodSegment<B> withCachePolicy(CachePolicy cachePolicy) {
+        getRequestBuilder().setCachePolicy(cachePolicy);
+        return this;
+    }
+
     public void call(Callback<String> callback) {
         if (this.primitiveBody) {
             getRequestBuilder().callToStringResponse(getPlainStringBody(), callback);
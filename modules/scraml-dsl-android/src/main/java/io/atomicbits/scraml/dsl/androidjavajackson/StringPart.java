@@ -88,4 +88,9 @@ public class StringPart implements BodyPart {
         return false;
     }
 
+    @Override
+    public Boolean isInputStream() {
+        return false;
+    }
+
 }
@@ -20,12 +20,18 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.TimeOnlyDeserializer;
+import io.atomicbits.scraml.dsl.androidjavajackson.json.TimeOnlySerializer;
 
 import java.util.Date;
 
 /**
  * Created by peter on 8/10/17.
  */
+@JsonSerialize(using = TimeOnlySerializer.class)
+@JsonDeserialize(using = TimeOnlyDeserializer.class)
 public class TimeOnly {
 
     public TimeOnly() {
@@ -52,6 +52,14 @@ public class TypeMethodSegment<B, R> extends MethodSegment<B, R> {
         this.primitiveBody = primitiveBody;
     }
 
+    /**
+     * Set the cache policy for this request, overriding the default cache policy from the client configuration.
+     */
+    public TypeMethodSegment<B, R> withCachePolicy(CachePolicy cachePolicy) {
+        getRequestBuilder().setCachePolicy(cachePolicy);
+        return this;
+    }
+
     public void call(Callback<R> callback) {
         if (this.primitiveBody) {
             getRequestBuilder().callToTypeResponse(getPlainStringBody(), canonicalResponseType, callback);
@@ -0,0 +1,94 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client;
+
+/**
+ * A snapshot of the HTTP response cache statistics of a client.
+ */
+public class CacheStatistics {
+
+    private final int requestCount;
+    private final int networkCount;
+    private final int hitCount;
+    private final int revalidationCount;
+    private final long bytesSaved;
+
+    public CacheStatistics(int requestCount, int networkCount, int hitCount, int revalidationCount, long bytesSaved) {
+        this.requestCount = requestCount;
+        this.networkCount = networkCount;
+        this.hitCount = hitCount;
+        this.revalidationCount = revalidationCount;
+        this.bytesSaved = bytesSaved;
+    }
+
+    /**
+     * The number of logical calls that went through the cache. A stale-while-revalidate call counts once, even though it can
+     * take more than one HTTP call.
+     */
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * The number of calls whose response required a network call, this includes conditional requests. Background revalidations
+     * are not included.
+     */
+    public int getNetworkCount() {
+        return networkCount;
+    }
+
+    /**
+     * The number of responses that were served (partly) from the cache, this includes validated conditional responses.
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of background revalidations of stale-while-revalidate calls that were answered from the cache.
+     */
+    public int getRevalidationCount() {
+        return revalidationCount;
+    }
+
+    /**
+     * The number of response body bytes that were served from the cache instead of being downloaded.
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    public double getHitRate() {
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+
+    public double getNetworkRate() {
+        return requestCount == 0 ? 0.0 : (double) networkCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "requests: " + requestCount + ", network: " + networkCount + ", hits: " + hitCount + ", revalidations: " +
+                revalidationCount + ", bytes saved: " + bytesSaved;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client;
+
+/**
+ * The phase timings of a single HTTP call, tagged with the RAML resource template and method of the call.
+ * <p>
+ * All durations are in milliseconds, a duration is -1 when the phase didn't happen during the call (e.g. no DNS lookup,
+ * connect or TLS handshake on a reused connection).
+ */
+public class CallMetrics {
+
+    private final String resourceTemplate;
+    private final String method;
+    private final String url;
+    private final String protocol;
+    private final boolean connectionReused;
+    private final long dnsMillis;
+    private final long connectMillis;
+    private final long tlsMillis;
+    private final long timeToFirstByteMillis;
+    private final long totalMillis;
+    private final long requestBodyBytes;
+    private final long responseBodyBytes;
+    private final Throwable failure;
+
+    public CallMetrics(String resourceTemplate,
+                       String method,
+                       String url,
+                       String protocol,
+                       boolean connectionReused,
+                       long dnsMillis,
+                       long connectMillis,
+                       long tlsMillis,
+                       long timeToFirstByteMillis,
+                       long totalMillis,
+                       long requestBodyBytes,
+                       long responseBodyBytes,
+                       Throwable failure) {
+        this.resourceTemplate = resourceTemplate;
+        this.method = method;
+        this.url = url;
+        this.protocol = protocol;
+        this.connectionReused = connectionReused;
+        this.dnsMillis = dnsMillis;
+        this.connectMillis = connectMillis;
+        this.tlsMillis = tlsMillis;
+        this.timeToFirstByteMillis = timeToFirstByteMillis;
+        this.totalMillis = totalMillis;
+        this.requestBodyBytes = requestBodyBytes;
+        this.responseBodyBytes = responseBodyBytes;
+        this.failure = failure;
+    }
+
+    /**
+     * The RAML resource template, e.g. "/users/{userid}/address", or null if the call wasn't made through the DSL.
+     */
+    public String getResourceTemplate() {
+        return resourceTemplate;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The protocol of the connection that was used, e.g. "h2" or "http/1.1", null if no connection was acquired.
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public boolean isHttp2() {
+        return "h2".equals(protocol);
+    }
+
+    public boolean isConnectionReused() {
+        return connectionReused;
+    }
+
+    public long getDnsMillis() {
+        return dnsMillis;
+    }
+
+    /**
+     * The TCP connect time, including the TLS handshake if there was one.
+     */
+    public long getConnectMillis() {
+        return connectMillis;
+    }
+
+    public long getTlsMillis() {
+        return tlsMillis;
+    }
+
+    /**
+     * The time from the start of the call until the response headers have arrived.
+     */
+    public long getTimeToFirstByteMillis() {
+        return timeToFirstByteMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public long getRequestBodyBytes() {
+        return requestBodyBytes;
+    }
+
+    public long getResponseBodyBytes() {
+        return responseBodyBytes;
+    }
+
+    /**
+     * The failure of the call, null if the call succeeded.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + resourceTemplate + " (" + protocol + ")" +
+                " dns: " + dnsMillis + "ms" +
+                ", connect: " + connectMillis + "ms" +
+                ", tls: " + tlsMillis + "ms" +
+                ", ttfb: " + timeToFirstByteMillis + "ms" +
+                ", total: " + totalMillis + "ms" +
+                (failure != null ? ", failed: " + failure.getMessage() : "");
+    }
+
+}
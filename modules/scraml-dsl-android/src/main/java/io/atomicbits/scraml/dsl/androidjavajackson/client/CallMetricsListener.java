@@ -0,0 +1,33 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client;
+
+/**
+ * Receives the phase timings of every finished (or failed) HTTP call.
+ * <p>
+ * Notifications are called on the HTTP client's threads, so hand the metrics over to your own reporting pipeline quickly.
+ */
+public interface CallMetricsListener {
+
+    void onCallMetrics(CallMetrics callMetrics);
+
+}
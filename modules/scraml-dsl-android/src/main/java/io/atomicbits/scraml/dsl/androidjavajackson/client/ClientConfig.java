@@ -20,10 +20,14 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson.client;
 
+import io.atomicbits.scraml.dsl.androidjavajackson.CachePolicy;
+
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.X509TrustManager;
+import java.io.File;
 import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
 
 /**
  * Created by peter on 18/09/15.
@@ -43,6 +47,12 @@ public class ClientConfig {
     private SSLContext sslContext = null;
     private X509TrustManager trustManager = null;
     private HostnameVerifier hostnameVerifier = null;
+    private Executor callbackExecutor = null;
+    private Boolean streamTypedResponseBody = false;
+    private File cacheDirectory = null;
+    private long cacheMaxSize = 10 * 1024 * 1024;
+    private CachePolicy defaultCachePolicy = CachePolicy.NETWORK;
+    private CallMetricsListener callMetricsListener = null;
 
     public ClientConfig() {
     }
@@ -175,4 +185,75 @@ public class ClientConfig {
     public void setWriteTimeout(int writeTimeout) {
         this.writeTimeout = writeTimeout;
     }
+
+    /**
+     * The executor on which callback results are delivered, unless the callback is a DispatchingCallback that specifies
+     * its own executor. Null (the default) delivers the results on the HTTP client's dispatcher thread.
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * By default, the body of a typed response is read into a string that is kept as the string body of the response and
+     * then decoded. Set this to true to decode typed responses straight from the response stream instead, which avoids
+     * holding the whole body in memory as a string. The string body of a successful typed response is then null.
+     */
+    public Boolean getStreamTypedResponseBody() {
+        return streamTypedResponseBody;
+    }
+
+    public void setStreamTypedResponseBody(Boolean streamTypedResponseBody) {
+        this.streamTypedResponseBody = streamTypedResponseBody;
+    }
+
+    /**
+     * The directory of the HTTP disk cache, null (the default) disables response caching.
+     * Use a private directory for each client, e.g. a subdirectory of Context.getCacheDir() on Android.
+     */
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * The maximum size of the HTTP disk cache in bytes, the default is 10 MB.
+     */
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * The cache policy for requests that don't set their own cache policy.
+     */
+    public CachePolicy getDefaultCachePolicy() {
+        return defaultCachePolicy;
+    }
+
+    public void setDefaultCachePolicy(CachePolicy defaultCachePolicy) {
+        this.defaultCachePolicy = defaultCachePolicy;
+    }
+
+    /**
+     * The listener that receives the phase timings (DNS, connect, TLS, time to first byte) of every call, tagged with the RAML
+     * resource template, method and protocol. Null (the default) disables the call metrics.
+     */
+    public CallMetricsListener getCallMetricsListener() {
+        return callMetricsListener;
+    }
+
+    public void setCallMetricsListener(CallMetricsListener callMetricsListener) {
+        this.callMetricsListener = callMetricsListener;
+    }
 }
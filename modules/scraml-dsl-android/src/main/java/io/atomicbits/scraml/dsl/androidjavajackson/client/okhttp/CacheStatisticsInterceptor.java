@@ -0,0 +1,85 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CacheStatistics;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An application interceptor that keeps the cache statistics per logical client call, based on the {@link RequestTag.Role} of
+ * each OkHttp call. OkHttp's own cache counters count every OkHttp call, which counts a stale-while-revalidate call twice.
+ * <p>
+ * A primary call counts as a request. A call that is served from the cache, either as a plain cache hit or validated with a
+ * conditional request (304 Not Modified), counts as a hit and its body bytes count as saved. A call with a network response
+ * counts as a network call. Background revalidations are only counted as revalidations, because their response is not
+ * delivered to the caller.
+ */
+public class CacheStatisticsInterceptor implements Interceptor {
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger networkCount = new AtomicInteger();
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger revalidationCount = new AtomicInteger();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        RequestTag.Role role = RequestTag.roleOf(chain.request());
+        Response response = chain.proceed(chain.request());
+
+        if (role == RequestTag.Role.REVALIDATION) {
+            revalidationCount.incrementAndGet();
+            return response;
+        }
+
+        if (role == RequestTag.Role.PRIMARY) {
+            requestCount.incrementAndGet();
+        }
+
+        Response cacheResponse = response.cacheResponse();
+        Response networkResponse = response.networkResponse();
+        if (networkResponse != null) {
+            networkCount.incrementAndGet();
+        }
+        boolean servedFromCache = cacheResponse != null && (networkResponse == null || networkResponse.code() == 304);
+        if (servedFromCache) {
+            hitCount.incrementAndGet();
+            ResponseBody body = response.body();
+            if (body != null && body.contentLength() > 0) {
+                bytesSaved.addAndGet(body.contentLength());
+            }
+        }
+
+        return response;
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return new CacheStatistics(requestCount.get(), networkCount.get(), hitCount.get(), revalidationCount.get(), bytesSaved.get());
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CallMetrics;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CallMetricsListener;
+import okhttp3.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Creates an event listener per call that records the phase timings of the call and reports them to a CallMetricsListener.
+ */
+public class CallMetricsEventListenerFactory implements EventListener.Factory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CallMetricsEventListenerFactory.class);
+
+    private final CallMetricsListener callMetricsListener;
+
+    public CallMetricsEventListenerFactory(CallMetricsListener callMetricsListener) {
+        this.callMetricsListener = callMetricsListener;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallMetricsEventListener();
+    }
+
+    /**
+     * One instance per call, OkHttp calls the events of a single call sequentially.
+     */
+    private class CallMetricsEventListener extends EventListener {
+
+        private long callStart = -1;
+        private long dnsStart = -1;
+        private long dnsEnd = -1;
+        private long connectStart = -1;
+        private long connectEnd = -1;
+        private long secureConnectStart = -1;
+        private long secureConnectEnd = -1;
+        private long responseHeadersEnd = -1;
+        private long requestBodyBytes = -1;
+        private long responseBodyBytes = -1;
+        private String protocol = null;
+        private boolean connecting = false;
+        private boolean connectionReused = false;
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dnsEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            connecting = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            secureConnectEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // Also called for pooled connections, so this is where we learn whether the call runs over HTTP/2 or HTTP/1.1.
+            // A connection that was acquired without connecting first came from the pool. Retries and redirects acquire a
+            // connection again, the last one acquired is the one that served the response.
+            protocol = connection.protocol().toString();
+            connectionReused = !connecting;
+            connecting = false;
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestBodyBytes = byteCount;
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, okhttp3.Response response) {
+            // responseHeadersStart fires when OkHttp starts waiting for the response, not when the first bytes arrive.
+            if (responseHeadersEnd == -1) {
+                responseHeadersEnd = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            responseBodyBytes = byteCount;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            report(call, null);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            report(call, ioe);
+        }
+
+        private void report(Call call, Throwable failure) {
+            long callEnd = System.nanoTime();
+
+            Request request = call.request();
+            String resourceTemplate = null;
+            if (request.tag() instanceof RequestTag) {
+                resourceTemplate = ((RequestTag) request.tag()).getResourceTemplate();
+            }
+
+            CallMetrics callMetrics =
+                    new CallMetrics(
+                            resourceTemplate,
+                            request.method(),
+                            request.url().toString(),
+                            protocol,
+                            connectionReused,
+                            millisBetween(dnsStart, dnsEnd),
+                            millisBetween(connectStart, connectEnd),
+                            millisBetween(secureConnectStart, secureConnectEnd),
+                            millisBetween(callStart, responseHeadersEnd),
+                            millisBetween(callStart, callEnd),
+                            requestBodyBytes,
+                            responseBodyBytes,
+                            failure
+                    );
+
+            try {
+                callMetricsListener.onCallMetrics(callMetrics);
+            } catch (RuntimeException e) {
+                // A misbehaving metrics listener should never break the call itself.
+                LOGGER.warn("Call metrics listener failed: " + e.getMessage(), e);
+            }
+        }
+
+        private long millisBetween(long startNanos, long endNanos) {
+            if (startNanos == -1 || endNanos == -1) {
+                return -1;
+            }
+            return (endNanos - startNanos) / 1000000L;
+        }
+
+    }
+
+}
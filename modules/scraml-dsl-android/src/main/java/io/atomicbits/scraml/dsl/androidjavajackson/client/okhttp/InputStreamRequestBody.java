@@ -0,0 +1,124 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.ProgressListener;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request body that pipes an input stream into the OkHttp sink in fixed-size chunks, so that the payload never has to be
+ * held in memory as a whole. When the content length is unknown (-1), OkHttp falls back to chunked transfer encoding.
+ * <p>
+ * The input stream can only be consumed once. A second attempt to write the body, e.g. when OkHttp retries the call after a
+ * connection failure, fails with an IOException instead of silently sending an empty or partial body. The client therefore
+ * disables OkHttp's retries for calls with a streamed body, see {@link #isStreamed(RequestBody)}. The stream is not closed,
+ * closing it remains the responsibility of the caller.
+ */
+public class InputStreamRequestBody extends RequestBody {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final MediaType mediaType;
+    private final InputStream inputStream;
+    private final long contentLength;
+    private final int chunkSize;
+    private final ProgressListener progressListener;
+    private final AtomicBoolean written = new AtomicBoolean(false);
+
+    public InputStreamRequestBody(MediaType mediaType, InputStream inputStream, long contentLength, ProgressListener progressListener) {
+        this(mediaType, inputStream, contentLength, DEFAULT_CHUNK_SIZE, progressListener);
+    }
+
+    public InputStreamRequestBody(MediaType mediaType,
+                                  InputStream inputStream,
+                                  long contentLength,
+                                  int chunkSize,
+                                  ProgressListener progressListener) {
+        if (inputStream == null) {
+            throw new NullPointerException("inputStream == null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive, got: " + chunkSize);
+        }
+        this.mediaType = mediaType;
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+        this.chunkSize = chunkSize;
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (!written.compareAndSet(false, true)) {
+            throw new IOException("The input stream request body was already sent once and cannot be sent again.");
+        }
+        // We don't close the source, because that would close the caller's input stream as well.
+        Source source = Okio.source(inputStream);
+        long bytesWritten = 0;
+        long read;
+        // Read straight into the sink's buffer segments, no intermediate byte array copy is needed.
+        while ((read = source.read(sink.buffer(), chunkSize)) != -1) {
+            sink.emitCompleteSegments();
+            bytesWritten += read;
+            if (progressListener != null) {
+                progressListener.onProgress(bytesWritten, contentLength);
+            }
+        }
+    }
+
+    /**
+     * @return True if the given request body streams an input stream, directly or in one of its multipart parts.
+     */
+    public static boolean isStreamed(RequestBody body) {
+        if (body instanceof InputStreamRequestBody) {
+            return true;
+        }
+        if (body instanceof MultipartBody) {
+            for (MultipartBody.Part part : ((MultipartBody) body).parts()) {
+                if (part.body() instanceof InputStreamRequestBody) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
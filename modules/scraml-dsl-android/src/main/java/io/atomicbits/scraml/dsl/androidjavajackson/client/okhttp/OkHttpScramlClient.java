@@ -22,6 +22,7 @@ package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
 
 import io.atomicbits.scraml.dsl.androidjavajackson.*;
 import io.atomicbits.scraml.dsl.androidjavajackson.Callback;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CacheStatistics;
 import io.atomicbits.scraml.dsl.androidjavajackson.client.ClientConfig;
 import io.atomicbits.scraml.dsl.androidjavajackson.json.Json;
 import okhttp3.*;
@@ -37,6 +38,7 @@ import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -52,6 +54,8 @@ public class OkHttpScramlClient implements Client {
     private Map<String, String> defaultHeaders;
 
     private OkHttpClient okHttpClient;
+    private OkHttpClient nonRetryingClient;
+    private CacheStatisticsInterceptor cacheStatisticsInterceptor;
 
     private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
@@ -117,7 +121,7 @@ public class OkHttpScramlClient implements Client {
                         // .pingInterval(0, TimeUnit.MILLISECONDS) // interval between web socket pings, default is 0 => disable client-initiated pings
                         .connectionPool(connectionPool)
                         // .connectionSpecs(null) // use the defaults, see: https://github.com/square/okhttp/wiki/HTTPS
-                        // .cache(null) // we probably don't need response caching on a REST client
+                        // .cache(null) // see below, only configured when a cache directory is set
                         .followRedirects(config.getFollowRedirect())
                         .followSslRedirects(config.getFollowRedirect())
                         .retryOnConnectionFailure(config.getMaxRequestRetry() > 0)
@@ -131,7 +135,7 @@ public class OkHttpScramlClient implements Client {
                 // .dispatcher(null)
                 // .dns(null) // use the system DNS by default
                 // .eventListener(null) // useful for collecting metrics or logging requests
-                // .eventListenerFactory(null) // useful for creating per-call scoped listeners
+                // .eventListenerFactory(null) // see below, only configured when a call metrics listener is set
                 // .addInterceptor(null) // usefull for intercepting or changing the request chain
                 // .addNetworkInterceptor(null) // similar to 'addInterceptor', don't see the difference at this point
                 ;
@@ -141,26 +145,47 @@ public class OkHttpScramlClient implements Client {
             okHttpClientBuilder.sslSocketFactory(config.getSslContext().getSocketFactory(), config.getTrustManager());
         }
 
+        if (this.config.getCacheDirectory() != null) {
+            // OkHttp's cache takes care of conditional requests (ETag, Last-Modified) and revalidation.
+            this.cacheStatisticsInterceptor = new CacheStatisticsInterceptor();
+            okHttpClientBuilder
+                    .cache(new Cache(this.config.getCacheDirectory(), this.config.getCacheMaxSize()))
+                    .addInterceptor(cacheStatisticsInterceptor);
+        }
+
+        if (this.config.getCallMetricsListener() != null) {
+            okHttpClientBuilder.eventListenerFactory(new CallMetricsEventListenerFactory(this.config.getCallMetricsListener()));
+        }
+
         this.okHttpClient = okHttpClientBuilder.build();
+
+        // A streamed request body can only be sent once, so calls with such a body must not be retried by OkHttp.
+        // The derived client shares the connection pool, dispatcher and cache with the main client.
+        if (this.okHttpClient.retryOnConnectionFailure()) {
+            this.nonRetryingClient = this.okHttpClient.newBuilder().retryOnConnectionFailure(false).build();
+        } else {
+            this.nonRetryingClient = this.okHttpClient;
+        }
     }
 
 
     @Override
     public void callToStringResponse(RequestBuilder requestBuilder, String body, final Callback<String> callback) {
 
-        Request request = null;
+        Request request;
 
         try {
             request = buildRequest(requestBuilder, body);
         } catch (IOException e) {
-            callback.onFailure(e);
+            dispatchFailure(callback, e);
+            return;
         }
 
-        getClient().newCall(request).enqueue(new okhttp3.Callback() {
+        enqueue(request, getCachePolicy(requestBuilder), new okhttp3.Callback() {
 
             @Override
             public void onFailure(Call call, IOException e) {
-                callback.onFailure(e);
+                dispatchFailure(callback, e);
             }
 
             @Override
@@ -170,13 +195,13 @@ public class OkHttpScramlClient implements Client {
                     io.atomicbits.scraml.dsl.androidjavajackson.Response<String> scramlResponse = transformToStringBody(response);
 
                     if (response.isSuccessful()) {
-                        callback.onOkResponse(scramlResponse);
+                        dispatchOkResponse(callback, scramlResponse);
                     } else {
-                        callback.onNokResponse(scramlResponse);
+                        dispatchNokResponse(callback, scramlResponse);
                     }
 
                 } catch (Throwable t) {
-                    callback.onFailure(t);
+                    dispatchFailure(callback, t);
                 }
             }
 
@@ -187,19 +212,20 @@ public class OkHttpScramlClient implements Client {
     @Override
     public void callToBinaryResponse(RequestBuilder requestBuilder, String body, final Callback<BinaryData> callback) {
 
-        Request request = null;
+        Request request;
 
         try {
             request = buildRequest(requestBuilder, body);
         } catch (IOException e) {
-            callback.onFailure(e);
+            dispatchFailure(callback, e);
+            return;
         }
 
-        getClient().newCall(request).enqueue(new okhttp3.Callback() {
+        enqueue(request, getCachePolicy(requestBuilder), new okhttp3.Callback() {
 
             @Override
             public void onFailure(Call call, IOException e) {
-                callback.onFailure(e);
+                dispatchFailure(callback, e);
             }
 
             @Override
@@ -207,12 +233,12 @@ public class OkHttpScramlClient implements Client {
                 try {
                     if (response.isSuccessful()) {
                         io.atomicbits.scraml.dsl.androidjavajackson.Response<BinaryData> scramlResponse = transformToBinaryBody(response);
-                        callback.onOkResponse(scramlResponse);
+                        dispatchOkResponse(callback, scramlResponse);
                     } else {
-                        callback.onNokResponse(transformToStringBody(response));
+                        dispatchNokResponse(callback, transformToStringBody(response));
                     }
                 } catch (Throwable t) {
-                    callback.onFailure(t);
+                    dispatchFailure(callback, t);
                 }
             }
 
@@ -225,38 +251,219 @@ public class OkHttpScramlClient implements Client {
                                        final String canonicalResponseType,
                                        final Callback<R> callback) {
 
-        Request request = null;
+        Request request;
 
         try {
             request = buildRequest(requestBuilder, body);
         } catch (IOException e) {
-            callback.onFailure(e);
+            dispatchFailure(callback, e);
+            return;
         }
 
-        getClient().newCall(request).enqueue(new okhttp3.Callback() {
+        enqueue(request, getCachePolicy(requestBuilder), new okhttp3.Callback() {
 
             @Override
             public void onFailure(Call call, IOException e) {
-                callback.onFailure(e);
+                dispatchFailure(callback, e);
             }
 
             @Override
             public void onResponse(Call call, Response response) throws IOException {
                 try {
                     if (response.isSuccessful()) {
+                        // The decoding happens here, on the OkHttp dispatcher thread, only the result is dispatched.
                         io.atomicbits.scraml.dsl.androidjavajackson.Response<R> scramlResponse =
                                 transformToTypedBody(response, canonicalResponseType);
-                        callback.onOkResponse(scramlResponse);
+                        dispatchOkResponse(callback, scramlResponse);
                     } else {
-                        callback.onNokResponse(transformToStringBody(response));
+                        dispatchNokResponse(callback, transformToStringBody(response));
                     }
                 } catch (Throwable t) {
-                    callback.onFailure(t);
+                    dispatchFailure(callback, t);
+                }
+            }
+
+        });
+
+    }
+
+    private CachePolicy getCachePolicy(RequestBuilder requestBuilder) {
+        CachePolicy cachePolicy = requestBuilder.getCachePolicy();
+        if (cachePolicy == null) {
+            cachePolicy = config.getDefaultCachePolicy();
+        }
+        if (cachePolicy == null || okHttpClient.cache() == null) {
+            cachePolicy = CachePolicy.NETWORK;
+        }
+        return cachePolicy;
+    }
+
+    private CacheControl toCacheControl(CachePolicy cachePolicy) {
+        switch (cachePolicy.getMode()) {
+            case OFFLINE_FIRST:
+                return new CacheControl.Builder().maxStale(cachePolicy.getMaxStaleSeconds(), TimeUnit.SECONDS).build();
+            case CACHE_ONLY:
+                return new CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxStale(cachePolicy.getMaxStaleSeconds(), TimeUnit.SECONDS)
+                        .build();
+            default:
+                // NETWORK uses the standard HTTP caching semantics and STALE_WHILE_REVALIDATE is handled in enqueue(...).
+                return null;
+        }
+    }
+
+    /**
+     * Enqueue the request. For the stale-while-revalidate cache policy, we first try to answer from the cache (accepting stale
+     * responses) and then revalidate the cached response in the background so that the next call gets a fresh response.
+     */
+    private void enqueue(final Request request, final CachePolicy cachePolicy, final okhttp3.Callback responseHandler) {
+
+        if (cachePolicy.getMode() != CachePolicy.Mode.STALE_WHILE_REVALIDATE) {
+            clientFor(request).newCall(request).enqueue(responseHandler);
+            return;
+        }
+
+        CacheControl cacheOnly =
+                new CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxStale(cachePolicy.getMaxStaleSeconds(), TimeUnit.SECONDS)
+                        .build();
+        Request cachedRequest = request.newBuilder().cacheControl(cacheOnly).build();
+
+        final Request fallbackRequest = withRole(request, RequestTag.Role.NETWORK_FALLBACK);
+
+        getClient().newCall(cachedRequest).enqueue(new okhttp3.Callback() {
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                clientFor(fallbackRequest).newCall(fallbackRequest).enqueue(responseHandler);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                if (response.cacheResponse() == null) {
+                    // Nothing (usable) in the cache, OkHttp answered with a 504, go to the network instead.
+                    response.close();
+                    clientFor(fallbackRequest).newCall(fallbackRequest).enqueue(responseHandler);
+                } else {
+                    responseHandler.onResponse(call, response);
+                    Request revalidationRequest = withRole(request, RequestTag.Role.REVALIDATION);
+                    clientFor(revalidationRequest).newCall(revalidationRequest).enqueue(new RevalidationCallback());
                 }
             }
 
         });
+    }
 
+    private static Request withRole(Request request, RequestTag.Role role) {
+        Object tag = request.tag();
+        if (tag instanceof RequestTag) {
+            return request.newBuilder().tag(((RequestTag) tag).withRole(role)).build();
+        }
+        return request;
+    }
+
+    OkHttpClient clientFor(Request request) {
+        if (InputStreamRequestBody.isStreamed(request.body())) {
+            return nonRetryingClient;
+        }
+        return okHttpClient;
+    }
+
+    /**
+     * Consumes the background revalidation response, the cache is only updated when the whole body has been read.
+     */
+    private class RevalidationCallback implements okhttp3.Callback {
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            LOGGER.debug("Background cache revalidation of " + call.request().url() + " failed: " + e.getMessage());
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) throws IOException {
+            ResponseBody body = response.body();
+            if (body != null) {
+                try {
+                    InputStream in = body.byteStream();
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) != -1) {
+                        // just drain the stream
+                    }
+                } finally {
+                    body.close();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * @return The HTTP cache statistics of this client, or null when no cache directory is configured.
+     */
+    public CacheStatistics getCacheStatistics() {
+        if (cacheStatisticsInterceptor == null) {
+            return null;
+        }
+        return cacheStatisticsInterceptor.getCacheStatistics();
+    }
+
+    /**
+     * The executor on which to deliver the results to the given callback, null means delivering them on the current thread.
+     */
+    private Executor callbackExecutor(Callback<?> callback) {
+        if (callback instanceof DispatchingCallback) {
+            Executor executor = ((DispatchingCallback<?>) callback).getCallbackExecutor();
+            if (executor != null) {
+                return executor;
+            }
+        }
+        return config.getCallbackExecutor();
+    }
+
+    private <T> void dispatchOkResponse(final Callback<T> callback,
+                                        final io.atomicbits.scraml.dsl.androidjavajackson.Response<T> response) {
+        Executor executor = callbackExecutor(callback);
+        if (executor == null) {
+            callback.onOkResponse(response);
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onOkResponse(response);
+                }
+            });
+        }
+    }
+
+    private void dispatchNokResponse(final Callback<?> callback,
+                                     final io.atomicbits.scraml.dsl.androidjavajackson.Response<String> response) {
+        Executor executor = callbackExecutor(callback);
+        if (executor == null) {
+            callback.onNokResponse(response);
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onNokResponse(response);
+                }
+            });
+        }
+    }
+
+    private void dispatchFailure(final Callback<?> callback, final Throwable t) {
+        Executor executor = callbackExecutor(callback);
+        if (executor == null) {
+            callback.onFailure(t);
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(t);
+                }
+            });
+        }
     }
 
 
@@ -333,12 +540,14 @@ public class OkHttpScramlClient implements Client {
                 requestBody = RequestBody.create(mediaType, file);
             }
             if (binaryRequest.isInputStream()) {
-                InputStream stream = ((InputStreamBinaryRequest) binaryRequest).getInputStream();
-                int[] lengthWrapper = new int[1];
-                byte[] cachedBytes = new byte[0];
-                cachedBytes = readFully(stream, lengthWrapper);
-                int cachedBytesLenght = lengthWrapper[0];
-                requestBody = RequestBody.create(mediaType, cachedBytes, 0, cachedBytesLenght);
+                InputStreamBinaryRequest streamRequest = (InputStreamBinaryRequest) binaryRequest;
+                requestBody =
+                        new InputStreamRequestBody(
+                                mediaType,
+                                streamRequest.getInputStream(),
+                                streamRequest.getContentLength(),
+                                streamRequest.getProgressListener()
+                        );
             }
             if (binaryRequest.isByteArray()) {
                 byte[] bytes = ((ByteArrayBinaryRequest) binaryRequest).getBytes();
@@ -412,18 +621,41 @@ public class OkHttpScramlClient implements Client {
                             );
                 }
 
+                if (bodyPart.isInputStream()) {
+                    InputStreamPart part = (InputStreamPart) bodyPart;
+                    MediaType contentMediaType = MediaType.parse(part.getContentType());
+                    multipartBodyBuilder
+                            .addFormDataPart(
+                                    part.getName(),
+                                    part.getFileName(),
+                                    new InputStreamRequestBody(
+                                            contentMediaType,
+                                            part.getInputStream(),
+                                            part.getContentLength(),
+                                            part.getProgressListener()
+                                    )
+                            );
+                }
+
             }
 
             requestBody = multipartBodyBuilder.build();
         }
 
 
-        Request request =
+        Request.Builder okRequestBuilder =
                 new Request.Builder()
                         .headers(headers)
                         .method(requestBuilder.getMethod().name(), requestBody)
                         .url(url)
-                        .build();
+                        .tag(new RequestTag(requestBuilder.getResourceTemplate(), requestBuilder.getMethod().name()));
+
+        CacheControl cacheControl = toCacheControl(getCachePolicy(requestBuilder));
+        if (cacheControl != null) {
+            okRequestBuilder.cacheControl(cacheControl);
+        }
+
+        Request request = okRequestBuilder.build();
 
         return request;
     }
@@ -476,8 +708,17 @@ public class OkHttpScramlClient implements Client {
         R typedResponse = null;
 
         if (response.isSuccessful() && responseBody != null) {
-            responseString = responseBody.string();
-            typedResponse = Json.parseBodyToObject(responseString, canonicalResponseType);
+            if (Boolean.TRUE.equals(config.getStreamTypedResponseBody())) {
+                // Decode straight from the response stream, so the body is never materialized as a string.
+                try {
+                    typedResponse = Json.parseBodyToObject(responseBody.byteStream(), canonicalResponseType);
+                } finally {
+                    responseBody.close();
+                }
+            } else {
+                responseString = responseBody.string();
+                typedResponse = Json.parseBodyToObject(responseString, canonicalResponseType);
+            }
         }
 
         return new io.atomicbits.scraml.dsl.androidjavajackson.Response<R>(
@@ -489,42 +730,6 @@ public class OkHttpScramlClient implements Client {
     }
 
 
-    /**
-     * NOTICE This part reuses software under the Apache 2.0 license.
-     * See com.ning.http.util.AsyncHttpProviderUtils in async-http-client
-     */
-    private byte[] readFully(InputStream in, int[] lengthWrapper) throws IOException {
-        // just in case available() returns bogus (or -1), allocate non-trivial chunk
-        byte[] b = new byte[Math.max(512, in.available())];
-        int offset = 0;
-        while (true) {
-            int left = b.length - offset;
-            int count = in.read(b, offset, left);
-            if (count < 0) { // EOF
-                break;
-            }
-            offset += count;
-            if (count == left) { // full buffer, need to expand
-                b = doubleUp(b);
-            }
-        }
-        // wish Java had Tuple return type...
-        lengthWrapper[0] = offset;
-        return b;
-    }
-
-    /**
-     * NOTICE This part reuses software under the Apache 2.0 license.
-     * See com.ning.http.util.AsyncHttpProviderUtils in async-http-client
-     */
-    private byte[] doubleUp(byte[] b) {
-        int len = b.length;
-        byte[] b2 = new byte[len + len];
-        System.arraycopy(b, 0, b2, 0, len);
-        return b2;
-    }
-
-
     @Override
     public ClientConfig getConfig() {
         return this.config;
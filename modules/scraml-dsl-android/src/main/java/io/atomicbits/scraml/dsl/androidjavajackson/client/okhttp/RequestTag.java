@@ -0,0 +1,80 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+/**
+ * The tag we put on every OkHttp request, so that per-call listeners know which RAML resource and method the call belongs to.
+ */
+public class RequestTag {
+
+    /**
+     * The part an OkHttp call plays in one logical client call. A stale-while-revalidate call can take a cache-only call followed by
+     * either a network fallback, when nothing usable was cached, or a background revalidation of the cached response.
+     */
+    public enum Role {
+        PRIMARY,
+        NETWORK_FALLBACK,
+        REVALIDATION
+    }
+
+    private final String resourceTemplate;
+    private final String method;
+    private final Role role;
+
+    public RequestTag(String resourceTemplate, String method) {
+        this(resourceTemplate, method, Role.PRIMARY);
+    }
+
+    public RequestTag(String resourceTemplate, String method, Role role) {
+        this.resourceTemplate = resourceTemplate;
+        this.method = method;
+        this.role = role;
+    }
+
+    public String getResourceTemplate() {
+        return resourceTemplate;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public RequestTag withRole(Role role) {
+        return new RequestTag(resourceTemplate, method, role);
+    }
+
+    /**
+     * @return The role of the given request, requests without a request tag are primary requests.
+     */
+    public static Role roleOf(okhttp3.Request request) {
+        Object tag = request.tag();
+        if (tag instanceof RequestTag) {
+            return ((RequestTag) tag).getRole();
+        }
+        return Role.PRIMARY;
+    }
+
+}
@@ -20,15 +20,21 @@
 
 package io.atomicbits.scraml.dsl.androidjavajackson.json;
 
-import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.*;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import io.atomicbits.scraml.dsl.androidjavajackson.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Created by peter on 28/03/17.
@@ -39,29 +45,69 @@ public class Json {
      * Reuse of ObjectMapper and JsonFactory is very easy: they are thread-safe provided that configuration is done before any use
      * (and from a single thread). After initial configuration use is fully thread-safe and does not need to be explicitly synchronized.
      * Source: http://wiki.fasterxml.com/JacksonBestPracticesPerformance
+     * <p>
+     * Building and configuring an ObjectMapper is expensive on low-end devices, so we postpone it until the first call that really
+     * needs it (initialization-on-demand holder). The date types carry their own (de)serializer annotations, which means their
+     * (de)serializers are only loaded when a date type is actually (de)serialized.
      */
-    private static ObjectMapper objectMapper = new ObjectMapper();
+    private static class ObjectMapperHolder {
 
-    static {
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        SimpleModule module = new SimpleModule("WdbModule", new Version(1, 0, 0, null, "io.atomicbits", "scraml"));
+        static final ObjectMapper objectMapper = createObjectMapper();
+
+        private static ObjectMapper createObjectMapper() {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            return objectMapper;
+        }
 
-        module.addSerializer(DateTimeRFC3339.class, new DateTimeRFC3339Serializer());
-        module.addDeserializer(DateTimeRFC3339.class, new DateTimeRFC3339Deserializer());
+    }
 
-        module.addSerializer(DateTimeRFC2616.class, new DateTimeRFC2616Serializer());
-        module.addDeserializer(DateTimeRFC2616.class, new DateTimeRFC2616Deserializer());
+    /**
+     * A plain JsonFactory is cheap to create and is all we need to read and write strings, numbers and booleans.
+     */
+    private static class JsonFactoryHolder {
 
-        module.addSerializer(DateTimeOnly.class, new DateTimeOnlySerializer());
-        module.addDeserializer(DateTimeOnly.class, new DateTimeOnlyDeserializer());
+        static final JsonFactory jsonFactory = new JsonFactory();
 
-        module.addSerializer(DateOnly.class, new DateOnlySerializer());
-        module.addDeserializer(DateOnly.class, new DateOnlyDeserializer());
+    }
 
-        module.addSerializer(TimeOnly.class, new TimeOnlySerializer());
-        module.addDeserializer(TimeOnly.class, new TimeOnlyDeserializer());
+    private static final Map<String, Class<?>> primitiveTypes = new HashMap<>();
 
-        objectMapper.registerModule(module);
+    static {
+        primitiveTypes.put("java.lang.String", String.class);
+        primitiveTypes.put("java.lang.Long", Long.class);
+        primitiveTypes.put("java.lang.Integer", Integer.class);
+        primitiveTypes.put("java.lang.Double", Double.class);
+        primitiveTypes.put("java.lang.Boolean", Boolean.class);
+    }
+
+    /**
+     * Initialize the Jackson ObjectMapper in the background, e.g. on application start, so that the first API call doesn't pay
+     * for it. Calling this method is optional.
+     *
+     * @param executor The executor to run the initialization on.
+     */
+    public static void prewarm(Executor executor) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                getObjectMapper();
+            }
+        });
+    }
+
+    /**
+     * Parsing a canonical type string into a JavaType is not free, so we keep the result per canonical type.
+     */
+    private static Map<String, JavaType> javaTypeCache = new ConcurrentHashMap<>();
+
+    private static JavaType toJavaType(String canonicalType) {
+        JavaType javaType = javaTypeCache.get(canonicalType);
+        if (javaType == null) {
+            javaType = TypeFactory.defaultInstance().constructFromCanonical(canonicalType);
+            javaTypeCache.put(canonicalType, javaType);
+        }
+        return javaType;
     }
 
     /**
@@ -80,9 +126,11 @@ public class Json {
      * @return The JSON representation of the body as a string.
      */
     public static <B> String writeBodyToString(B body, String canonicalRequestType) {
-        if (canonicalRequestType != null && !body.getClass().isEnum() && !body.getClass().isPrimitive()) {
-            JavaType javaType = TypeFactory.defaultInstance().constructFromCanonical(canonicalRequestType);
-            ObjectWriter writer = objectMapper.writerFor(javaType);
+        if (canonicalRequestType != null && primitiveTypes.containsKey(canonicalRequestType)) {
+            return writePrimitiveToString(body);
+        } else if (canonicalRequestType != null && !body.getClass().isEnum() && !body.getClass().isPrimitive()) {
+            JavaType javaType = toJavaType(canonicalRequestType);
+            ObjectWriter writer = getObjectMapper().writerFor(javaType);
             try {
                 return writer.writeValueAsString(body);
             } catch (IOException e) {
@@ -95,7 +143,7 @@ public class Json {
 
     public static <B> Map<String, HttpParam> toFormUrlEncoded(B body) {
         try {
-            JsonNode jsonNode = objectMapper.valueToTree(body);
+            JsonNode jsonNode = getObjectMapper().valueToTree(body);
             Map<String, HttpParam> entries = new HashMap<>();
             for (Iterator<Map.Entry<String, JsonNode>> it = jsonNode.fields(); it.hasNext(); ) {
                 Map.Entry<String, JsonNode> entry = it.next();
@@ -112,16 +160,96 @@ public class Json {
     }
 
     public static <R> R parseBodyToObject(String body, String canonicalResponseType) {
-        JavaType javaType = TypeFactory.defaultInstance().constructFromCanonical(canonicalResponseType);
         try {
-            return objectMapper.readValue(body, javaType);
+            Class<?> primitiveType = primitiveTypes.get(canonicalResponseType);
+            if (primitiveType != null) {
+                return readPrimitive(JsonFactoryHolder.jsonFactory.createParser(body), primitiveType);
+            }
+            JavaType javaType = toJavaType(canonicalResponseType);
+            return getObjectMapper().readValue(body, javaType);
+        } catch (IOException e) {
+            throw new RuntimeException("JSON parse error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse the body directly from the given stream with Jackson's streaming parser, without building an intermediate string.
+     * The stream is closed after parsing.
+     *
+     * @param body                  The stream containing the JSON body.
+     * @param canonicalResponseType The canonical form of the response type.
+     * @param <R>                   The type of the response.
+     * @return The parsed response object.
+     */
+    public static <R> R parseBodyToObject(InputStream body, String canonicalResponseType) {
+        try {
+            Class<?> primitiveType = primitiveTypes.get(canonicalResponseType);
+            if (primitiveType != null) {
+                return readPrimitive(JsonFactoryHolder.jsonFactory.createParser(body), primitiveType);
+            }
+            JavaType javaType = toJavaType(canonicalResponseType);
+            return getObjectMapper().readValue(body, javaType);
         } catch (IOException e) {
             throw new RuntimeException("JSON parse error: " + e.getMessage(), e);
         }
     }
 
     public static ObjectMapper getObjectMapper() {
-        return objectMapper;
+        return ObjectMapperHolder.objectMapper;
+    }
+
+    private static String writePrimitiveToString(Object value) {
+        StringWriter writer = new StringWriter();
+        try {
+            JsonGenerator generator = JsonFactoryHolder.jsonFactory.createGenerator(writer);
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof String) {
+                generator.writeString((String) value);
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else if (value instanceof Double) {
+                generator.writeNumber((Double) value);
+            } else if (value instanceof Number) {
+                generator.writeNumber(((Number) value).longValue());
+            } else {
+                generator.writeString(value.toString());
+            }
+            generator.close();
+        } catch (IOException e) {
+            throw new RuntimeException("JSON serialization error: " + e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Read a single JSON string, number, boolean or null value with the streaming parser. Only the tokens that map natively onto
+     * the primitive type are read here, all other tokens (e.g. a quoted number or a number where a boolean is expected) are
+     * handed to the ObjectMapper so that they are coerced (or rejected) exactly like the ObjectMapper would.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R readPrimitive(JsonParser parser, Class<?> primitiveType) throws IOException {
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (primitiveType == String.class && token == JsonToken.VALUE_STRING) {
+                return (R) parser.getText();
+            } else if (primitiveType == Long.class && token == JsonToken.VALUE_NUMBER_INT) {
+                return (R) (Long) parser.getLongValue();
+            } else if (primitiveType == Integer.class && token == JsonToken.VALUE_NUMBER_INT) {
+                return (R) (Integer) parser.getIntValue();
+            } else if (primitiveType == Double.class && token.isNumeric()) {
+                return (R) (Double) parser.getDoubleValue();
+            } else if (primitiveType == Boolean.class && token.isBoolean()) {
+                return (R) (Boolean) parser.getBooleanValue();
+            } else {
+                return (R) getObjectMapper().readValue(parser, primitiveType);
+            }
+        } finally {
+            parser.close();
+        }
     }
 
 }
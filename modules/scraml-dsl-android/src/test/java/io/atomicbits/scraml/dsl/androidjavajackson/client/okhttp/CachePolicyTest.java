@@ -0,0 +1,171 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.CachePolicy;
+import io.atomicbits.scraml.dsl.androidjavajackson.Method;
+import io.atomicbits.scraml.dsl.androidjavajackson.RequestBuilder;
+import io.atomicbits.scraml.dsl.androidjavajackson.Response;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CacheStatistics;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.ClientConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class CachePolicyTest {
+
+    private TestHttpServer server;
+    private File cacheDirectory;
+    private OkHttpScramlClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestHttpServer();
+        cacheDirectory = Files.createTempDirectory("scraml-cache-test").toFile();
+        ClientConfig config = new ClientConfig();
+        config.setCacheDirectory(cacheDirectory);
+        client = new OkHttpScramlClient(server.getHost(), server.getPort(), "http", null, config, null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+        deleteRecursively(cacheDirectory);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private TestCallback<String> get(CachePolicy cachePolicy) {
+        TestCallback<String> callback = new TestCallback<>();
+        RequestBuilder requestBuilder = new RequestBuilder(client);
+        requestBuilder.setMethod(Method.GET);
+        requestBuilder.appendPathElement("greeting");
+        requestBuilder.setCachePolicy(cachePolicy);
+        requestBuilder.callToStringResponse(null, callback);
+        return callback;
+    }
+
+    private static TestHttpServer.MockResponse response(String body, String cacheControl) {
+        return new TestHttpServer.MockResponse(200, body).withHeader("Cache-Control", cacheControl);
+    }
+
+    private void assertStatistics(int requests, int network, int hits, int revalidations) {
+        CacheStatistics statistics = client.getCacheStatistics();
+        assertEquals("requests in " + statistics, requests, statistics.getRequestCount());
+        assertEquals("network in " + statistics, network, statistics.getNetworkCount());
+        assertEquals("hits in " + statistics, hits, statistics.getHitCount());
+        assertEquals("revalidations in " + statistics, revalidations, statistics.getRevalidationCount());
+    }
+
+    @Test
+    public void testNetworkPolicyServesFreshResponsesFromTheCache() throws Exception {
+        server.enqueue(response("hello", "max-age=60"));
+
+        assertEquals("hello", get(CachePolicy.NETWORK).awaitOk().getBody());
+        assertEquals("hello", get(CachePolicy.NETWORK).awaitOk().getBody());
+
+        assertEquals(1, server.getRequestCount());
+        assertStatistics(2, 1, 1, 0);
+        assertEquals(5L, client.getCacheStatistics().getBytesSaved());
+    }
+
+    @Test
+    public void testNetworkPolicyCountsAConditionalRequestAsHitAndNetworkCall() throws Exception {
+        server.enqueue(response("hello", "max-age=0").withHeader("ETag", "\"v1\""));
+        server.enqueue(new TestHttpServer.MockResponse(304, "").withHeader("ETag", "\"v1\""));
+
+        assertEquals("hello", get(CachePolicy.NETWORK).awaitOk().getBody());
+        assertEquals("hello", get(CachePolicy.NETWORK).awaitOk().getBody());
+
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertStatistics(2, 2, 1, 0);
+    }
+
+    @Test
+    public void testOfflineFirstPolicyAcceptsStaleResponses() throws Exception {
+        server.enqueue(response("hello", "max-age=0"));
+
+        assertEquals("hello", get(CachePolicy.offlineFirst(3600)).awaitOk().getBody());
+        assertEquals("hello", get(CachePolicy.offlineFirst(3600)).awaitOk().getBody());
+
+        assertEquals(1, server.getRequestCount());
+        assertStatistics(2, 1, 1, 0);
+    }
+
+    @Test
+    public void testCacheOnlyPolicyWithoutCachedResponse() throws Exception {
+        Response<String> response = get(CachePolicy.CACHE_ONLY).awaitNok();
+
+        assertEquals(504, response.getStatus());
+        assertEquals(0, server.getRequestCount());
+        assertStatistics(1, 0, 0, 0);
+    }
+
+    @Test
+    public void testStaleWhileRevalidateCountsEachLogicalCallOnce() throws Exception {
+        server.enqueue(response("first", "max-age=0"));
+        server.enqueue(response("second", "max-age=0"));
+
+        // Nothing cached yet: the cache-only call misses and the network fallback answers.
+        assertEquals("first", get(CachePolicy.staleWhileRevalidate(3600)).awaitOk().getBody());
+        assertStatistics(1, 1, 0, 0);
+
+        // The stale response is delivered and revalidated in the background.
+        assertEquals("first", get(CachePolicy.staleWhileRevalidate(3600)).awaitOk().getBody());
+        awaitIdle();
+        assertEquals(2, server.getRequestCount());
+        assertStatistics(2, 1, 1, 1);
+
+        assertEquals("second", get(CachePolicy.staleWhileRevalidate(3600)).awaitOk().getBody());
+        awaitIdle();
+        assertStatistics(3, 1, 2, 2);
+    }
+
+    /**
+     * Wait until the background revalidation calls have finished and written their response to the cache.
+     */
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (client.getClient().dispatcher().runningCallsCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+}
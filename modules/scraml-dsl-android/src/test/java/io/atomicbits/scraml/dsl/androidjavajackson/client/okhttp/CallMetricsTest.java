@@ -0,0 +1,127 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.Method;
+import io.atomicbits.scraml.dsl.androidjavajackson.RequestBuilder;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CallMetrics;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.CallMetricsListener;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.ClientConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class CallMetricsTest {
+
+    private TestHttpServer server;
+    private OkHttpScramlClient client;
+    private final BlockingQueue<CallMetrics> reported = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestHttpServer();
+        ClientConfig config = new ClientConfig();
+        config.setCallMetricsListener(new CallMetricsListener() {
+            @Override
+            public void onCallMetrics(CallMetrics callMetrics) {
+                reported.add(callMetrics);
+            }
+        });
+        client = new OkHttpScramlClient(server.getHost(), server.getPort(), "http", null, config, null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private CallMetrics getUser(String userId) throws Exception {
+        RequestBuilder users = new RequestBuilder(client);
+        users.appendPathElement("users");
+        RequestBuilder user = new RequestBuilder();
+        user.appendPathElement(userId, "{userid}");
+        user.setParentRequestBuilder(users);
+
+        RequestBuilder requestBuilder = user.fold();
+        requestBuilder.setMethod(Method.GET);
+        TestCallback<String> callback = new TestCallback<>();
+        requestBuilder.callToStringResponse(null, callback);
+        callback.awaitOk();
+
+        CallMetrics callMetrics = reported.poll(10, TimeUnit.SECONDS);
+        assertNotNull("No call metrics were reported.", callMetrics);
+        return callMetrics;
+    }
+
+    @Test
+    public void testCallMetricsAreTaggedWithTheResourceTemplate() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, "{\"name\":\"John\"}").withDelay(50));
+
+        CallMetrics callMetrics = getUser("42");
+
+        assertEquals("/users/{userid}", callMetrics.getResourceTemplate());
+        assertEquals("GET", callMetrics.getMethod());
+        assertTrue(callMetrics.getUrl().endsWith("/users/42"));
+        assertEquals("http/1.1", callMetrics.getProtocol());
+        assertFalse(callMetrics.isHttp2());
+        assertNull(callMetrics.getFailure());
+        assertEquals(15, callMetrics.getResponseBodyBytes());
+    }
+
+    @Test
+    public void testCallMetricsTimings() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, "{\"name\":\"John\"}").withDelay(50));
+
+        CallMetrics callMetrics = getUser("42");
+
+        assertTrue(callMetrics.getConnectMillis() >= 0);
+        assertEquals(-1, callMetrics.getTlsMillis());
+        assertTrue(callMetrics.toString(), callMetrics.getTimeToFirstByteMillis() >= 0);
+        assertTrue(callMetrics.toString(), callMetrics.getTotalMillis() >= 50);
+        assertTrue(callMetrics.toString(), callMetrics.getTotalMillis() >= callMetrics.getTimeToFirstByteMillis());
+    }
+
+    @Test
+    public void testPooledConnectionIsReportedAsReused() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, "{\"name\":\"John\"}"));
+        server.enqueue(new TestHttpServer.MockResponse(200, "{\"name\":\"Jane\"}"));
+
+        CallMetrics first = getUser("42");
+        CallMetrics second = getUser("43");
+
+        assertFalse(first.isConnectionReused());
+        assertTrue(second.isConnectionReused());
+        assertEquals(-1, second.getConnectMillis());
+        assertEquals("/users/{userid}", second.getResourceTemplate());
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.BinaryRequest;
+import io.atomicbits.scraml.dsl.androidjavajackson.InputStreamPart;
+import io.atomicbits.scraml.dsl.androidjavajackson.Method;
+import io.atomicbits.scraml.dsl.androidjavajackson.ProgressListener;
+import io.atomicbits.scraml.dsl.androidjavajackson.RequestBuilder;
+import io.atomicbits.scraml.dsl.androidjavajackson.StringPart;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.ClientConfig;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class InputStreamRequestBodyTest {
+
+    private TestHttpServer server;
+    private OkHttpScramlClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestHttpServer();
+        ClientConfig config = new ClientConfig();
+        config.setMaxRequestRetry(3);
+        client = new OkHttpScramlClient(server.getHost(), server.getPort(), "http", null, config, null);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i % 251);
+        }
+        return bytes;
+    }
+
+    private RequestBuilder uploadRequest() {
+        RequestBuilder requestBuilder = new RequestBuilder(client);
+        requestBuilder.setMethod(Method.POST);
+        requestBuilder.appendPathElement("upload");
+        requestBuilder.setHeader("Content-Type", "application/octet-stream");
+        return requestBuilder;
+    }
+
+    @Test
+    public void testStreamWithKnownContentLength() throws Exception {
+        byte[] bytes = payload(300000);
+        final AtomicLong lastProgress = new AtomicLong();
+        ProgressListener progressListener = new ProgressListener() {
+            @Override
+            public void onProgress(long bytesWritten, long contentLength) {
+                lastProgress.set(bytesWritten);
+            }
+        };
+
+        RequestBuilder requestBuilder = uploadRequest();
+        requestBuilder.setBinaryRequest(BinaryRequest.create(new ByteArrayInputStream(bytes), bytes.length, progressListener));
+        TestCallback<String> callback = new TestCallback<>();
+        requestBuilder.callToStringResponse(null, callback);
+        callback.awaitOk();
+
+        TestHttpServer.RecordedRequest request = server.takeRequest();
+        assertEquals(String.valueOf(bytes.length), request.getHeader("Content-Length"));
+        assertNull(request.getHeader("Transfer-Encoding"));
+        assertArrayEquals(bytes, request.getBody());
+        assertEquals(bytes.length, lastProgress.get());
+    }
+
+    @Test
+    public void testStreamWithUnknownContentLengthIsChunked() throws Exception {
+        byte[] bytes = payload(100000);
+
+        RequestBuilder requestBuilder = uploadRequest();
+        requestBuilder.setBinaryRequest(BinaryRequest.create(new ByteArrayInputStream(bytes)));
+        TestCallback<String> callback = new TestCallback<>();
+        requestBuilder.callToStringResponse(null, callback);
+        callback.awaitOk();
+
+        TestHttpServer.RecordedRequest request = server.takeRequest();
+        assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+        assertNull(request.getHeader("Content-Length"));
+        assertArrayEquals(bytes, request.getBody());
+    }
+
+    @Test
+    public void testMultipartInputStreamPart() throws Exception {
+        byte[] bytes = payload(50000);
+
+        RequestBuilder requestBuilder = new RequestBuilder(client);
+        requestBuilder.setMethod(Method.POST);
+        requestBuilder.appendPathElement("upload");
+        requestBuilder.addMultipartParameter(new StringPart("description", "a streamed file"));
+        requestBuilder.addMultipartParameter(
+                new InputStreamPart("file", new ByteArrayInputStream(bytes), -1, null, StandardCharsets.UTF_8, "data.bin",
+                        "application/octet-stream", null)
+        );
+        TestCallback<String> callback = new TestCallback<>();
+        requestBuilder.callToStringResponse(null, callback);
+        callback.awaitOk();
+
+        TestHttpServer.RecordedRequest request = server.takeRequest();
+        assertTrue(request.getHeader("Content-Type").startsWith("multipart/"));
+        // A part with an unknown length makes the length of the whole multipart body unknown.
+        assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+        String body = new String(request.getBody(), StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("name=\"description\""));
+        assertTrue(body.contains("a streamed file"));
+        assertTrue(body.contains("name=\"file\"; filename=\"data.bin\""));
+        assertTrue(body.contains(new String(bytes, StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    public void testBodyCanOnlyBeWrittenOnce() throws Exception {
+        byte[] bytes = payload(1000);
+        InputStreamRequestBody body =
+                new InputStreamRequestBody(MediaType.parse("application/octet-stream"), new ByteArrayInputStream(bytes), bytes.length, null);
+
+        Buffer first = new Buffer();
+        body.writeTo(first);
+        assertArrayEquals(bytes, first.readByteArray());
+
+        try {
+            body.writeTo(new Buffer());
+            fail("Expected the second write of a streamed body to fail.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("cannot be sent again"));
+        }
+    }
+
+    @Test
+    public void testStreamedBodiesAreNotRetried() throws Exception {
+        RequestBuilder streamed = uploadRequest();
+        streamed.setBinaryRequest(BinaryRequest.create(new ByteArrayInputStream(payload(10))));
+        RequestBuilder plain = uploadRequest();
+
+        assertTrue(client.clientFor(client.buildRequest(plain, "text")).retryOnConnectionFailure());
+        assertFalse(client.clientFor(client.buildRequest(streamed, null)).retryOnConnectionFailure());
+    }
+
+    @Test
+    public void testStreamedBodiesAreRecognized() {
+        RequestBody streamed = new InputStreamRequestBody(null, new ByteArrayInputStream(new byte[0]), 0, null);
+        RequestBody plain = RequestBody.create(null, "text");
+
+        assertTrue(InputStreamRequestBody.isStreamed(streamed));
+        assertFalse(InputStreamRequestBody.isStreamed(plain));
+        assertFalse(InputStreamRequestBody.isStreamed(null));
+        assertTrue(InputStreamRequestBody.isStreamed(new MultipartBody.Builder().addFormDataPart("a", "b").addFormDataPart("c", "d", streamed).build()));
+        assertFalse(InputStreamRequestBody.isStreamed(new MultipartBody.Builder().addFormDataPart("a", "b").build()));
+    }
+
+}
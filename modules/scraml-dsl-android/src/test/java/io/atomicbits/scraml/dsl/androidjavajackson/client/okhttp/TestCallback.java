@@ -0,0 +1,128 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.DispatchingCallback;
+import io.atomicbits.scraml.dsl.androidjavajackson.Response;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A callback that lets a test wait for the outcome of an asynchronous call.
+ */
+public class TestCallback<T> implements DispatchingCallback<T> {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final Executor callbackExecutor;
+
+    private volatile Response<T> okResponse;
+    private volatile Response<String> nokResponse;
+    private volatile Throwable failure;
+    private volatile Thread callbackThread;
+
+    public TestCallback() {
+        this(null);
+    }
+
+    public TestCallback(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    @Override
+    public void onFailure(Throwable t) {
+        failure = t;
+        finish();
+    }
+
+    @Override
+    public void onNokResponse(Response<String> response) {
+        nokResponse = response;
+        finish();
+    }
+
+    @Override
+    public void onOkResponse(Response<T> response) {
+        okResponse = response;
+        finish();
+    }
+
+    private void finish() {
+        callbackThread = Thread.currentThread();
+        done.countDown();
+    }
+
+    private void await() throws InterruptedException {
+        if (!done.await(10, TimeUnit.SECONDS)) {
+            throw new AssertionError("The call did not complete within 10 seconds.");
+        }
+    }
+
+    /**
+     * Wait for the call and return its successful response, failing the test on any other outcome.
+     */
+    public Response<T> awaitOk() throws InterruptedException {
+        await();
+        if (failure != null) {
+            throw new AssertionError("Expected a successful response, but the call failed.", failure);
+        }
+        if (nokResponse != null) {
+            throw new AssertionError("Expected a successful response, but got: " + nokResponse);
+        }
+        return okResponse;
+    }
+
+    /**
+     * Wait for the call and return its unsuccessful response, failing the test on any other outcome.
+     */
+    public Response<String> awaitNok() throws InterruptedException {
+        await();
+        if (failure != null) {
+            throw new AssertionError("Expected an unsuccessful response, but the call failed.", failure);
+        }
+        if (okResponse != null) {
+            throw new AssertionError("Expected an unsuccessful response, but got: " + okResponse);
+        }
+        return nokResponse;
+    }
+
+    /**
+     * Wait for the call and return the reason it failed, failing the test on any other outcome.
+     */
+    public Throwable awaitFailure() throws InterruptedException {
+        await();
+        if (failure == null) {
+            throw new AssertionError("Expected the call to fail, but got: " + (okResponse != null ? okResponse : nokResponse));
+        }
+        return failure;
+    }
+
+    public Thread getCallbackThread() {
+        return callbackThread;
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+package io.atomicbits.scraml.dsl.androidjavajackson.client.okhttp;
+
+import io.atomicbits.scraml.dsl.androidjavajackson.Method;
+import io.atomicbits.scraml.dsl.androidjavajackson.RequestBuilder;
+import io.atomicbits.scraml.dsl.androidjavajackson.Response;
+import io.atomicbits.scraml.dsl.androidjavajackson.client.ClientConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.Assert.*;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class TypedResponseTest {
+
+    private static final String MAP_TYPE = "java.util.Map<java.lang.String,java.util.List<java.lang.Long>>";
+
+    private static final String JSON = "{\"numbers\":[1,2,3]}";
+
+    private TestHttpServer server;
+    private ExecutorService callbackExecutor;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestHttpServer();
+        callbackExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "test-callback-thread");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        callbackExecutor.shutdownNow();
+    }
+
+    private OkHttpScramlClient client(ClientConfig config) {
+        return new OkHttpScramlClient(server.getHost(), server.getPort(), "http", null, config, null);
+    }
+
+    private <T> TestCallback<T> get(OkHttpScramlClient client, TestCallback<T> callback) {
+        RequestBuilder requestBuilder = new RequestBuilder(client);
+        requestBuilder.setMethod(Method.GET);
+        requestBuilder.appendPathElement("numbers");
+        requestBuilder.callToTypeResponse(null, MAP_TYPE, callback);
+        return callback;
+    }
+
+    @Test
+    public void testTypedResponseKeepsTheStringBodyByDefault() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, JSON).withHeader("Content-Type", "application/json"));
+
+        Response<Map<String, List<Long>>> response = get(client(new ClientConfig()), new TestCallback<Map<String, List<Long>>>()).awaitOk();
+
+        assertEquals(JSON, response.getStringBody());
+        assertEquals(Arrays.asList(1L, 2L, 3L), response.getBody().get("numbers"));
+    }
+
+    @Test
+    public void testStreamedTypedResponse() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, JSON).withHeader("Content-Type", "application/json"));
+        ClientConfig config = new ClientConfig();
+        config.setStreamTypedResponseBody(true);
+
+        Response<Map<String, List<Long>>> response = get(client(config), new TestCallback<Map<String, List<Long>>>()).awaitOk();
+
+        assertNull(response.getStringBody());
+        assertEquals(Arrays.asList(1L, 2L, 3L), response.getBody().get("numbers"));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testStreamedTypedResponseWithInvalidJsonFails() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, "{\"numbers\":[1,").withHeader("Content-Type", "application/json"));
+        ClientConfig config = new ClientConfig();
+        config.setStreamTypedResponseBody(true);
+
+        Throwable failure = get(client(config), new TestCallback<Map<String, List<Long>>>()).awaitFailure();
+
+        assertTrue(failure.getMessage().startsWith("JSON parse error"));
+    }
+
+    @Test
+    public void testDispatchingCallbackChoosesTheExecutor() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(200, JSON));
+
+        TestCallback<Map<String, List<Long>>> callback =
+                get(client(new ClientConfig()), new TestCallback<Map<String, List<Long>>>(callbackExecutor));
+        callback.awaitOk();
+
+        assertEquals("test-callback-thread", callback.getCallbackThread().getName());
+    }
+
+    @Test
+    public void testDefaultCallbackExecutorFromTheConfig() throws Exception {
+        server.enqueue(new TestHttpServer.MockResponse(404, "not here"));
+        ClientConfig config = new ClientConfig();
+        config.setCallbackExecutor(callbackExecutor);
+
+        TestCallback<Map<String, List<Long>>> callback = get(client(config), new TestCallback<Map<String, List<Long>>>());
+        Response<String> nokResponse = callback.awaitNok();
+
+        assertEquals(404, nokResponse.getStatus());
+        assertEquals("not here", nokResponse.getStringBody());
+        assertEquals("test-callback-thread", callback.getCallbackThread().getName());
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+package io.atomicbits.scraml.dsl.androidjavajackson.json;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class JsonTest {
+
+    private static final List<String> PRIMITIVE_TYPES =
+            Arrays.asList("java.lang.String", "java.lang.Long", "java.lang.Integer", "java.lang.Double", "java.lang.Boolean");
+
+    private static final List<String> BODIES =
+            Arrays.asList(
+                    "\"hello\"", "\"\"", "42", "-7", "1.5", "1e3", "\"42\"", "\" 42 \"", "\"1.5\"", "\"abc\"", "true", "false",
+                    "\"true\"", "\"false\"", "\"1\"", "\"0\"", "1", "0", "null", "9223372036854775807", "3000000000", "[1]",
+                    "{\"a\":1}"
+            );
+
+    /**
+     * The streaming path for primitive types must give the same result as the ObjectMapper, including the failures.
+     */
+    @Test
+    public void testPrimitivesAreDecodedLikeTheObjectMapper() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String type : PRIMITIVE_TYPES) {
+            Class<?> clazz = Class.forName(type);
+            for (String body : BODIES) {
+                String expected;
+                try {
+                    expected = String.valueOf(objectMapper.readValue(body, clazz));
+                } catch (Exception e) {
+                    expected = "failure";
+                }
+                assertEquals(type + " from " + body, expected, decodeFromString(body, type));
+                assertEquals(type + " from streamed " + body, expected, decodeFromStream(body, type));
+            }
+        }
+    }
+
+    private static String decodeFromString(String body, String type) {
+        try {
+            return String.valueOf(Json.parseBodyToObject(body, type));
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("JSON parse error"));
+            return "failure";
+        }
+    }
+
+    private static String decodeFromStream(String body, String type) {
+        try {
+            return String.valueOf(Json.parseBodyToObject(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), type));
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("JSON parse error"));
+            return "failure";
+        }
+    }
+
+    @Test
+    public void testWritePrimitives() {
+        assertEquals("\"hello\"", Json.writeBodyToString("hello", "java.lang.String"));
+        assertEquals("42", Json.writeBodyToString(42L, "java.lang.Long"));
+        assertEquals("7", Json.writeBodyToString(7, "java.lang.Integer"));
+        assertEquals("1.5", Json.writeBodyToString(1.5, "java.lang.Double"));
+        assertEquals("true", Json.writeBodyToString(true, "java.lang.Boolean"));
+    }
+
+    @Test
+    public void testObjectsUseTheObjectMapper() {
+        String mapType = "java.util.Map<java.lang.String,java.util.List<java.lang.Long>>";
+        Map<String, List<Long>> numbers = Json.parseBodyToObject("{\"numbers\":[1,2]}", mapType);
+        assertEquals(Arrays.asList(1L, 2L), numbers.get("numbers"));
+        assertEquals("{\"numbers\":[1,2]}", Json.writeBodyToString(numbers, mapType));
+    }
+
+    /**
+     * A class loader that loads the Json class and Jackson in isolation, so that we can see which classes are initialized.
+     */
+    private static class IsolatedClassLoader extends URLClassLoader {
+
+        IsolatedClassLoader() {
+            super(
+                    new URL[]{location(Json.class), location(JsonFactory.class), location(ObjectMapper.class), location(JsonProperty.class)},
+                    null
+            );
+        }
+
+        private static URL location(Class<?> clazz) {
+            return clazz.getProtectionDomain().getCodeSource().getLocation();
+        }
+
+        boolean isLoaded(String className) {
+            return findLoadedClass(className) != null;
+        }
+
+    }
+
+    @Test
+    public void testObjectMapperIsOnlyCreatedWhenNeeded() throws Exception {
+        IsolatedClassLoader classLoader = new IsolatedClassLoader();
+        Class<?> json = classLoader.loadClass(Json.class.getName());
+        String holder = Json.class.getName() + "$ObjectMapperHolder";
+
+        Method parse = json.getMethod("parseBodyToObject", String.class, String.class);
+        assertEquals(42L, parse.invoke(null, "42", "java.lang.Long"));
+        assertEquals("hello", parse.invoke(null, "\"hello\"", "java.lang.String"));
+        assertFalse(classLoader.isLoaded(holder));
+
+        Method prewarm = json.getMethod("prewarm", Executor.class);
+        prewarm.invoke(null, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        assertTrue(classLoader.isLoaded(holder));
+    }
+
+}
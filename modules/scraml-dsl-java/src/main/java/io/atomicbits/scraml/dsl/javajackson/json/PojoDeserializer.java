@@ -0,0 +1,213 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+package io.atomicbits.scraml.dsl.javajackson.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+
+/**
+ * Base class for the generated streaming deserializers of transfer objects. The deserializers of field values that are not read
+ * directly from the parser are looked up once, when Jackson resolves the deserializer.
+ *
+ * @param <T> The type of the transfer object.
+ */
+public abstract class PojoDeserializer<T> extends StdDeserializer<T> implements ResolvableDeserializer {
+
+    protected PojoDeserializer(Class<T> valueClass) {
+        super(valueClass);
+    }
+
+    /**
+     * Read the fields of a transfer object of exactly this type. The parser is positioned on the first field name, or on the end of
+     * the object if it has no fields, and is left on the end of the object. Unknown fields are skipped.
+     */
+    public abstract T deserializeFields(JsonParser p, DeserializationContext ctxt) throws IOException;
+
+    @Override
+    public void resolve(DeserializationContext ctxt) throws JsonMappingException {
+    }
+
+    @Override
+    public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            throw ctxt.mappingException(handledType(), token);
+        }
+        return deserializeFields(p, ctxt);
+    }
+
+    /**
+     * The generated deserializers handle the type discriminator themselves, so the type deserializer that Jackson passes for
+     * polymorphic types is ignored.
+     */
+    @Override
+    public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer) throws IOException {
+        return deserialize(p, ctxt);
+    }
+
+    @Override
+    public boolean isCachable() {
+        return true;
+    }
+
+    protected static JavaType typeOf(TypeReference<?> typeReference) {
+        return TypeFactory.defaultInstance().constructType(typeReference);
+    }
+
+    protected static Object readValue(JsonParser p, DeserializationContext ctxt, JsonDeserializer<Object> deserializer) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return deserializer.deserialize(p, ctxt);
+    }
+
+    protected static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token.isScalarValue()) {
+            return p.getText();
+        }
+        throw ctxt.mappingException(String.class, token);
+    }
+
+    protected static Long readLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.getCurrentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+                return p.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return (long) p.getDoubleValue();
+            case VALUE_STRING:
+                try {
+                    return Long.valueOf(p.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw ctxt.mappingException("Cannot read a long value from '" + p.getText() + "'.");
+                }
+            default:
+                throw ctxt.mappingException(Long.class, p.getCurrentToken());
+        }
+    }
+
+    protected static Double readDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.getCurrentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return p.getDoubleValue();
+            case VALUE_STRING:
+                try {
+                    return Double.valueOf(p.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw ctxt.mappingException("Cannot read a double value from '" + p.getText() + "'.");
+                }
+            default:
+                throw ctxt.mappingException(Double.class, p.getCurrentToken());
+        }
+    }
+
+    protected static Boolean readBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.getCurrentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NUMBER_INT:
+                return p.getLongValue() != 0L;
+            case VALUE_STRING:
+                String text = p.getText().trim();
+                if ("true".equals(text)) {
+                    return Boolean.TRUE;
+                } else if ("false".equals(text)) {
+                    return Boolean.FALSE;
+                }
+                throw ctxt.mappingException("Cannot read a boolean value from '" + text + "'.");
+            default:
+                throw ctxt.mappingException(Boolean.class, p.getCurrentToken());
+        }
+    }
+
+    /**
+     * Read the value of a primitive long field. JSON null becomes 0, unless FAIL_ON_NULL_FOR_PRIMITIVES is enabled.
+     */
+    protected static long readPrimitiveLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue();
+        }
+        Long value = readLong(p, ctxt);
+        if (value == null) {
+            checkNullForPrimitive(ctxt, long.class);
+            return 0L;
+        }
+        return value;
+    }
+
+    /**
+     * Read the value of a primitive double field. JSON null becomes 0.0, unless FAIL_ON_NULL_FOR_PRIMITIVES is enabled.
+     */
+    protected static double readPrimitiveDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDoubleValue();
+        }
+        Double value = readDouble(p, ctxt);
+        if (value == null) {
+            checkNullForPrimitive(ctxt, double.class);
+            return 0.0;
+        }
+        return value;
+    }
+
+    /**
+     * Read the value of a primitive boolean field. JSON null becomes false, unless FAIL_ON_NULL_FOR_PRIMITIVES is enabled.
+     */
+    protected static boolean readPrimitiveBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+        Boolean value = readBoolean(p, ctxt);
+        if (value == null) {
+            checkNullForPrimitive(ctxt, boolean.class);
+            return false;
+        }
+        return value;
+    }
+
+    private static void checkNullForPrimitive(DeserializationContext ctxt, Class<?> primitiveType) throws JsonMappingException {
+        if (ctxt.isEnabled(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)) {
+            throw ctxt.mappingException("Cannot map JSON null into the primitive type " + primitiveType.getName() + ".");
+        }
+    }
+
+}
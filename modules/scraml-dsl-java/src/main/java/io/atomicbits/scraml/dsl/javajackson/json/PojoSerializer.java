@@ -0,0 +1,84 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+package io.atomicbits.scraml.dsl.javajackson.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Base class for the generated streaming serializers of transfer objects. A generated serializer writes the type discriminator
+ * itself when the transfer object is part of a class hierarchy, so the type serializer that Jackson passes for polymorphic types
+ * is ignored.
+ *
+ * @param <T> The type of the transfer object.
+ */
+public abstract class PojoSerializer<T> extends StdSerializer<T> {
+
+    protected PojoSerializer(Class<T> valueClass) {
+        super(valueClass);
+    }
+
+    /**
+     * Write the fields of the given transfer object, including its type discriminator if it has one.
+     */
+    protected abstract void serializeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+
+    @Override
+    public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        serializeFields(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(value, gen, provider);
+    }
+
+    protected static void writeLongField(JsonGenerator gen, String fieldName, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(fieldName);
+        } else {
+            gen.writeNumberField(fieldName, value.longValue());
+        }
+    }
+
+    protected static void writeDoubleField(JsonGenerator gen, String fieldName, Double value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(fieldName);
+        } else {
+            gen.writeNumberField(fieldName, value.doubleValue());
+        }
+    }
+
+    protected static void writeBooleanField(JsonGenerator gen, String fieldName, Boolean value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(fieldName);
+        } else {
+            gen.writeBooleanField(fieldName, value.booleanValue());
+        }
+    }
+
+}
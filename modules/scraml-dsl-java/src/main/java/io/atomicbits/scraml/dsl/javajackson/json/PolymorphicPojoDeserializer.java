@@ -0,0 +1,104 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+package io.atomicbits.scraml.dsl.javajackson.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class for the generated streaming deserializers of transfer objects that have subtypes. The type discriminator is looked up
+ * first and the fields are then read by the deserializer of the type it names. When the discriminator is the first field, which is
+ * how the generated serializers write it, the object is read in a single pass. Otherwise, the fields before the discriminator are
+ * buffered and replayed.
+ *
+ * @param <T> The type of the transfer object.
+ */
+public abstract class PolymorphicPojoDeserializer<T> extends PojoDeserializer<T> {
+
+    private final String discriminator;
+
+    private final Map<String, PojoDeserializer<? extends T>> deserializersByTypeId = new HashMap<>();
+
+    /**
+     * @param valueClass The type of the transfer object.
+     * @param discriminator The name of the type discriminator field.
+     * @param typeId The discriminator value of the transfer object itself.
+     */
+    protected PolymorphicPojoDeserializer(Class<T> valueClass, String discriminator, String typeId) {
+        super(valueClass);
+        this.discriminator = discriminator;
+        this.deserializersByTypeId.put(typeId, this);
+    }
+
+    /**
+     * Register the generated deserializer of a subtype. Call this from resolve().
+     */
+    @SuppressWarnings("unchecked")
+    protected <S extends T> void addSubtype(DeserializationContext ctxt, String typeId, Class<S> subtype) throws JsonMappingException {
+        JsonDeserializer<Object> deserializer = ctxt.findContextualValueDeserializer(ctxt.constructType(subtype), null);
+        if (!(deserializer instanceof PojoDeserializer)) {
+            throw ctxt.mappingException("Expected a generated deserializer for " + subtype.getName() + ", register the generated module.");
+        }
+        deserializersByTypeId.put(typeId, (PojoDeserializer<S>) deserializer);
+    }
+
+    @Override
+    public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+        TokenBuffer buffer = null;
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String fieldName = p.getCurrentName();
+            p.nextToken();
+            if (discriminator.equals(fieldName)) {
+                String typeId = p.getText();
+                PojoDeserializer<? extends T> deserializer = deserializersByTypeId.get(typeId);
+                if (deserializer == null) {
+                    throw ctxt.mappingException("Unknown type id '" + typeId + "' for " + handledType().getName() + ".");
+                }
+                JsonParser fieldsParser = p;
+                if (buffer != null) {
+                    p.clearCurrentToken();
+                    fieldsParser = JsonParserSequence.createFlattened(buffer.asParser(p), p);
+                }
+                fieldsParser.nextToken();
+                return deserializer.deserializeFields(fieldsParser, ctxt);
+            }
+            if (buffer == null) {
+                buffer = new TokenBuffer(p.getCodec(), false);
+            }
+            buffer.writeFieldName(fieldName);
+            buffer.copyCurrentStructure(p);
+        }
+        throw ctxt.mappingException("Missing type discriminator '" + discriminator + "' for " + handledType().getName() + ".");
+    }
+
+}
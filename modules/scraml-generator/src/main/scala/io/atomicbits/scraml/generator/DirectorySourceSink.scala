@@ -0,0 +1,78 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.nio.charset.Charset
+import java.nio.file.{ Files, Path }
+import java.util.Arrays
+
+import scala.util.Try
+
+/**
+  * Writes the generated source files into a directory. Source files whose content equals the content of the file that is already
+  * on disk are not written, so that their modification time doesn't change and incremental compilers don't compile them again.
+  *
+  * @param directory   The directory to write the source files in.
+  * @param charsetName The charset to encode the source files with.
+  */
+class DirectorySourceSink(directory: Path, charsetName: String = "UTF-8") extends SourceSink {
+
+  private val charset = Charset.forName(charsetName)
+
+  override def write(filePath: String, content: String): Unit = writeIfChanged(filePath, content)
+
+  /**
+    * @return True if the file was written, false if the file on disk already had the given content.
+    */
+  def writeIfChanged(filePath: String, content: String): Boolean = {
+    val file    = DirectorySourceSink.resolveInside(directory, filePath)
+    val encoded = content.getBytes(charset)
+    if (hasContent(file, encoded)) {
+      false
+    } else {
+      Option(file.getParent).foreach(Files.createDirectories(_))
+      Files.write(file, encoded)
+      true
+    }
+  }
+
+  private def hasContent(file: Path, encoded: Array[Byte]): Boolean =
+    Files.isRegularFile(file) && Files.size(file) == encoded.length && Arrays.equals(Files.readAllBytes(file), encoded)
+
+}
+
+object DirectorySourceSink {
+
+  /**
+    * Resolve a relative file path against the given directory, refusing file paths that end up outside of the directory. The
+    * resolved path is not normalized, because the file system resolves its '..' segments via the directories they follow.
+    */
+  def resolveInside(directory: Path, filePath: String): Path = {
+    val base = directory.toAbsolutePath.normalize()
+    val file = base.resolve(filePath).normalize()
+    if (file.startsWith(base) && file != base) directory.resolve(filePath)
+    else sys.error(s"The file path $filePath is outside of the directory $directory.")
+  }
+
+  def isInside(directory: Path, filePath: String): Boolean = Try(resolveInside(directory, filePath)).isSuccess
+
+}
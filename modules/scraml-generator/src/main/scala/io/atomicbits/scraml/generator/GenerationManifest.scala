@@ -0,0 +1,126 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path, StandardCopyOption }
+
+import play.api.libs.json._
+
+import scala.util.{ Failure, Success, Try }
+
+/**
+  * The manifest entry of a generated source file.
+  *
+  * @param origin       The canonical type, resource or DSL source the file was generated from.
+  * @param renderedHash The hash of the file's content before formatting.
+  * @param contentHash  The hash of the file's content as it was written.
+  * @param size         The size of the written file.
+  * @param lastModified The modification time of the written file in milliseconds.
+  */
+case class ManifestEntry(origin: String, renderedHash: String, contentHash: String, size: Long, lastModified: Long)
+
+object ManifestEntry {
+
+  implicit val format: Format[ManifestEntry] = Json.format[ManifestEntry]
+
+}
+
+/**
+  * The generation manifest describes the source files that were generated into an output directory, so that a next generation run
+  * into the same directory only needs to write the files that changed and delete the files that are no longer generated.
+  *
+  * @param fingerprint A hash of the generator version and the generation parameters.
+  * @param sources     The content hashes of the RAML source files the code was generated from, by source reference.
+  * @param files       The generated source files by their relative path.
+  */
+case class GenerationManifest(fingerprint: String, sources: Map[String, String], files: Map[String, ManifestEntry]) {
+
+  /**
+    * A generated file is untouched when it still has the size and modification time it had after it was written.
+    */
+  def isUntouched(outputDirectory: Path, filePath: String): Boolean =
+    files.get(filePath).exists { entry =>
+      val file = outputDirectory.resolve(filePath)
+      Files.isRegularFile(file) && Files.size(file) == entry.size && Files.getLastModifiedTime(file).toMillis == entry.lastModified
+    }
+
+}
+
+object GenerationManifest {
+
+  val fileName = ".scraml-manifest.json"
+
+  /**
+    * Increase this version whenever the manifest format changes in an incompatible way.
+    */
+  val formatVersion: Int = 1
+
+  implicit val format: Format[GenerationManifest] = Json.format[GenerationManifest]
+
+  /**
+    * Read the manifest in the given output directory. A missing, corrupt or outdated manifest results in None, as does a manifest
+    * that lists files outside of the output directory, because we delete the listed files that are no longer generated.
+    */
+  def read(outputDirectory: Path): Option[GenerationManifest] = {
+    val manifestFile = outputDirectory.resolve(fileName)
+    if (!Files.isRegularFile(manifestFile)) {
+      None
+    } else {
+      val manifest =
+        Try {
+          val json = Json.parse(Files.readAllBytes(manifestFile))
+          if ((json \ "formatVersion").asOpt[Int].contains(formatVersion)) {
+            val manifest = (json \ "manifest").as[GenerationManifest]
+            val outside  = manifest.files.keys.filterNot(DirectorySourceSink.isInside(outputDirectory, _))
+            if (outside.nonEmpty) sys.error(s"It lists files outside of the output directory: ${outside.mkString(", ")}")
+            Some(manifest)
+          } else {
+            None
+          }
+        }
+      manifest match {
+        case Success(manifestOpt) => manifestOpt
+        case Failure(e) =>
+          println(s"Ignoring unreadable generation manifest $manifestFile: ${e.getMessage}")
+          None
+      }
+    }
+  }
+
+  /**
+    * Write the manifest into the given output directory, via a temporary file that then replaces the manifest file.
+    */
+  def write(outputDirectory: Path, manifest: GenerationManifest): Unit = {
+    val manifestFile = outputDirectory.resolve(fileName)
+    val json         = Json.obj("formatVersion" -> formatVersion, "manifest" -> manifest)
+    Files.createDirectories(outputDirectory)
+    val tempFile = Files.createTempFile(outputDirectory, fileName, ".tmp")
+    try {
+      Files.write(tempFile, Json.prettyPrint(json).getBytes(StandardCharsets.UTF_8))
+      Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    } finally {
+      Files.deleteIfExists(tempFile)
+    }
+  }
+
+}
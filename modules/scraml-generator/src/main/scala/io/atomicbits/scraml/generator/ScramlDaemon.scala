@@ -0,0 +1,346 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.io._
+import java.net.{ InetAddress, ServerSocket, Socket, SocketException }
+import java.nio.charset.StandardCharsets
+import java.nio.file.attribute.PosixFilePermissions
+import java.nio.file.{ Files, Path, Paths, StandardCopyOption }
+import java.security.{ MessageDigest, SecureRandom }
+import java.util.concurrent._
+
+import io.atomicbits.scraml.ramlparser.parser.ParseSnapshot
+import play.api.libs.json._
+
+import scala.collection.concurrent.TrieMap
+import scala.util.{ Failure, Success, Try }
+
+/**
+  * A long-lived generator process that build tools can hand their generation requests to, so that class loading and JIT warm-up
+  * are only paid once and the parsed RAML models, the formatted source files and the rewritten DSL sources stay warm in between
+  * requests.
+  *
+  * The daemon listens on a loopback port. Other users on the same machine can connect to that port too, so the daemon generates
+  * a random token on startup and writes it, together with its port, to a token file that only the owner can read (see TokenFile).
+  * The first line of each connection must be that token, the daemon closes connections that don't start with it. After the token,
+  * each connection carries one or more requests, each request is a single line of JSON (see DaemonRequest) and each response is a
+  * single line of JSON (see DaemonResponse). Requests for the same RAML specification are handled one at a time, requests for
+  * different specifications are handled concurrently, with at most maxConnections connections being served at the same time.
+  *
+  * Run the daemon on a thread of your choice, close it to stop it.
+  *
+  * @param port                 The loopback port to listen on, or 0 to pick a free port.
+  * @param formatCacheDirectory The directory to cache formatted source files and rewritten DSL source files in, if any.
+  * @param tokenFile            The file to write the port and the token of the daemon to.
+  * @param maxConnections       The maximum number of connections that are served at the same time, further connections wait.
+  */
+class ScramlDaemon(port: Int                          = 0,
+                   formatCacheDirectory: Option[Path] = None,
+                   tokenFile: Path                    = ScramlDaemon.defaultTokenFile,
+                   maxConnections: Int                = 8)
+    extends Runnable
+    with Closeable {
+
+  import ScramlDaemon._
+
+  private val charsetName = ScramlGenerator.charsetName
+
+  private val serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress)
+
+  private val token: String = {
+    val bytes = new Array[Byte](32)
+    new SecureRandom().nextBytes(bytes)
+    bytes.map(byte => f"${byte & 0xff}%02x").mkString
+  }
+
+  Try(TokenFile.write(tokenFile, TokenFile(localPort, token))).failed.foreach { e =>
+    serverSocket.close()
+    throw e
+  }
+
+  /**
+    * Serves at most maxConnections connections at the same time, queues up to connectionBacklog connections and refuses the rest.
+    */
+  private val connectionExecutor: ThreadPoolExecutor = {
+    val executor =
+      new ThreadPoolExecutor(
+        maxConnections,
+        maxConnections,
+        60L,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue[Runnable](connectionBacklog),
+        new ThreadFactory {
+          override def newThread(runnable: Runnable): Thread = {
+            val thread = new Thread(runnable, "scraml-daemon-connection")
+            thread.setDaemon(true)
+            thread
+          }
+        }
+      )
+    executor.allowCoreThreadTimeOut(true)
+    executor
+  }
+
+  /**
+    * The latest parsed RAML model by RAML source and default base path.
+    */
+  private val snapshots = TrieMap.empty[(String, List[String]), ParseSnapshot]
+
+  private val locks = TrieMap.empty[(String, List[String]), AnyRef]
+
+  @volatile private var closed: Boolean = false
+
+  /**
+    * The port the daemon actually listens on.
+    */
+  def localPort: Int = serverSocket.getLocalPort
+
+  override def run(): Unit = {
+    println(s"Scraml daemon listening on port $localPort, its token is in $tokenFile.")
+    try {
+      while (!closed) {
+        val socket = serverSocket.accept()
+        try {
+          connectionExecutor.execute(new Runnable {
+            override def run(): Unit = serve(socket)
+          })
+        } catch {
+          case _: RejectedExecutionException => socket.close()
+        }
+      }
+    } catch {
+      case _: SocketException if closed => // The daemon was closed.
+    } finally {
+      connectionExecutor.shutdownNow()
+    }
+  }
+
+  override def close(): Unit = {
+    closed = true
+    serverSocket.close()
+    connectionExecutor.shutdownNow()
+    TokenFile.delete(tokenFile, token)
+  }
+
+  /**
+    * Handle a single request.
+    */
+  def handle(request: DaemonRequest): DaemonResponse = {
+    val started = System.nanoTime()
+    val response =
+      Try {
+        val platform        = ScramlGenerator.platformFor(request.platform, request.apiPackageName)
+        val defaultBasePath = platform.apiBasePackageParts
+        val snapshotKey     = (request.ramlApiPath, defaultBasePath)
+
+        def parse(): ParseSnapshot = {
+          val parsed =
+            ScramlGenerator.ramlOrFail(ParseSnapshot.parse(snapshots.get(snapshotKey), request.ramlApiPath, charsetName, defaultBasePath))
+          snapshots.put(snapshotKey, parsed)
+          parsed
+        }
+
+        lockFor(snapshotKey).synchronized {
+          request.outputDirectory match {
+            case Some(outputDirectory) =>
+              val manifest =
+                ScramlGenerator.generateIncrementallyWith(
+                  platform,
+                  request.apiClassName,
+                  request.thirdPartyClassHeader.orNull,
+                  request.singleTargetSourceFileName.orNull,
+                  formatCacheDirectory,
+                  Paths.get(outputDirectory),
+                  ScramlGenerator.generatorVersion
+                )(parse())
+              DaemonResponse(filePaths = Some(manifest.files.keys.toList.sorted))
+            case None =>
+              val parsed = parse()
+              val sources =
+                ScramlGenerator.generateSources(
+                  platform,
+                  parsed.raml,
+                  parsed.canonicalLookup,
+                  request.apiClassName,
+                  request.thirdPartyClassHeader.orNull,
+                  request.singleTargetSourceFileName.orNull,
+                  formatCacheDirectory
+                )
+              DaemonResponse(files = Some(sources))
+          }
+        }
+      }
+    val millis = (System.nanoTime() - started) / 1000000
+    response match {
+      case Success(success) =>
+        println(s"Generated ${request.platform} code for ${request.ramlApiPath} in $millis ms.")
+        success
+      case Failure(e) =>
+        println(s"Generating ${request.platform} code for ${request.ramlApiPath} failed after $millis ms: ${e.getMessage}")
+        DaemonResponse(error = Some(Option(e.getMessage).getOrElse(e.toString)))
+    }
+  }
+
+  private def isToken(candidate: String): Boolean =
+    MessageDigest.isEqual(candidate.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))
+
+  private def lockFor(snapshotKey: (String, List[String])): AnyRef = locks.getOrElseUpdate(snapshotKey, new Object)
+
+  private def serve(socket: Socket): Unit =
+    try {
+      val reader = new BufferedReader(new InputStreamReader(socket.getInputStream, StandardCharsets.UTF_8))
+      val writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream, StandardCharsets.UTF_8))
+
+      // Don't let clients that don't send the token occupy a connection thread.
+      socket.setSoTimeout(tokenTimeoutMillis)
+      val authorized = Option(reader.readLine()).exists(line => isToken(line.trim))
+      socket.setSoTimeout(0)
+
+      def serveRequests(): Unit =
+        Option(reader.readLine()) match {
+          case Some(line) if line.trim.isEmpty => serveRequests()
+          case Some(line) =>
+            val response =
+              Try(Json.parse(line).as[DaemonRequest]) match {
+                case Success(request) => handle(request)
+                case Failure(e)       => DaemonResponse(error = Some(s"Invalid request: ${e.getMessage}"))
+              }
+            writer.write(Json.stringify(Json.toJson(response)))
+            writer.newLine()
+            writer.flush()
+            serveRequests()
+          case None => // The client closed the connection.
+        }
+
+      if (authorized) {
+        serveRequests()
+      } else {
+        writer.write(Json.stringify(Json.toJson(DaemonResponse(error = Some("Invalid token.")))))
+        writer.newLine()
+        writer.flush()
+      }
+    } catch {
+      case _: IOException => // The connection was lost.
+    } finally {
+      socket.close()
+    }
+
+}
+
+object ScramlDaemon {
+
+  val defaultTokenFile: Path = Paths.get(System.getProperty("user.home"), ".scraml", "daemon.json")
+
+  private val connectionBacklog = 50
+
+  private val tokenTimeoutMillis = 10000
+
+  /**
+    * The content of the token file of a running daemon.
+    */
+  case class TokenFile(port: Int, token: String)
+
+  object TokenFile {
+
+    implicit val format: Format[TokenFile] = Json.format[TokenFile]
+
+    def read(tokenFile: Path): TokenFile = Json.parse(Files.readAllBytes(tokenFile)).as[TokenFile]
+
+    /**
+      * Write the token file so that only its owner can read it. The content goes to a temporary file that only the owner can read
+      * first and that then replaces the token file.
+      */
+    def write(tokenFile: Path, content: TokenFile): Unit = {
+      val directory = tokenFile.toAbsolutePath.getParent
+      Files.createDirectories(directory)
+      val tempFile =
+        if (directory.getFileSystem.supportedFileAttributeViews().contains("posix")) {
+          val ownerOnly = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))
+          Files.createTempFile(directory, tokenFile.getFileName.toString, ".tmp", ownerOnly)
+        } else {
+          val file = Files.createTempFile(directory, tokenFile.getFileName.toString, ".tmp").toFile
+          file.setReadable(false, false)
+          file.setWritable(false, false)
+          file.setReadable(true, true)
+          file.setWritable(true, true)
+          file.toPath
+        }
+      try {
+        Files.write(tempFile, Json.stringify(Json.toJson(content)).getBytes(StandardCharsets.UTF_8))
+        Files.move(tempFile, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+      } finally {
+        Files.deleteIfExists(tempFile)
+      }
+    }
+
+    /**
+      * Delete the token file, unless another daemon replaced it in the meantime.
+      */
+    def delete(tokenFile: Path, token: String): Unit =
+      if (Try(read(tokenFile)).toOption.exists(_.token == token)) Files.deleteIfExists(tokenFile)
+
+  }
+
+  /**
+    * A generation request. The code is generated into the output directory when one is given, only the changed files are written
+    * then and the response lists the paths of all generated files relative to the output directory. Without an output directory,
+    * the response carries the content of all generated files.
+    */
+  case class DaemonRequest(platform: String,
+                           ramlApiPath: String,
+                           apiPackageName: String,
+                           apiClassName: String,
+                           thirdPartyClassHeader: Option[String]      = None,
+                           singleTargetSourceFileName: Option[String] = None,
+                           outputDirectory: Option[String]            = None)
+
+  object DaemonRequest {
+
+    implicit val format: Format[DaemonRequest] = Json.format[DaemonRequest]
+
+  }
+
+  /**
+    * The response to a generation request, carrying either the generated files, the generated file paths or an error.
+    */
+  case class DaemonResponse(files: Option[Map[String, String]] = None, filePaths: Option[List[String]] = None, error: Option[String] = None)
+
+  object DaemonResponse {
+
+    implicit val format: Format[DaemonResponse] = Json.format[DaemonResponse]
+
+  }
+
+  /**
+    * Start a daemon in the foreground.
+    *
+    * Arguments: [port [formatCacheDirectory [tokenFile]]]
+    */
+  def main(args: Array[String]): Unit = {
+    val port                 = args.headOption.map(_.toInt).getOrElse(0)
+    val formatCacheDirectory = args.lift(1).map(Paths.get(_))
+    val tokenFile            = args.lift(2).map(Paths.get(_)).getOrElse(defaultTokenFile)
+    new ScramlDaemon(port, formatCacheDirectory, tokenFile).run()
+  }
+
+}
@@ -20,22 +20,34 @@
 
 package io.atomicbits.scraml.generator
 
-import io.atomicbits.scraml.generator.formatting.{ JavaFormatter, ScalaFormatter }
+import io.atomicbits.scraml.generator.formatting.{ JavaFormatter, ScalaFormatter, SourceFormatter }
 
 import scala.collection.JavaConverters._
+import scala.collection.mutable
 import scala.language.postfixOps
+import java.io.Closeable
+import java.nio.file.{ Files, Path, Paths }
 import java.util.{ Map => JMap }
 
 import io.atomicbits.scraml.generator.license.{ LicenseData, LicenseVerifier }
 import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.profiling.GenerationProfiler
+import play.api.libs.json.Json
 import io.atomicbits.scraml.ramlparser.model.Raml
-import io.atomicbits.scraml.ramlparser.parser.{ RamlParseException, RamlParser, SourceFile }
+import io.atomicbits.scraml.ramlparser.lookup.CanonicalLookup
+import io.atomicbits.scraml.ramlparser.parser.{ ParseSnapshot, RamlParseException, RamlParser, SourceFile }
 
 import scala.util.{ Failure, Success, Try }
 import io.atomicbits.scraml.generator.platform.Platform._
 import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
 import io.atomicbits.scraml.generator.platform.scalaplay.ScalaPlay
-import io.atomicbits.scraml.generator.codegen.{ DslSourceExtractor, DslSourceRewriter, GenerationAggr }
+import io.atomicbits.scraml.generator.codegen.{ DslSourceCache, GenerationAggr }
+import io.atomicbits.scraml.generator.typemodel.{
+  ResourceClassDefinition,
+  SourceDefinition,
+  TransferObjectClassDefinition,
+  TransferObjectInterfaceDefinition
+}
 import io.atomicbits.scraml.generator.platform.androidjavajackson.AndroidJavaJackson
 import io.atomicbits.scraml.generator.platform.htmldoc.HtmlDoc
 import io.atomicbits.scraml.generator.platform.typescript.TypeScript
@@ -46,14 +58,19 @@ import io.atomicbits.scraml.generator.platform.typescript.TypeScript
   */
 object ScramlGenerator {
 
-  val JAVA_JACKSON: String         = "JavaJackson".toLowerCase
-  val SCALA_PLAY: String           = "ScalaPlay".toLowerCase
-  val ANDROID_JAVA_JACKSON: String = "AndroidJavaJackson".toLowerCase
-  val TYPESCRIPT: String           = "TypeScript".toLowerCase
-  val HTML_DOC: String             = "HtmlDoc".toLowerCase
-  val OSX_SWIFT: String            = "OsxSwift".toLowerCase
-  val PYTHON: String               = "Python".toLowerCase
-  val CSHARP: String               = "C#".toLowerCase
+  val JAVA_JACKSON: String                   = "JavaJackson".toLowerCase
+  val JAVA_JACKSON_CODECS: String            = "JavaJacksonCodecs".toLowerCase // JavaJackson with generated streaming Jackson codecs.
+  val JAVA_JACKSON_PRIMITIVES: String        = "JavaJacksonPrimitives".toLowerCase // JavaJackson with primitive fields and arrays.
+  val JAVA_JACKSON_CODECS_PRIMITIVES: String = "JavaJacksonCodecsPrimitives".toLowerCase // Both of the above.
+  val SCALA_PLAY: String                     = "ScalaPlay".toLowerCase
+  val ANDROID_JAVA_JACKSON: String           = "AndroidJavaJackson".toLowerCase
+  val TYPESCRIPT: String                     = "TypeScript".toLowerCase
+  val HTML_DOC: String                       = "HtmlDoc".toLowerCase
+  val OSX_SWIFT: String                      = "OsxSwift".toLowerCase
+  val PYTHON: String                         = "Python".toLowerCase
+  val CSHARP: String                         = "C#".toLowerCase
+
+  private[generator] val charsetName = "UTF-8" // ToDo: Get the charset as input parameter.
 
   /**
     * This is (and must be) a Java-friendly interface!
@@ -65,107 +82,563 @@ object ScramlGenerator {
                          licenseKey: String,
                          thirdPartyClassHeader: String,
                          singleTargeSourceFileName: String): JMap[String, String] =
+    generateScramlCode(platform,
+                       ramlApiPath,
+                       apiPackageName,
+                       apiClassName,
+                       licenseKey,
+                       thirdPartyClassHeader,
+                       singleTargeSourceFileName,
+                       null)
+
+  /**
+    * This is (and must be) a Java-friendly interface!
+    */
+  def generateScramlCode(platform: String,
+                         ramlApiPath: String,
+                         apiPackageName: String,
+                         apiClassName: String,
+                         licenseKey: String,
+                         thirdPartyClassHeader: String,
+                         singleTargeSourceFileName: String,
+                         parseSnapshotFile: String): JMap[String, String] =
+    generateScramlCode(platform,
+                       ramlApiPath,
+                       apiPackageName,
+                       apiClassName,
+                       licenseKey,
+                       thirdPartyClassHeader,
+                       singleTargeSourceFileName,
+                       parseSnapshotFile,
+                       null)
+
+  /**
+    * This is (and must be) a Java-friendly interface!
+    *
+    * @param parseSnapshotFile    The file to keep a snapshot of the parsed RAML model in, or null or empty to always parse the RAML
+    *                             model from scratch. When none of the RAML source files changed since the snapshot was taken, the
+    *                             model is loaded from the snapshot instead of being parsed again.
+    * @param formatCacheDirectory The directory to cache formatted source files and rewritten DSL source files in, or null or empty to
+    *                             format all source files.
+    *                             Source files whose unformatted content didn't change since an earlier build are taken from the
+    *                             cache instead of being formatted again.
+    */
+  def generateScramlCode(platform: String,
+                         ramlApiPath: String,
+                         apiPackageName: String,
+                         apiClassName: String,
+                         licenseKey: String,
+                         thirdPartyClassHeader: String,
+                         singleTargeSourceFileName: String,
+                         parseSnapshotFile: String,
+                         formatCacheDirectory: String): JMap[String, String] =
+    generateFor(
+      platformFor(platform, apiPackageName),
+      ramlApiPath,
+      apiClassName,
+      thirdPartyClassHeader,
+      singleTargeSourceFileName,
+      optionalPath(parseSnapshotFile),
+      optionalPath(formatCacheDirectory)
+    )
+
+  /**
+    * This is (and must be) a Java-friendly interface!
+    *
+    * Instead of returning the content of all source files at once, each source file is handed over to the given source sink as soon
+    * as it is generated and formatted. Use a DirectorySourceSink to write the source files into a directory.
+    */
+  def generateScramlCode(platform: String,
+                         ramlApiPath: String,
+                         apiPackageName: String,
+                         apiClassName: String,
+                         licenseKey: String,
+                         thirdPartyClassHeader: String,
+                         singleTargeSourceFileName: String,
+                         parseSnapshotFile: String,
+                         formatCacheDirectory: String,
+                         sourceSink: SourceSink): Unit = {
+
+    val thePlatform = platformFor(platform, apiPackageName)
+
+    println(s"Generating client for platform ${thePlatform.name}.")
+
+    profiledIfRequested {
+      val (raml, canonicalLookup) = parseRaml(ramlApiPath, thePlatform, optionalPath(parseSnapshotFile))
+
+      generateSourcesInto(thePlatform,
+                          raml,
+                          canonicalLookup,
+                          apiClassName,
+                          thirdPartyClassHeader,
+                          singleTargeSourceFileName,
+                          optionalPath(formatCacheDirectory),
+                          sourceSink)
+    }
+  }
+
+  /**
+    * This is (and must be) a Java-friendly interface!
+    *
+    * Generate the code into the given output directory, incrementally: only the source files that changed since the previous
+    * generation into the same directory are written and the source files that are no longer generated are deleted. A generation
+    * manifest is kept in the output directory to know what was generated before.
+    */
+  def generateScramlCodeInto(platform: String,
+                             ramlApiPath: String,
+                             apiPackageName: String,
+                             apiClassName: String,
+                             licenseKey: String,
+                             thirdPartyClassHeader: String,
+                             singleTargeSourceFileName: String,
+                             parseSnapshotFile: String,
+                             formatCacheDirectory: String,
+                             outputDirectory: String): Unit = {
+
+    val thePlatform = platformFor(platform, apiPackageName)
+
+    println(s"Generating client for platform ${thePlatform.name} into $outputDirectory.")
+
+    profiledIfRequested {
+      generateIncrementally(
+        thePlatform,
+        ramlApiPath,
+        apiClassName,
+        thirdPartyClassHeader,
+        singleTargeSourceFileName,
+        optionalPath(parseSnapshotFile),
+        optionalPath(formatCacheDirectory),
+        Paths.get(outputDirectory)
+      )
+    }
+  }
+
+  private def optionalPath(fileName: String): Option[Path] =
+    Option(fileName).collect {
+      case name if name.nonEmpty => Paths.get(name)
+    }
+
+  /**
+    * Create a watcher that generates the code into the given output directory and then regenerates it each time one of the RAML
+    * source files changes. Run the watcher on a thread of your choice and close it to stop watching.
+    *
+    * This is (and must be) a Java-friendly interface!
+    */
+  def watchScramlCode(platform: String,
+                      ramlApiPath: String,
+                      apiPackageName: String,
+                      apiClassName: String,
+                      licenseKey: String,
+                      thirdPartyClassHeader: String,
+                      singleTargeSourceFileName: String,
+                      outputDirectory: String): ScramlWatcher =
+    new ScramlWatcher(
+      platformFor(platform, apiPackageName),
+      ramlApiPath,
+      apiClassName,
+      thirdPartyClassHeader,
+      singleTargeSourceFileName,
+      Paths.get(outputDirectory)
+    )
+
+  private[generator] def platformFor(platform: String, apiPackageName: String): Platform =
     platform.toLowerCase match {
-      case JAVA_JACKSON =>
-        generateFor(
-          JavaJackson(packageNameToPackagParts(apiPackageName)),
-          ramlApiPath,
-          apiClassName,
-          thirdPartyClassHeader,
-          singleTargeSourceFileName
-        )
-      case SCALA_PLAY =>
-        generateFor(
-          ScalaPlay(packageNameToPackagParts(apiPackageName)),
-          ramlApiPath,
-          apiClassName,
-          thirdPartyClassHeader,
-          singleTargeSourceFileName
-        )
-      case ANDROID_JAVA_JACKSON =>
-        generateFor(
-          AndroidJavaJackson(packageNameToPackagParts(apiPackageName)),
-          ramlApiPath,
-          apiClassName,
-          thirdPartyClassHeader,
-          singleTargeSourceFileName
-        )
-      case TYPESCRIPT => {
-        generateFor(
-          TypeScript(),
-          ramlApiPath,
-          apiClassName,
-          thirdPartyClassHeader,
-          singleTargeSourceFileName
-        )
-      }
-      case HTML_DOC => {
-        generateFor(
-          HtmlDoc,
-          ramlApiPath,
-          apiClassName,
-          thirdPartyClassHeader,
-          singleTargeSourceFileName
-        )
-      }
-      case OSX_SWIFT => sys.error(s"There is no iOS support yet.")
-      case PYTHON    => sys.error(s"There is no Python support yet.")
-      case CSHARP    => sys.error(s"There is no C# support yet.")
-      case unknown   => sys.error(s"Unknown platform: $unknown")
+      case JAVA_JACKSON            => JavaJackson(packageNameToPackagParts(apiPackageName))
+      case JAVA_JACKSON_CODECS     => JavaJackson(packageNameToPackagParts(apiPackageName), jacksonCodecs = true)
+      case JAVA_JACKSON_PRIMITIVES => JavaJackson(packageNameToPackagParts(apiPackageName), primitiveFields = true)
+      case JAVA_JACKSON_CODECS_PRIMITIVES =>
+        JavaJackson(packageNameToPackagParts(apiPackageName), jacksonCodecs = true, primitiveFields = true)
+      case SCALA_PLAY           => ScalaPlay(packageNameToPackagParts(apiPackageName))
+      case ANDROID_JAVA_JACKSON => AndroidJavaJackson(packageNameToPackagParts(apiPackageName))
+      case TYPESCRIPT           => TypeScript()
+      case HTML_DOC             => HtmlDoc
+      case OSX_SWIFT            => sys.error(s"There is no iOS support yet.")
+      case PYTHON               => sys.error(s"There is no Python support yet.")
+      case CSHARP               => sys.error(s"There is no C# support yet.")
+      case unknown              => sys.error(s"Unknown platform: $unknown")
     }
 
   private[generator] def generateFor(platform: Platform,
                                      ramlApiPath: String,
                                      apiClassName: String,
                                      thirdPartyClassHeader: String,
-                                     singleTargeSourceFileName: String): JMap[String, String] = {
+                                     singleTargeSourceFileName: String,
+                                     snapshotFile: Option[Path]         = None,
+                                     formatCacheDirectory: Option[Path] = None): JMap[String, String] = {
 
     println(s"Generating client for platform ${platform.name}.")
 
-    implicit val thePlatform = platform
+    val sources =
+      profiledIfRequested {
+        val (raml, canonicalLookup) = parseRaml(ramlApiPath, platform, snapshotFile)
+        generateSources(platform,
+                        raml,
+                        canonicalLookup,
+                        apiClassName,
+                        thirdPartyClassHeader,
+                        singleTargeSourceFileName,
+                        formatCacheDirectory)
+      }
 
-    // We transform the scramlLicenseKey and thirdPartyClassHeader fields to optionals here. We don't take them as optional parameters
-    // higher up the chain to maintain a Java-compatible interface for the ScramlGenerator.
-    val classHeader: Option[String] =
-      if (thirdPartyClassHeader == null || thirdPartyClassHeader.isEmpty) None
-      else Some(thirdPartyClassHeader)
+    mapAsJavaMap[String, String](sources)
+  }
+
+  /**
+    * Profile the phases of the given generation run when the system property scraml.profile is set to "table" or "json", and print
+    * the profile in that format. With the system property scraml.profile.jfr set to "true", a Java Flight Recorder event is emitted
+    * for each phase as well.
+    */
+  private def profiledIfRequested[T](fn: => T): T =
+    Option(System.getProperty("scraml.profile")).map(_.trim.toLowerCase) match {
+      case Some(reportFormat) if reportFormat.nonEmpty =>
+        val (result, profile) = GenerationProfiler.profiled(jfrEvents = java.lang.Boolean.getBoolean("scraml.profile.jfr"))(fn)
+        reportFormat match {
+          case "json" => println(Json.prettyPrint(profile.toJson))
+          case _      => println(s"Scraml generation profile:\n${profile.summaryTable}")
+        }
+        result
+      case _ => fn
+    }
 
-    val licenseHeader: String = deferLicenseHeader(classHeader)
+  /**
+    * Generate all source files for the given RAML model, including the DSL sources.
+    *
+    * @return The content of the generated source files by their relative file path.
+    */
+  private[generator] def generateSources(platform: Platform,
+                                         raml: Raml,
+                                         canonicalLookup: CanonicalLookup,
+                                         apiClassName: String,
+                                         thirdPartyClassHeader: String,
+                                         singleTargeSourceFileName: String,
+                                         formatCacheDirectory: Option[Path] = None): Map[String, String] = {
 
-    val generationAggregator = buildGenerationAggr(ramlApiPath, apiClassName, platform)
+    implicit val thePlatform = platform
 
-    val sources: Seq[SourceFile] = generationAggregator.generate.sourceFilesGenerated
+    val licenseHeader: String = licenseHeaderFor(thirdPartyClassHeader)
 
-    val dslSources: Set[SourceFile] =
-      DslSourceExtractor
-        .extract()
-        .map(DslSourceRewriter.rewrite)
+    val generationAggregator = generationAggrFor(raml, canonicalLookup, apiClassName, platform)
+
+    val sources: Seq[SourceFile] = generationAggregator.generate.sourceFilesGenerated
 
-    val singleSourceFile =
-      Option(singleTargeSourceFileName).collect {
-        case name if name.nonEmpty => name
+    val allSources = (sources ++ dslSources(formatCacheDirectory)).toSet
+    val combinedSources =
+      GenerationProfiler.phase("map-sources", (mapped: Set[SourceFile]) => mapped.size) {
+        platform.mapSourceFiles(allSources, singleSourceFile(singleTargeSourceFileName))
       }
-    val combinedSources = platform.mapSourceFiles((sources ++ dslSources).toSet, singleSourceFile)
+
+    val sourceFormatter = new SourceFormatter(platform, formatCacheDirectory)
 
     val tupleList =
-      combinedSources
-        .map(addLicenseAndFormat(_, platform, licenseHeader))
-        .map(sourceFile => (sourceFile.filePath.toString, sourceFile.content))
+      try {
+        sourceFormatter
+          .format(GenerationProfiler.phase("license", (licensed: Seq[SourceFile]) => licensed.size) {
+            combinedSources.toSeq.map(addLicense(_, licenseHeader))
+          })
+          .map(sourceFile => (sourceFile.filePath.toString, sourceFile.content))
+      } finally {
+        sourceFormatter.close()
+      }
+
+    tupleList.toMap
+  }
+
+  /**
+    * Generate all source files for the given RAML model, including the DSL sources, and hand them over to the given sink as soon
+    * as they are generated and formatted.
+    */
+  private[generator] def generateSourcesInto(platform: Platform,
+                                             raml: Raml,
+                                             canonicalLookup: CanonicalLookup,
+                                             apiClassName: String,
+                                             thirdPartyClassHeader: String,
+                                             singleTargeSourceFileName: String,
+                                             formatCacheDirectory: Option[Path],
+                                             sourceSink: SourceSink): Unit = {
+
+    val formattingBatch =
+      new FormattingBatch[Unit](new SourceFormatter(platform, formatCacheDirectory), { (_, sourceFile) =>
+        sourceSink.write(sourceFile.filePath.toString, sourceFile.content)
+      })
+
+    try {
+      renderSources(platform, raml, canonicalLookup, apiClassName, thirdPartyClassHeader, singleTargeSourceFileName, formatCacheDirectory) {
+        (_, sourceFile) =>
+          formattingBatch.add((), sourceFile)
+      }
+      formattingBatch.flush()
+    } finally {
+      formattingBatch.close()
+    }
+  }
+
+  /**
+    * Generate the code into the given output directory, using the generation manifest of the previous run into the same directory.
+    *
+    * When neither the RAML sources, the generator nor the generation parameters changed since the previous run, and no generated
+    * file was touched, nothing is generated at all. Otherwise, only the source files whose rendered content changed are formatted
+    * and written, files that are no longer generated are deleted and all other files are left untouched.
+    *
+    * @return The new generation manifest.
+    */
+  private[generator] def generateIncrementally(platform: Platform,
+                                               ramlApiPath: String,
+                                               apiClassName: String,
+                                               thirdPartyClassHeader: String,
+                                               singleTargeSourceFileName: String,
+                                               snapshotFile: Option[Path],
+                                               formatCacheDirectory: Option[Path],
+                                               outputDirectory: Path,
+                                               generatorVersion: Option[String] = generatorVersion): GenerationManifest =
+    generateIncrementallyWith(platform,
+                              apiClassName,
+                              thirdPartyClassHeader,
+                              singleTargeSourceFileName,
+                              formatCacheDirectory,
+                              outputDirectory,
+                              generatorVersion) {
+      val defaultBasePath = platform.apiBasePackageParts
+      ramlOrFail(snapshotFile match {
+        case Some(file) => ParseSnapshot.parseSnapshot(file, ramlApiPath, charsetName, defaultBasePath)
+        case None       => ParseSnapshot.parse(None, ramlApiPath, charsetName, defaultBasePath)
+      })
+    }
+
+  /**
+    * Generate the code into the given output directory like generateIncrementally does, taking the parsed RAML model from the given
+    * parse function. The RAML model is only parsed when the generated code is not up to date.
+    */
+  private[generator] def generateIncrementallyWith(platform: Platform,
+                                                   apiClassName: String,
+                                                   thirdPartyClassHeader: String,
+                                                   singleTargeSourceFileName: String,
+                                                   formatCacheDirectory: Option[Path],
+                                                   outputDirectory: Path,
+                                                   generatorVersion: Option[String])(parse: => ParseSnapshot): GenerationManifest = {
+
+    val fingerprint =
+      SourceFormatter.hash(
+        List(
+          generatorVersion.getOrElse("development"),
+          JavaFormatter.version,
+          ScalaFormatter.version,
+          platform.name,
+          platform.toString, // Includes the generation options of the platform.
+          platform.apiBasePackage,
+          apiClassName,
+          Option(thirdPartyClassHeader).getOrElse(""),
+          Option(singleTargeSourceFileName).getOrElse("")
+        ).mkString("\n")
+      )
+
+    val previousManifest = GenerationManifest.read(outputDirectory)
+    val previous         = previousManifest.filter(_.fingerprint == fingerprint)
+
+    // Without a generator version, we can't tell whether the generator itself changed.
+    val upToDate =
+      generatorVersion.isDefined && previous.exists { manifest =>
+        ParseSnapshot.isUpToDate(manifest.sources, charsetName) && manifest.files.keys.forall(manifest.isUntouched(outputDirectory, _))
+      }
+
+    previous.filter(_ => upToDate) match {
+      case Some(manifest) =>
+        println(s"Generated code in $outputDirectory is up to date.")
+        manifest
+      case None =>
+        val snapshot = parse
+
+        val outputSink   = new DirectorySourceSink(outputDirectory, charsetName)
+        val entries      = mutable.Map.empty[String, ManifestEntry]
+        val writtenPaths = mutable.Set.empty[String]
+
+        val formattingBatch =
+          new FormattingBatch[(String, String)](new SourceFormatter(platform, formatCacheDirectory), {
+            case ((origin, renderedHash), sourceFile) =>
+              val filePath = sourceFile.filePath.toString
+              if (outputSink.writeIfChanged(filePath, sourceFile.content)) writtenPaths += filePath
+              val file         = outputDirectory.resolve(filePath)
+              val contentHash  = SourceFormatter.hash(sourceFile.content)
+              val lastModified = Files.getLastModifiedTime(file).toMillis
+              entries += filePath -> ManifestEntry(origin, renderedHash, contentHash, Files.size(file), lastModified)
+          })
+
+        try {
+          renderSources(platform,
+                        snapshot.raml,
+                        snapshot.canonicalLookup,
+                        apiClassName,
+                        thirdPartyClassHeader,
+                        singleTargeSourceFileName,
+                        formatCacheDirectory) { (origin, sourceFile) =>
+            val filePath     = sourceFile.filePath.toString
+            val renderedHash = SourceFormatter.hash(sourceFile.content)
+            val unchangedEntry =
+              previous
+                .filter(_.isUntouched(outputDirectory, filePath))
+                .flatMap(_.files.get(filePath))
+                .filter(_.renderedHash == renderedHash)
+            unchangedEntry match {
+              case Some(entry) => entries += filePath -> entry.copy(origin = origin)
+              case None        => formattingBatch.add((origin, renderedHash), sourceFile)
+            }
+          }
+          formattingBatch.flush()
+        } finally {
+          formattingBatch.close()
+        }
+
+        val previousPaths = previousManifest.map(_.files.keySet).getOrElse(Set.empty)
+        val deletedPaths =
+          (previousPaths -- entries.keySet).filter { filePath =>
+            Files.deleteIfExists(DirectorySourceSink.resolveInside(outputDirectory, filePath))
+          }
+
+        val manifest = GenerationManifest(fingerprint, snapshot.sourceHashes, entries.toMap)
+        GenerationManifest.write(outputDirectory, manifest)
+
+        println(
+          s"Generated code in $outputDirectory: ${writtenPaths.size} file(s) written, ${deletedPaths.size} deleted, " +
+            s"${entries.size - writtenPaths.size} unchanged."
+        )
+        manifest
+    }
+  }
+
+  /**
+    * Render all source files for the given RAML model, including the DSL sources. Each source file is handed over to the given
+    * consumer, together with its origin, as soon as it is rendered. The source files have their license header, but they are not
+    * formatted yet.
+    */
+  private def renderSources(platform: Platform,
+                            raml: Raml,
+                            canonicalLookup: CanonicalLookup,
+                            apiClassName: String,
+                            thirdPartyClassHeader: String,
+                            singleTargeSourceFileName: String,
+                            cacheDirectory: Option[Path])(consumer: (String, SourceFile) => Unit): Unit = {
+
+    implicit val thePlatform = platform
+
+    val licenseHeader        = licenseHeaderFor(thirdPartyClassHeader)
+    val generationAggregator = generationAggrFor(raml, canonicalLookup, apiClassName, platform)
+
+    singleSourceFile(singleTargeSourceFileName) match {
+      case Some(combinedSourceFile) =>
+        // Combining all sources into a single source file requires all sources to be generated first.
+        val sources    = generationAggregator.generate.sourceFilesGenerated
+        val allSources = (sources ++ dslSources(cacheDirectory)).toSet
+        val combinedSources =
+          GenerationProfiler.phase("map-sources", (mapped: Set[SourceFile]) => mapped.size) {
+            platform.mapSourceFiles(allSources, Some(combinedSourceFile))
+          }
+        combinedSources.foreach { sourceFile =>
+          consumer("combined", addLicense(sourceFile, licenseHeader))
+        }
+      case None =>
+        val emittedPaths = mutable.Set.empty[String]
+
+        def emit(origin: String, sourceFile: SourceFile): Unit =
+          if (emittedPaths.add(sourceFile.filePath.toString)) consumer(origin, addLicense(sourceFile, licenseHeader))
+
+        generationAggregator.generateInto(GenerationAggr.defaultParallelism, (srcDef, sourceFile) => emit(originOf(srcDef), sourceFile))
+        dslSources(cacheDirectory).foreach(emit("dsl", _))
+    }
+  }
+
+  /**
+    * The canonical type or resource a source definition was derived from.
+    */
+  private def originOf(sourceDefinition: SourceDefinition)(implicit platform: Platform): String =
+    sourceDefinition match {
+      case resourceDefinition: ResourceClassDefinition =>
+        val urlSegments = resourceDefinition.precedingUrlSegments :+ resourceDefinition.resource.urlSegment
+        s"resource:${urlSegments.mkString("/", "/", "")}"
+      case toDefinition: TransferObjectClassDefinition => s"type:${platform.fullyQualifiedName(toDefinition.reference)}"
+      case toInterfaceDefinition: TransferObjectInterfaceDefinition =>
+        s"type:${platform.fullyQualifiedName(toInterfaceDefinition.origin.reference)}"
+      case otherDefinition => s"class:${platform.fullyQualifiedName(otherDefinition.classReference)}"
+    }
+
+  /**
+    * Collects source files in batches and formats each batch in parallel, before handing the formatted source files over to the
+    * given consumer, together with the tag they were added with. All batches are formatted by the given source formatter, so
+    * they share its fork-join pool. Closing the batch closes the source formatter.
+    */
+  private class FormattingBatch[T](sourceFormatter: SourceFormatter, consumer: (T, SourceFile) => Unit) extends Closeable {
+
+    private val batch = mutable.ArrayBuffer.empty[(T, SourceFile)]
+
+    def add(tag: T, sourceFile: SourceFile): Unit = {
+      batch += tag -> sourceFile
+      if (batch.size >= streamingBatchSize) flush()
+    }
+
+    def flush(): Unit = {
+      val formatted = sourceFormatter.format(batch.map(_._2))
+      batch.map(_._1).zip(formatted).foreach(consumer.tupled)
+      batch.clear()
+    }
+
+    override def close(): Unit = sourceFormatter.close()
+
+  }
+
+  private[generator] val generatorVersion: Option[String] = Option(getClass.getPackage.getImplementationVersion)
 
-    mapAsJavaMap[String, String](tupleList.toMap)
+  private val streamingBatchSize = 256
+
+  private def dslSources(cacheDirectory: Option[Path])(implicit platform: Platform): Set[SourceFile] =
+    DslSourceCache.rewrittenDslSources(cacheDirectory.map(_.resolve("dsl")), generatorVersion)
+
+  private def singleSourceFile(singleTargeSourceFileName: String): Option[String] =
+    Option(singleTargeSourceFileName).collect {
+      case name if name.nonEmpty => name
+    }
+
+  /**
+    * We transform the thirdPartyClassHeader field to an optional here. We don't take it as an optional parameter higher up the chain
+    * to maintain a Java-compatible interface for the ScramlGenerator.
+    */
+  private def licenseHeaderFor(thirdPartyClassHeader: String): String = {
+    val classHeader: Option[String] =
+      if (thirdPartyClassHeader == null || thirdPartyClassHeader.isEmpty) None
+      else Some(thirdPartyClassHeader)
+    deferLicenseHeader(classHeader)
   }
 
   def packageNameToPackagParts(packageName: String): List[String] = packageName.split('.').toList.filter(!_.isEmpty)
 
-  private[generator] def buildGenerationAggr(ramlApiPath: String, apiClassName: String, thePlatform: Platform): GenerationAggr = {
+  private[generator] def buildGenerationAggr(ramlApiPath: String,
+                                             apiClassName: String,
+                                             thePlatform: Platform,
+                                             snapshotFile: Option[Path] = None): GenerationAggr = {
+    val (raml, canonicalLookup) = parseRaml(ramlApiPath, thePlatform, snapshotFile)
+    generationAggrFor(raml, canonicalLookup, apiClassName, thePlatform)
+  }
 
-    val charsetName = "UTF-8" // ToDo: Get the charset as input parameter.
+  /**
+    * Parse the RAML model and collect its canonical types, via the given snapshot file if there is one.
+    */
+  private[generator] def parseRaml(ramlApiPath: String, thePlatform: Platform, snapshotFile: Option[Path]): (Raml, CanonicalLookup) = {
+
+    val defaultBasePath: List[String] = thePlatform.apiBasePackageParts
 
     // Generate the RAML model
     println("Running RAML model generation")
-    val tryRaml: Try[Raml] = RamlParser(ramlApiPath, charsetName).parse
-    val raml = tryRaml match {
-      case Success(rml) => rml
+    val tryRamlWithLookup: Try[(Raml, CanonicalLookup)] =
+      snapshotFile match {
+        case Some(file) => ParseSnapshot.parse(file, ramlApiPath, charsetName, defaultBasePath)
+        case None       => RamlParser(ramlApiPath, charsetName).parse.map(_.collectCanonicals(defaultBasePath))
+      }
+    val ramlWithLookup = ramlOrFail(tryRamlWithLookup)
+    println(s"RAML model generated")
+
+    ramlWithLookup
+  }
+
+  private[generator] def ramlOrFail[T](tryRaml: Try[T]): T =
+    tryRaml match {
+      case Success(raml) => raml
       case Failure(rpe: RamlParseException) =>
         sys.error(s"""
              |- - - Invalid RAML model: - - -
@@ -179,19 +652,16 @@ object ScramlGenerator {
              |- - - - - - - - - - - - - - - - - -
            """.stripMargin)
     }
-    println(s"RAML model generated")
+
+  private[generator] def generationAggrFor(ramlExp: Raml,
+                                           canonicalLookup: CanonicalLookup,
+                                           apiClassName: String,
+                                           thePlatform: Platform): GenerationAggr = {
 
     // We need an implicit reference to the language we're generating the DSL for.
     implicit val lang     = language
     implicit val platform = thePlatform
 
-    val host    = thePlatform.apiBasePackageParts.take(2).reverse.mkString(".")
-    val urlPath = thePlatform.apiBasePackageParts.drop(2).mkString("/")
-
-    val defaultBasePath: List[String] = thePlatform.apiBasePackageParts
-
-    val (ramlExp, canonicalLookup) = raml.collectCanonicals(defaultBasePath) // new version
-
     val generationAggregator: GenerationAggr =
       GenerationAggr(apiName        = apiClassName,
                      apiBasePackage = thePlatform.apiBasePackageParts,
@@ -201,16 +671,8 @@ object ScramlGenerator {
     generationAggregator
   }
 
-  private def addLicenseAndFormat(sourceFile: SourceFile, platform: Platform, licenseHeader: String): SourceFile = {
-    val content = s"$licenseHeader\n${sourceFile.content}"
-    val formattedContent = platform match {
-      case ScalaPlay(_)          => Try(ScalaFormatter.format(content)).getOrElse(content)
-      case JavaJackson(_)        => Try(JavaFormatter.format(content)).getOrElse(content)
-      case AndroidJavaJackson(_) => Try(JavaFormatter.format(content)).getOrElse(content)
-      case _                     => content
-    }
-    sourceFile.copy(content = formattedContent)
-  }
+  private def addLicense(sourceFile: SourceFile, licenseHeader: String): SourceFile =
+    sourceFile.copy(content = s"$licenseHeader\n${sourceFile.content}")
 
   private def deferLicenseHeader(thirdPartyLicenseHeader: Option[String],
                                  commentPrefix: String = "  * ",
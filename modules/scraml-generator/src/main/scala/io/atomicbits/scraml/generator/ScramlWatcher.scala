@@ -0,0 +1,223 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.io.Closeable
+import java.nio.file._
+import java.util.concurrent.TimeUnit
+
+import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.ramlparser.parser.ParseSnapshot
+
+import scala.util.{ Failure, Success, Try }
+import scala.collection.JavaConverters._
+
+/**
+  * Generates the code for a RAML specification into an output directory and then keeps it up to date: each time one of the
+  * RAML source files that the specification was parsed from changes, the code is generated again.
+  *
+  * The parsed RAML sources are kept in memory in between two generation runs, so that only the changed source files are parsed
+  * again. Only the generated files whose content differs from what is on disk are written and generated files that are no longer
+  * part of the output are deleted, so that downstream incremental compilers only see the files that really changed.
+  *
+  * Run the watcher on a thread of your choice, close it to stop watching.
+  *
+  * @param platform                  The platform to generate the code for.
+  * @param ramlApiPath               The RAML source of the specification.
+  * @param apiClassName              The name of the API class.
+  * @param thirdPartyClassHeader     The class header to put on top of each generated file.
+  * @param singleTargeSourceFileName The name of the single source file to generate everything in, if the platform supports that.
+  * @param outputDirectory           The directory to generate the code into.
+  * @param debounceMillis            The time to wait for more file system events before regenerating the code.
+  */
+class ScramlWatcher(platform: Platform,
+                    ramlApiPath: String,
+                    apiClassName: String,
+                    thirdPartyClassHeader: String,
+                    singleTargeSourceFileName: String,
+                    outputDirectory: Path,
+                    debounceMillis: Long = 200L)
+    extends Runnable
+    with Closeable {
+
+  private val charsetName = ScramlGenerator.charsetName
+
+  private val outputSink = new DirectorySourceSink(outputDirectory, charsetName)
+
+  private val watchService: WatchService = FileSystems.getDefault.newWatchService()
+
+  @volatile private var closed: Boolean = false
+
+  private var snapshot: Option[ParseSnapshot]         = None
+  private var generated: Map[String, String]          = Map.empty
+  private var watchedDirectories: Map[Path, WatchKey] = Map.empty
+
+  /**
+    * Generate the code once and then keep regenerating it on changes until the watcher is closed.
+    */
+  override def run(): Unit = {
+    regenerate()
+    try {
+      while (!closed) {
+        val key     = watchService.take()
+        val changed = collectChanges(key)
+        if (changed.exists(isTrackedSource)) regenerate()
+      }
+    } catch {
+      case _: InterruptedException        => Thread.currentThread().interrupt()
+      case _: ClosedWatchServiceException => // The watcher was closed.
+    }
+  }
+
+  override def close(): Unit = {
+    closed = true
+    watchService.close()
+  }
+
+  /**
+    * Parse the RAML model again, reusing the unchanged sources of the previous run, and write the changed output files.
+    *
+    * @return The relative paths of the output files that were written or deleted.
+    */
+  def regenerate(): Set[String] = synchronized {
+    // Watch the root file before we parse it, so that we see its next change even when it doesn't parse now. The directories
+    // of the last successfully parsed sources stay watched when parsing fails.
+    Try(watchSources()).failed.foreach { e =>
+      println(s"Scraml cannot watch the RAML sources, changes may go unnoticed: ${e.getMessage}")
+    }
+    val result =
+      Try {
+        val parsed =
+          ScramlGenerator.ramlOrFail(ParseSnapshot.parse(snapshot, ramlApiPath, charsetName, platform.apiBasePackageParts))
+        val sources =
+          if (snapshot.exists(_ eq parsed)) {
+            generated
+          } else {
+            ScramlGenerator.generateSources(platform,
+                                            parsed.raml,
+                                            parsed.canonicalLookup,
+                                            apiClassName,
+                                            thirdPartyClassHeader,
+                                            singleTargeSourceFileName)
+          }
+        snapshot = Some(parsed)
+        watchSources()
+        val touched = writeChanged(sources)
+        generated = sources
+        touched
+      }
+    result match {
+      case Success(touched) =>
+        println(s"Scraml code is up to date in $outputDirectory, ${touched.size} file(s) changed.")
+        touched
+      case Failure(e) =>
+        println(s"Scraml code generation failed, waiting for the next change: ${e.getMessage}")
+        Set.empty
+    }
+  }
+
+  /**
+    * Collect the changed paths of the given key and of all keys that are signalled within the debounce time after it.
+    */
+  private def collectChanges(firstKey: WatchKey): Set[Path] = {
+
+    def changesOf(key: WatchKey): Set[Path] = {
+      val directory = key.watchable().asInstanceOf[Path]
+      val changes =
+        key.pollEvents().asScala.toSet[WatchEvent[_]].map { event =>
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) directory
+          else directory.resolve(event.context().asInstanceOf[Path])
+        }
+      key.reset()
+      changes
+    }
+
+    def collect(changes: Set[Path]): Set[Path] =
+      Option(watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) match {
+        case Some(key) => collect(changes ++ changesOf(key))
+        case None      => changes
+      }
+
+    collect(changesOf(firstKey))
+  }
+
+  private def isTrackedSource(changed: Path): Boolean =
+    Files.isDirectory(changed) || (sourceFiles ++ rootSource).contains(changed.toAbsolutePath.normalize())
+
+  /**
+    * The source files of the last successful parse.
+    */
+  private def sourceFiles: Set[Path] =
+    snapshot.map(_.sources.values.map(_.path.toAbsolutePath.normalize()).toSet).getOrElse(Set.empty)
+
+  /**
+    * The RAML source of the specification, if it is a path on the file system (it may also be a class path resource).
+    */
+  private def rootSource: Option[Path] =
+    Try(Paths.get(ramlApiPath).toAbsolutePath.normalize()).toOption.filter(path => Option(path.getParent).exists(Files.isDirectory(_)))
+
+  /**
+    * The directories that are registered with the watch service.
+    */
+  private[generator] def watchedDirectoryPaths: Set[Path] = synchronized(watchedDirectories.keySet)
+
+  /**
+    * Register the directories of all source files on the file system with the watch service and cancel the registration of the
+    * directories that no longer hold a source file, e.g. after an include was removed. Sources that were read from a jar file are
+    * not watched. The directory of the root source is watched even when the root source doesn't exist (yet).
+    */
+  private def watchSources(): Unit = {
+    val sourceDirectories = sourceFiles.filter(Files.isRegularFile(_)).flatMap(file => Option(file.getParent))
+    val directories       = sourceDirectories ++ rootSource.flatMap(file => Option(file.getParent))
+    val newDirectories    = directories -- watchedDirectories.keySet
+    val staleDirectories  = watchedDirectories.keySet -- directories
+    staleDirectories.foreach(directory => watchedDirectories(directory).cancel())
+    watchedDirectories --= staleDirectories
+    watchedDirectories ++=
+      newDirectories.map { directory =>
+        directory -> directory.register(watchService,
+                                        StandardWatchEventKinds.ENTRY_CREATE,
+                                        StandardWatchEventKinds.ENTRY_MODIFY,
+                                        StandardWatchEventKinds.ENTRY_DELETE)
+      }
+  }
+
+  /**
+    * Write the sources whose content differs from the file on disk and delete the previously generated files that are no
+    * longer part of the sources.
+    */
+  private def writeChanged(sources: Map[String, String]): Set[String] = {
+
+    val written =
+      sources.collect {
+        case (relativePath, content) if outputSink.writeIfChanged(relativePath, content) => relativePath
+      }.toSet
+
+    val deleted =
+      (generated.keySet -- sources.keySet).filter { relativePath =>
+        Files.deleteIfExists(outputDirectory.resolve(relativePath))
+      }
+
+    written ++ deleted
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator.codegen
+
+import java.io._
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path, Paths, StandardCopyOption }
+import java.util.zip.{ GZIPInputStream, GZIPOutputStream }
+
+import io.atomicbits.scraml.generator.formatting.SourceFormatter
+import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.profiling.GenerationProfiler
+import io.atomicbits.scraml.ramlparser.parser.SourceFile
+
+import scala.collection.concurrent.TrieMap
+import scala.util.Try
+
+/**
+  * Caches the extracted and rewritten DSL source files per platform and target package, for the lifetime of the JVM and optionally
+  * on disk. Multi-module builds that generate several clients with the same DSL target package only extract and rewrite the DSL
+  * source files once.
+  */
+object DslSourceCache {
+
+  private type CacheKey = (String, String, List[String])
+
+  private val cache = TrieMap.empty[CacheKey, Set[SourceFile]]
+
+  /**
+    * Marks the format of the cache files, change it when the format changes.
+    */
+  private val formatVersion = 1
+
+  /**
+    * A sanity limit on the length of the strings that we read, so that a corrupt cache file can't make us allocate huge arrays.
+    */
+  private val maxStringLength = 16 * 1024 * 1024
+
+  /**
+    * The extracted and rewritten DSL source files for the given platform.
+    *
+    * @param cacheDirectory   The directory to persist the rewritten DSL source files in, if any.
+    * @param generatorVersion The version of the generator that the DSL source files come with. Without a version, the DSL source
+    *                         files are not persisted, because we can't tell when they change.
+    */
+  def rewrittenDslSources(cacheDirectory: Option[Path], generatorVersion: Option[String])(implicit platform: Platform): Set[SourceFile] = {
+    val key: CacheKey = (platform.name, platform.dslBasePackage, platform.rewrittenDslBasePackage)
+    cache.getOrElseUpdate(
+      key, {
+        val cacheFile = for {
+          directory <- cacheDirectory
+          version <- generatorVersion
+        } yield directory.resolve(s"dsl-${SourceFormatter.hash(s"$version\n$key")}.bin.gz")
+
+        cacheFile.flatMap(read).getOrElse {
+          val extracted = DslSourceExtractor.extract()
+          val rewritten =
+            GenerationProfiler.phase("dsl-rewrite", (files: Set[SourceFile]) => files.size) {
+              extracted.map(DslSourceRewriter.rewrite)
+            }
+          cacheFile.foreach(write(_, rewritten))
+          rewritten
+        }
+      }
+    )
+  }
+
+  private def read(cacheFile: Path): Option[Set[SourceFile]] =
+    if (!Files.isRegularFile(cacheFile)) {
+      None
+    } else {
+      Try {
+        val in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(cacheFile))))
+        try {
+          require(in.readInt() == formatVersion, s"Unknown DSL source cache format in $cacheFile.")
+          val count = in.readInt()
+          require(count >= 0, s"Invalid DSL source cache $cacheFile.")
+          val sourceFiles = List.fill(count)(SourceFile(Paths.get(readString(in)), readString(in))).toSet
+          require(in.read() == -1, s"Invalid DSL source cache $cacheFile.")
+          sourceFiles
+        } finally {
+          in.close()
+        }
+      }.toOption
+    }
+
+  /**
+    * The cache file holds the format version and the number of source files, followed by the path and the content of each source
+    * file as length-prefixed UTF-8 strings. The file is written to a temporary file first that then replaces the cache file. Failing
+    * to write the cache file is not fatal.
+    */
+  private def write(cacheFile: Path, sourceFiles: Set[SourceFile]): Unit = {
+    val written =
+      Try {
+        Files.createDirectories(cacheFile.getParent)
+        val tempFile = Files.createTempFile(cacheFile.getParent, cacheFile.getFileName.toString, ".tmp")
+        try {
+          val out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))
+          try {
+            out.writeInt(formatVersion)
+            out.writeInt(sourceFiles.size)
+            sourceFiles.foreach { sourceFile =>
+              writeString(out, sourceFile.filePath.toString)
+              writeString(out, sourceFile.content)
+            }
+          } finally {
+            out.close()
+          }
+          Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } finally {
+          Files.deleteIfExists(tempFile)
+        }
+      }
+    written.failed.foreach { e =>
+      println(s"Could not write the DSL source cache $cacheFile: ${e.getMessage}")
+    }
+  }
+
+  /**
+    * DataOutput.writeUTF is limited to 64K bytes, which is too small for some DSL source files.
+    */
+  private def writeString(out: DataOutputStream, value: String): Unit = {
+    val bytes = value.getBytes(StandardCharsets.UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val length = in.readInt()
+    require(length >= 0 && length <= maxStringLength, "Invalid string length in the DSL source cache.")
+    val bytes = new Array[Byte](length)
+    in.readFully(bytes)
+    new String(bytes, StandardCharsets.UTF_8)
+  }
+
+}
@@ -21,6 +21,7 @@
 package io.atomicbits.scraml.generator.codegen
 
 import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.profiling.GenerationProfiler
 import io.atomicbits.scraml.ramlparser.parser.{ SourceFile, SourceReader }
 import org.slf4j.{ Logger, LoggerFactory }
 
@@ -45,25 +46,26 @@ object DslSourceExtractor {
   def extract()(implicit platform: Platform): Set[SourceFile] = {
     val baseDir   = platform.dslBaseDir
     val extension = platform.classFileExtension
-    cache.getOrElse((baseDir, extension), fetchFiles(baseDir, extension))
+    GenerationProfiler.phase("dsl-extract", (files: Set[SourceFile]) => files.size) {
+      cache.getOrElse((baseDir, extension), fetchFiles(baseDir, extension))
+    }
   }
 
   private def fetchFiles(baseDir: String, extension: String): Set[SourceFile] = {
     val files =
-      DslSourceExtractor.synchronized { // opening the same jar file several times in parallel... it doesn't work well
-        Try(SourceReader.readResources(baseDir, s".$extension")) match {
-          case Success(theFiles) => theFiles
-          case Failure(exception) =>
-            logger.debug(
-              s"""
-                 |Could not read the DSL source files from $baseDir with extension $extension
-                 |The exception was:
-                 |${exception.getClass.getName}
-                 |${exception.getMessage}
+      // SourceReader shares open jar file systems safely between threads, so no global lock is needed here.
+      Try(SourceReader.readResources(baseDir, s".$extension")) match {
+        case Success(theFiles) => theFiles
+        case Failure(exception) =>
+          logger.debug(
+            s"""
+               |Could not read the DSL source files from $baseDir with extension $extension
+               |The exception was:
+               |${exception.getClass.getName}
+               |${exception.getMessage}
              """.stripMargin
-            )
-            Set.empty[SourceFile]
-        }
+          )
+          Set.empty[SourceFile]
       }
     add(baseDir, extension, files)
     files
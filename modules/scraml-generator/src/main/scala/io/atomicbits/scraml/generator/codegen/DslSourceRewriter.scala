@@ -21,11 +21,14 @@
 package io.atomicbits.scraml.generator.codegen
 
 import java.nio.file.{ FileSystems, Path, Paths }
-import java.util.regex.Pattern
+import java.util.regex.{ Matcher, Pattern }
 
 import io.atomicbits.scraml.generator.platform.Platform
 import io.atomicbits.scraml.ramlparser.parser.SourceFile
 
+import scala.collection.JavaConverters._
+import scala.collection.concurrent.TrieMap
+
 /**
   * Created by peter on 18/04/17.
   */
@@ -45,7 +48,10 @@ object DslSourceRewriter {
     val fromPackage: String          = platform.dslBasePackage
     val toPackageParts: List[String] = platform.rewrittenDslBasePackage
     val toPackage: String            = toPackageParts.mkString(".")
-    val rewritten: String            = dslSource.content.replaceAll(Pattern.quote(fromPackage), toPackage)
+    val rewritten: String =
+      packagePattern(fromPackage)
+        .matcher(dslSource.content)
+        .replaceAll(Matcher.quoteReplacement(toPackage))
 
     /**
       * Paths.get("", ...) makes a relative path under Linux/Mac (starts without slash) and Windows (starts with a single backslash '\')
@@ -63,12 +69,35 @@ object DslSourceRewriter {
     val dslBasePath: Path = makeAbsoluteOnLinuxMacKeepRelativeOnWindows(Paths.get("", platform.dslBasePackageParts: _*))
 
     // dslSource.filePath is an absolute path on Linux/Mac, a directory relative path on Windows
-    val relativeFilePath: Path = dslBasePath.relativize(dslSource.filePath)
-    val toPath: Path           = Paths.get(toPackageParts.head, toPackageParts.tail: _*)
-    val newFilePath: Path      = toPath.resolve(relativeFilePath)
+    val relativeFilePath: Path =
+      relativeToDslBasePackage(dslSource.filePath, platform.dslBasePackageParts).getOrElse(dslBasePath.relativize(dslSource.filePath))
+    val toPath: Path      = Paths.get(toPackageParts.head, toPackageParts.tail: _*)
+    val newFilePath: Path = toPath.resolve(relativeFilePath)
     dslSource.copy(filePath = newFilePath, content = rewritten)
   }
 
+  /**
+    * The compiled patterns that match a DSL base package, by DSL base package.
+    */
+  private val packagePatterns = TrieMap.empty[String, Pattern]
+
+  private def packagePattern(fromPackage: String): Pattern =
+    packagePatterns.getOrElseUpdate(fromPackage, Pattern.compile(Pattern.quote(fromPackage)))
+
+  /**
+    * The path of a DSL source file relative to the DSL base package. DSL source files that are read from a class directory instead
+    * of a jar file have the absolute path of that directory in front of the DSL base package, relativizing them against the DSL base
+    * path would result in a path that climbs out of the output directory.
+    */
+  private def relativeToDslBasePackage(filePath: Path, dslBasePackageParts: List[String]): Option[Path] = {
+    val parts = filePath.iterator().asScala.map(_.toString).toList
+    val start = parts.lastIndexOfSlice(dslBasePackageParts)
+    parts.drop(start + dslBasePackageParts.size) match {
+      case first :: rest if start >= 0 => Some(Paths.get(first, rest: _*))
+      case _                           => None
+    }
+  }
+
   def makeAbsoluteOnLinuxMacKeepRelativeOnWindows(path: Path): Path = {
     if (path.isAbsolute) path
     else {
@@ -20,12 +20,19 @@
 
 package io.atomicbits.scraml.generator.codegen
 
+import java.util.IdentityHashMap
+import java.util.concurrent.ForkJoinPool
+
 import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.profiling.GenerationProfiler
 import io.atomicbits.scraml.generator.typemodel._
 import io.atomicbits.scraml.ramlparser.model.Raml
 import io.atomicbits.scraml.ramlparser.model.canonicaltypes.{ CanonicalName, NonPrimitiveType }
 import io.atomicbits.scraml.ramlparser.parser.SourceFile
 
+import scala.annotation.tailrec
+import scala.collection.parallel.ForkJoinTaskSupport
+
 /**
   * Created by peter on 18/01/17.
   *
@@ -46,6 +53,7 @@ import io.atomicbits.scraml.ramlparser.parser.SourceFile
   *                          objects. The toChildParentsMap is build up when the TOs are added to the toMap.
   * @param toParentChildrenMap The direct parent children relations are needed to navigate through the class hierarchy of the transfer
   *                            objects. The toParentChildrenMap is build up when the TOs are added to the toMap.
+  * @param typeHierarchy The transitive closure of the two maps above, renewed each time the maps change.
   */
 case class GenerationAggr(basePackage: List[String],
                           sourceDefinitionsToProcess: Seq[SourceDefinition],
@@ -55,7 +63,8 @@ case class GenerationAggr(basePackage: List[String],
                           toMap: Map[CanonicalName, TransferObjectClassDefinition]              = Map.empty,
                           toInterfaceMap: Map[CanonicalName, TransferObjectInterfaceDefinition] = Map.empty,
                           toChildParentsMap: Map[CanonicalName, Set[CanonicalName]]             = Map.empty,
-                          toParentChildrenMap: Map[CanonicalName, Set[CanonicalName]]           = Map.empty) {
+                          toParentChildrenMap: Map[CanonicalName, Set[CanonicalName]]           = Map.empty,
+                          typeHierarchy: TypeHierarchyIndex                                     = TypeHierarchyIndex.empty) {
 
   def addSourceDefinition(sourceDefinition: SourceDefinition): GenerationAggr =
     copy(sourceDefinitionsToProcess = sourceDefinition +: sourceDefinitionsToProcess)
@@ -91,44 +100,19 @@ case class GenerationAggr(basePackage: List[String],
   def directParents(canonicalName: CanonicalName): Set[CanonicalName] = toChildParentsMap.getOrElse(canonicalName, Set.empty)
 
   def isParentOf(potentialParent: CanonicalName, potentialChild: CanonicalName): Boolean =
-    allParents(potentialChild).contains(potentialParent)
+    typeHierarchy.isParentOf(potentialParent, potentialChild)
 
   def directChildren(canonicalName: CanonicalName): Set[CanonicalName] = toParentChildrenMap.getOrElse(canonicalName, Set.empty)
 
   /**
     * Find all leaf children of the given canonical name (itself not included if it is a leaf child).
     */
-  def leafChildren(canonicalName: CanonicalName): Set[CanonicalName] = {
-
-    def findLeafChildren(childrenToCheck: List[CanonicalName], leafChildrenFound: Set[CanonicalName] = Set.empty): Set[CanonicalName] = {
-      childrenToCheck match {
-        case Nil                                              => leafChildrenFound
-        case child :: remainingChildren if isLeafChild(child) => findLeafChildren(remainingChildren, leafChildrenFound + child)
-        case child :: remainingChildren =>
-          findLeafChildren(directChildren(child).toList ::: remainingChildren, leafChildrenFound)
-      }
-    }
-
-    findLeafChildren(directChildren(canonicalName).toList)
-  }
+  def leafChildren(canonicalName: CanonicalName): Set[CanonicalName] = typeHierarchy.leafChildren(canonicalName)
 
   /**
     * Find all non-leaf children of the given canonical name (itself not included if it is a non-leaf child).
     */
-  def nonLeafChildren(canonicalName: CanonicalName): Set[CanonicalName] = {
-
-    def findNonLeafChildren(childrenToCheck: List[CanonicalName],
-                            nonLeafChildrenFound: Set[CanonicalName] = Set.empty): Set[CanonicalName] = {
-      childrenToCheck match {
-        case Nil => nonLeafChildrenFound
-        case child :: remainingChildren if hasChildren(child) =>
-          findNonLeafChildren(directChildren(child).toList ::: remainingChildren, nonLeafChildrenFound + child)
-        case child :: remainingChildren => findNonLeafChildren(remainingChildren, nonLeafChildrenFound)
-      }
-    }
-
-    findNonLeafChildren(directChildren(canonicalName).toList)
-  }
+  def nonLeafChildren(canonicalName: CanonicalName): Set[CanonicalName] = typeHierarchy.nonLeafChildren(canonicalName)
 
   def isParent(canonicalName: CanonicalName): Boolean = hasChildren(canonicalName)
 
@@ -144,44 +128,14 @@ case class GenerationAggr(basePackage: List[String],
     * A class is a parent in a multiple inheritance relation if it has a child (direct or indirect) that has more than one parent.
     */
   def isParentInMultipleInheritanceRelation(canonicalName: CanonicalName): Boolean =
-    allChildren(canonicalName).exists(directParents(_).size > 1)
+    typeHierarchy.isParentInMultipleInheritanceRelation(canonicalName)
 
   /**
     * @return A breadth-first list of all parent canonical names.
     */
-  def allParents(canonicalName: CanonicalName): List[CanonicalName] = {
-
-    def findParents(parentsToExpand: List[CanonicalName], parentsFound: List[CanonicalName] = List.empty): List[CanonicalName] = {
-      parentsToExpand match {
-        case Nil => parentsFound
-        case moreParents =>
-          val nextLevelOfParents =
-            parentsToExpand.flatMap { parent =>
-              directParents(parent).toList
-            }
-          findParents(nextLevelOfParents, parentsFound ++ parentsToExpand)
-      }
-    }
+  def allParents(canonicalName: CanonicalName): List[CanonicalName] = typeHierarchy.allParents(canonicalName)
 
-    findParents(directParents(canonicalName).toList)
-  }
-
-  def allChildren(canonicalName: CanonicalName): List[CanonicalName] = {
-
-    def findChildren(childrenToExpand: List[CanonicalName], childrenFound: List[CanonicalName] = List.empty): List[CanonicalName] = {
-      childrenToExpand match {
-        case Nil => childrenFound
-        case moreChildren =>
-          val nextLevelOfChildren =
-            childrenToExpand.flatMap { child =>
-              directChildren(child).toList
-            }
-          findChildren(nextLevelOfChildren, childrenFound ++ childrenToExpand)
-      }
-    }
-
-    findChildren(directChildren(canonicalName).toList)
-  }
+  def allChildren(canonicalName: CanonicalName): List[CanonicalName] = typeHierarchy.allChildren(canonicalName)
 
   /**
     * Adds a TO definition and update the child-parents map and the parent-children map.
@@ -199,15 +153,107 @@ case class GenerationAggr(basePackage: List[String],
     updatedAggr.copy(toMap = updatedAggr.toMap + (canonicalName -> toDefinition))
   }
 
-  def generate(implicit platform: Platform): GenerationAggr = {
+  def generate(implicit platform: Platform): GenerationAggr = generateWithParallelism(GenerationAggr.defaultParallelism)
+
+  /**
+    * Generate the source files for all source definitions, including the source definitions that are added during generation.
+    *
+    * The source definitions are processed in the same order as they would be one by one, but rendering a source definition only
+    * depends on the transfer objects and their hierarchy, which don't change during generation. So, we render all source
+    * definitions that are waiting to be processed in parallel against the same base aggregate, and then merge the rendered
+    * results into the aggregate in processing order. The resulting aggregate is the same as the one that we would get if we
+    * rendered the definitions one by one.
+    *
+    * @param parallelism The number of source definitions to render concurrently, 1 renders them on the calling thread.
+    */
+  def generateWithParallelism(parallelism: Int)(implicit platform: Platform): GenerationAggr =
+    generateWithParallelism(parallelism, None)
+
+  /**
+    * Generate the source files for all source definitions and hand each source file over to the given consumer as soon as it is
+    * rendered, together with the source definition it was rendered from, in the order in which they would be added to
+    * sourceFilesGenerated. The source files are not kept in the resulting aggregate.
+    */
+  def generateInto(parallelism: Int, sourceFileConsumer: (SourceDefinition, SourceFile) => Unit)(
+      implicit platform: Platform): GenerationAggr =
+    generateWithParallelism(parallelism, Some(sourceFileConsumer))
+
+  private def generateWithParallelism(parallelism: Int, sourceFileConsumer: Option[(SourceDefinition, SourceFile) => Unit])(
+      implicit platform: Platform): GenerationAggr = {
 
     import Platform._
 
-    sourceDefinitionsToProcess match {
-      case srcDef :: srcDefs => srcDef.toSourceFile(this.markSourceDefinitionsHeadAsProcessed).generate
-      case Nil               => this
+    val renderBase: GenerationAggr =
+      copy(
+        sourceDefinitionsToProcess = Seq.empty,
+        sourceDefinitionsProcessed = Seq.empty,
+        sourceFilesGenerated       = Seq.empty,
+        toInterfaceMap             = Map.empty
+      )
+
+    val forkJoinPool = if (parallelism > 1) Some(new ForkJoinPool(parallelism)) else None
+
+    // The rendered result of each source definition, by identity.
+    val rendered = new IdentityHashMap[SourceDefinition, GenerationAggr]()
+
+    def renderAll(srcDefs: Seq[SourceDefinition]): Unit = {
+      val toRender = srcDefs.filterNot(rendered.containsKey).toVector
+      val renderedDefs =
+        forkJoinPool match {
+          case Some(pool) if toRender.size > 1 =>
+            val parallelDefs = toRender.par
+            parallelDefs.tasksupport = new ForkJoinTaskSupport(pool)
+            parallelDefs.map(srcDef => srcDef -> srcDef.toSourceFile(renderBase)).seq
+          case _ => toRender.map(srcDef => srcDef -> srcDef.toSourceFile(renderBase))
+        }
+      renderedDefs.foreach {
+        case (srcDef, result) => rendered.put(srcDef, result)
+      }
+    }
+
+    @tailrec
+    def process(aggr: GenerationAggr): GenerationAggr =
+      aggr.sourceDefinitionsToProcess match {
+        case srcDef +: _ =>
+          if (!rendered.containsKey(srcDef)) renderAll(aggr.sourceDefinitionsToProcess)
+          val merged = aggr.markSourceDefinitionsHeadAsProcessed.mergeRendered(rendered.remove(srcDef))
+          sourceFileConsumer match {
+            case Some(consumer) =>
+              merged.sourceFilesGenerated.reverse.foreach(consumer(srcDef, _))
+              process(merged.copy(sourceFilesGenerated = Seq.empty))
+            case None => process(merged)
+          }
+        case _ => aggr
+      }
+
+    try {
+      GenerationProfiler.phase("render", (generated: GenerationAggr) => generated.sourceDefinitionsProcessed.size) {
+        process(this)
+      }
+    } finally {
+      forkJoinPool.foreach(_.shutdown())
+    }
+  }
+
+  /**
+    * Merge the result of rendering a source definition against an empty base aggregate into this aggregate.
+    *
+    * Interface definitions are prepended to the definitions to process (see addInterfaceSourceDefinition), all other definitions
+    * are appended. Rendering against an empty queue thus results in the added interface definitions (in reverse order), followed
+    * by the other added definitions.
+    */
+  private def mergeRendered(result: GenerationAggr): GenerationAggr = {
+
+    val (prependedDefinitions, appendedDefinitions) = result.sourceDefinitionsToProcess.splitAt(result.toInterfaceMap.size)
+
+    val addedInterfaces = prependedDefinitions.reverse.collect {
+      case interfaceDefinition: TransferObjectInterfaceDefinition => interfaceDefinition
     }
 
+    addedInterfaces
+      .foldLeft(this)(_.addInterfaceSourceDefinition(_))
+      .addSourceDefinitions(appendedDefinitions)
+      .addSourceFiles(result.sourceFilesGenerated)
   }
 
   private def markSourceDefinitionsHeadAsProcessed: GenerationAggr =
@@ -227,8 +273,13 @@ case class GenerationAggr(basePackage: List[String],
           aggr.copy(toParentChildrenMap = aggr.toParentChildrenMap + (parent -> (childrenOfParent + child)))
         }
 
+      val updatedChildParentsMap = aggrWithUpdatedParentChildrenRelation.toChildParentsMap + childWithParents
+
       aggrWithUpdatedParentChildrenRelation
-        .copy(toChildParentsMap = aggrWithUpdatedParentChildrenRelation.toChildParentsMap + childWithParents)
+        .copy(
+          toChildParentsMap = updatedChildParentsMap,
+          typeHierarchy     = TypeHierarchyIndex(updatedChildParentsMap, aggrWithUpdatedParentChildrenRelation.toParentChildrenMap)
+        )
     }
 
     if (parents.nonEmpty) updatedAggregate
@@ -239,6 +290,8 @@ case class GenerationAggr(basePackage: List[String],
 
 object GenerationAggr {
 
+  val defaultParallelism: Int = Runtime.getRuntime.availableProcessors()
+
   def apply(apiName: String,
             apiBasePackage: List[String],
             raml: Raml,
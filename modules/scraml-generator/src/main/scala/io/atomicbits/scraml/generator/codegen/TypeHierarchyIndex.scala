@@ -0,0 +1,102 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator.codegen
+
+import io.atomicbits.scraml.ramlparser.model.canonicaltypes.CanonicalName
+
+/**
+  * The transitive closure of the transfer object class hierarchy, so that hierarchy queries during code generation are simple
+  * lookups instead of repeated walks through the hierarchy.
+  *
+  * The closure is computed for all canonical names at once, the first time it is queried. An index is immutable, a GenerationAggr
+  * creates a new index when its hierarchy changes.
+  *
+  * @param childParentsMap The direct parents of each child.
+  * @param parentChildrenMap The direct children of each parent.
+  */
+case class TypeHierarchyIndex(childParentsMap: Map[CanonicalName, Set[CanonicalName]],
+                              parentChildrenMap: Map[CanonicalName, Set[CanonicalName]]) {
+
+  /**
+    * @return A breadth-first list of all parent canonical names.
+    */
+  def allParents(canonicalName: CanonicalName): List[CanonicalName] = allParentsMap.getOrElse(canonicalName, List.empty)
+
+  /**
+    * @return A breadth-first list of all child canonical names.
+    */
+  def allChildren(canonicalName: CanonicalName): List[CanonicalName] = allChildrenMap.getOrElse(canonicalName, List.empty)
+
+  def isParentOf(potentialParent: CanonicalName, potentialChild: CanonicalName): Boolean =
+    allParentSetsMap.get(potentialChild).exists(_.contains(potentialParent))
+
+  def leafChildren(canonicalName: CanonicalName): Set[CanonicalName] = leafChildrenMap.getOrElse(canonicalName, Set.empty)
+
+  def nonLeafChildren(canonicalName: CanonicalName): Set[CanonicalName] = nonLeafChildrenMap.getOrElse(canonicalName, Set.empty)
+
+  def isParentInMultipleInheritanceRelation(canonicalName: CanonicalName): Boolean =
+    parentsInMultipleInheritanceRelation.contains(canonicalName)
+
+  private lazy val allParentsMap: Map[CanonicalName, List[CanonicalName]] =
+    childParentsMap.keys.map(child => child -> breadthFirst(child, childParentsMap)).toMap
+
+  private lazy val allParentSetsMap: Map[CanonicalName, Set[CanonicalName]] =
+    allParentsMap.map { case (child, parents) => child -> parents.toSet }
+
+  private lazy val allChildrenMap: Map[CanonicalName, List[CanonicalName]] =
+    parentChildrenMap.keys.map(parent => parent -> breadthFirst(parent, parentChildrenMap)).toMap
+
+  private lazy val leafChildrenMap: Map[CanonicalName, Set[CanonicalName]] =
+    allChildrenMap.map {
+      case (parent, children) => parent -> children.filterNot(hasChildren).toSet
+    }
+
+  private lazy val nonLeafChildrenMap: Map[CanonicalName, Set[CanonicalName]] =
+    allChildrenMap.map {
+      case (parent, children) => parent -> children.filter(hasChildren).toSet
+    }
+
+  /**
+    * A class is a parent in a multiple inheritance relation if it has a child (direct or indirect) that has more than one parent.
+    */
+  private lazy val parentsInMultipleInheritanceRelation: Set[CanonicalName] =
+    allChildrenMap.collect {
+      case (parent, children) if children.exists(childParentsMap.get(_).exists(_.size > 1)) => parent
+    }.toSet
+
+  private def hasChildren(canonicalName: CanonicalName): Boolean = parentChildrenMap.get(canonicalName).exists(_.nonEmpty)
+
+  private def breadthFirst(canonicalName: CanonicalName, relations: Map[CanonicalName, Set[CanonicalName]]): List[CanonicalName] = {
+
+    def related(names: List[CanonicalName]): List[CanonicalName] = names.flatMap(relations.getOrElse(_, Set.empty).toList)
+
+    val levels = Iterator.iterate(related(List(canonicalName)))(related).takeWhile(_.nonEmpty)
+    levels.flatten.toList
+  }
+
+}
+
+object TypeHierarchyIndex {
+
+  val empty: TypeHierarchyIndex = TypeHierarchyIndex(Map.empty, Map.empty)
+
+}
@@ -30,6 +30,11 @@ object JavaFormatter {
   // instances of Formatter are thread-safe
   val formatter = new Formatter()
 
+  /**
+    * Identifies the formatter's output, formatted sources must be formatted again when it changes.
+    */
+  val version: String = s"google-java-format-${Option(classOf[Formatter].getPackage.getImplementationVersion).getOrElse("1.2")}"
+
   /**
     * See https://github.com/google/google-java-format
     */
@@ -35,6 +35,12 @@ object ScalaFormatter {
       .setPreference(DoubleIndentConstructorArguments, true)
       .setPreference(IndentSpaces, 2)
 
+  /**
+    * Identifies the formatter's output, formatted sources must be formatted again when it or the format settings above change.
+    */
+  val version: String =
+    s"scalariform-${Option(classOf[FormattingPreferences].getPackage.getImplementationVersion).getOrElse("0.2.10")}-settings-1"
+
   def format(code: String): String = Try(scalariform.formatter.ScalaFormatter.format(code, formatSettings)).getOrElse(code)
 
 }
@@ -0,0 +1,142 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator.formatting
+
+import java.io.Closeable
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path, StandardCopyOption }
+import java.security.MessageDigest
+import java.util.concurrent.ForkJoinPool
+
+import io.atomicbits.scraml.generator.platform.Platform
+import io.atomicbits.scraml.profiling.GenerationProfiler
+import io.atomicbits.scraml.generator.platform.androidjavajackson.AndroidJavaJackson
+import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
+import io.atomicbits.scraml.generator.platform.scalaplay.ScalaPlay
+import io.atomicbits.scraml.ramlparser.parser.SourceFile
+import io.atomicbits.scraml.util.Parallel
+
+import scala.util.Try
+
+/**
+  * Formats the generated source files of a platform in parallel.
+  *
+  * When a cache directory is given, the formatted content of each source file is kept in it, keyed by a hash of the unformatted
+  * content, the platform and the formatter version. Source files that were formatted before, in this or an earlier build, are
+  * then taken from the cache instead of being formatted again.
+  *
+  * All calls to format share one fork-join pool, that is created on the first call. Close the formatter to shut it down.
+  *
+  * @param platform       The platform the source files were generated for.
+  * @param cacheDirectory The directory to cache formatted sources in, if any.
+  * @param parallelism    The number of source files to format concurrently.
+  */
+class SourceFormatter(platform: Platform, cacheDirectory: Option[Path] = None, parallelism: Int = Runtime.getRuntime.availableProcessors())
+    extends Closeable {
+
+  @volatile private var forkJoinPoolCreated = false
+
+  private lazy val forkJoinPool: ForkJoinPool = {
+    forkJoinPoolCreated = true
+    new ForkJoinPool(parallelism)
+  }
+
+  /**
+    * The formatter version and format function for the platform, if the platform's sources are formatted.
+    */
+  private val formatter: Option[(String, String => String)] =
+    platform match {
+      case ScalaPlay(_)          => Some((ScalaFormatter.version, ScalaFormatter.format))
+      case JavaJackson(_, _, _)  => Some((JavaFormatter.version, (code: String) => Try(JavaFormatter.format(code)).getOrElse(code)))
+      case AndroidJavaJackson(_) => Some((JavaFormatter.version, (code: String) => Try(JavaFormatter.format(code)).getOrElse(code)))
+      case _                     => None
+    }
+
+  def format(sourceFiles: Seq[SourceFile]): Seq[SourceFile] =
+    formatter match {
+      case Some((version, formatFn)) =>
+        GenerationProfiler.phase("format", (formatted: Seq[SourceFile]) => formatted.size) {
+          formatAll(sourceFiles.toVector) { sourceFile =>
+            sourceFile.copy(content = formatCached(sourceFile.content, version, formatFn))
+          }
+        }
+      case None => sourceFiles
+    }
+
+  private def formatCached(content: String, version: String, formatFn: String => String): String =
+    cacheDirectory match {
+      case Some(directory) =>
+        val cacheFile = cacheFileFor(directory, content, version)
+        readCached(cacheFile).getOrElse {
+          val formatted = formatFn(content)
+          writeCached(cacheFile, formatted)
+          formatted
+        }
+      case None => formatFn(content)
+    }
+
+  private def cacheFileFor(directory: Path, content: String, version: String): Path = {
+    val key = SourceFormatter.hash(List(platform.name, version, content).mkString("\n"))
+    directory.resolve(key.take(2)).resolve(key)
+  }
+
+  private def readCached(cacheFile: Path): Option[String] =
+    if (Files.isRegularFile(cacheFile)) Try(new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8)).toOption
+    else None
+
+  /**
+    * Write the formatted content to a temporary file first that then replaces the cache file, so that concurrent builds never
+    * read a partially written cache file. Failing to write to the cache is not fatal.
+    */
+  private def writeCached(cacheFile: Path, formatted: String): Unit = {
+    val written =
+      Try {
+        Files.createDirectories(cacheFile.getParent)
+        val tempFile = Files.createTempFile(cacheFile.getParent, cacheFile.getFileName.toString, ".tmp")
+        try {
+          Files.write(tempFile, formatted.getBytes(StandardCharsets.UTF_8))
+          Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } finally {
+          Files.deleteIfExists(tempFile)
+        }
+      }
+    written.failed.foreach { e =>
+      println(s"Could not write to the formatting cache $cacheFile: ${e.getMessage}")
+    }
+  }
+
+  private def formatAll(sourceFiles: Vector[SourceFile])(fn: SourceFile => SourceFile): Vector[SourceFile] =
+    if (parallelism <= 1 || sourceFiles.size <= 1) sourceFiles.map(fn)
+    else Parallel.map(sourceFiles, forkJoinPool)(fn)
+
+  override def close(): Unit = if (forkJoinPoolCreated) forkJoinPool.shutdown()
+
+}
+
+object SourceFormatter {
+
+  def hash(content: String): String = {
+    val digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8))
+    digest.map(byte => f"${byte & 0xff}%02x").mkString
+  }
+
+}
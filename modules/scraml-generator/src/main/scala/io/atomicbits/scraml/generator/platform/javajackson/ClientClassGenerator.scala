@@ -70,6 +70,20 @@ case class ClientClassGenerator(javaJackson: CommonJavaJacksonPlatform) extends
           (defaultCF, defaultCIS)
       }
 
+    val moduleReference = JacksonCodecGenerator.moduleReference(apiClassReference)
+
+    // Register the generated Jackson codecs with the object mapper of the DSL as soon as the client class is used.
+    val codecRegistration =
+      if (platform.generateJacksonCodecs) {
+        s"""
+           static {
+               $dslBasePackage.json.Json.getObjectMapper().registerModule(new ${moduleReference.name}());
+           }
+         """
+      } else {
+        ""
+      }
+
     val sourcecode =
       s"""
            package ${apiPackage.mkString(".")};
@@ -88,6 +102,8 @@ case class ClientClassGenerator(javaJackson: CommonJavaJacksonPlatform) extends
 
            public class $apiClassName {
 
+               $codecRegistration
+
                private RequestBuilder _requestBuilder = new RequestBuilder();
 
                public $apiClassName(String host,
@@ -128,10 +144,15 @@ case class ClientClassGenerator(javaJackson: CommonJavaJacksonPlatform) extends
            }
          """
 
+    val moduleSourceFiles =
+      if (platform.generateJacksonCodecs) Seq(JacksonCodecGenerator(platform).generateModule(generationAggr, moduleReference))
+      else Seq.empty
+
     generationAggr
       .addSourceDefinitions(clientClassDefinition.topLevelResourceDefinitions)
       .addSourceDefinitions(headerPathSourceDefs)
       .addSourceFile(SourceFile(filePath = apiClassReference.toFilePath, content = sourcecode))
+      .addSourceFiles(moduleSourceFiles)
   }
 
 }
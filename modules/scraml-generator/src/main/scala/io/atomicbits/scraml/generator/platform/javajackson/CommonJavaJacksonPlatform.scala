@@ -38,6 +38,10 @@ trait CommonJavaJacksonPlatform extends Platform with CleanNameTools {
 
   def rewrittenDslBasePackage: List[String]
 
+  def generateJacksonCodecs: Boolean = false
+
+  def generatePrimitiveFields: Boolean = false
+
   override def classPointerToNativeClassReference(classPointer: ClassPointer): ClassReference = {
 
     classPointer match {
@@ -62,19 +66,19 @@ trait CommonJavaJacksonPlatform extends Platform with CleanNameTools {
         ClassReference(name = "BodyPart", packageParts = rewrittenDslBasePackage, library = true)
       case LongClassPointer(primitive) =>
         if (primitive) {
-          ClassReference(name = "long", packageParts = List("java", "lang"), predef = true)
+          ClassReference(name = "long", packageParts = List.empty, predef = true)
         } else {
           ClassReference(name = "Long", packageParts = List("java", "lang"), predef = true)
         }
       case DoubleClassPointer(primitive) =>
         if (primitive) {
-          ClassReference(name = "double", packageParts = List("java", "lang"), predef = true)
+          ClassReference(name = "double", packageParts = List.empty, predef = true)
         } else {
           ClassReference(name = "Double", packageParts = List("java", "lang"), predef = true)
         }
       case BooleanClassPointer(primitive) =>
         if (primitive) {
-          ClassReference(name = "boolean", packageParts = List("java", "lang"), predef = true)
+          ClassReference(name = "boolean", packageParts = List.empty, predef = true)
         } else {
           ClassReference(name = "Boolean", packageParts = List("java", "lang"), predef = true)
         }
@@ -89,7 +89,11 @@ case class EnumGenerator(javaJackson: CommonJavaJacksonPlatform) extends SourceG
         content  = source
       )
 
-    generationAggr.addSourceFile(sourceFile)
+    val codecSourceFiles =
+      if (javaJackson.generateJacksonCodecs) Seq(JacksonCodecGenerator(javaJackson).generateEnumCodec(enumDefinition))
+      else Seq.empty
+
+    generationAggr.addSourceFile(sourceFile).addSourceFiles(codecSourceFiles)
   }
 
 }
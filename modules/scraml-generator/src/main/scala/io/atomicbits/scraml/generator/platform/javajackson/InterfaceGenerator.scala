@@ -42,14 +42,14 @@ case class InterfaceGenerator(javaJackson: CommonJavaJacksonPlatform) extends So
     val parentNames: List[CanonicalName] = generationAggr.allParents(originalToCanonicalName)
 
     val initialTosWithInterface: Seq[TransferObjectClassDefinition] = Seq(toInterfaceDefinition.origin)
-    val ownFields: Seq[Field]                                       = toInterfaceDefinition.origin.fields
+    val ownFields: Seq[Field]                                       = javaFields(toInterfaceDefinition.origin)
     val interfacesAndFieldsAggr                                     = (initialTosWithInterface, ownFields)
 
     val fields: Seq[Field] =
-      parentNames.foldLeft(toInterfaceDefinition.origin.fields) { (collectedFields, parentName) =>
+      parentNames.foldLeft(javaFields(toInterfaceDefinition.origin)) { (collectedFields, parentName) =>
         val parentDefinition: TransferObjectClassDefinition =
           generationAggr.toMap.getOrElse(parentName, sys.error(s"Expected to find $parentName in the generation aggregate."))
-        collectedFields ++ parentDefinition.fields
+        collectedFields ++ javaFields(parentDefinition)
       }
 
     val interfacesToImplement =
@@ -78,7 +78,7 @@ case class InterfaceGenerator(javaJackson: CommonJavaJacksonPlatform) extends So
         val (interfaces, fields) = aggr
         val parentDefinition: TransferObjectClassDefinition =
           generationAggr.toMap.getOrElse(parentName, sys.error(s"Expected to find $parentName in the generation aggregate."))
-        val withParentFields    = fields ++ parentDefinition.fields
+        val withParentFields    = fields ++ javaFields(parentDefinition)
         val withParentInterface = interfaces :+ parentDefinition
         (withParentInterface, withParentFields)
       }
@@ -0,0 +1,352 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator.platform.javajackson
+
+import io.atomicbits.scraml.generator.codegen.GenerationAggr
+import io.atomicbits.scraml.generator.platform.Platform._
+import io.atomicbits.scraml.generator.typemodel._
+import io.atomicbits.scraml.ramlparser.model.canonicaltypes.EnumType
+import io.atomicbits.scraml.ramlparser.parser.SourceFile
+
+/**
+  * Generates streaming Jackson serializers and deserializers for transfer objects and enums, and the Jackson module that registers
+  * them, so that Jackson doesn't need to introspect the transfer objects at runtime.
+  *
+  * The codecs of a transfer object are nested in a single codec class next to it. The serializer writes the type discriminator
+  * first, the deserializer dispatches on the field names with a switch and, for transfer objects with subtypes, on the type
+  * discriminator. Transfer objects with type parameters keep using Jackson's reflective (de)serialization.
+  */
+case class JacksonCodecGenerator(javaJackson: CommonJavaJacksonPlatform) {
+
+  implicit val platform: CommonJavaJacksonPlatform = javaJackson
+
+  private val jsonPackage = s"${platform.rewrittenDslBasePackage.mkString(".")}.json"
+
+  /**
+    * @param toClassDefinition      The transfer object.
+    * @param actualClassReference   The class that implements the transfer object, which is the transfer object itself or the class
+    *                               that implements its interface.
+    * @param fields                 All fields of the transfer object, including the inherited ones, but without the discriminator.
+    * @param jsonTypeInfo           The type discriminator of the transfer object, if it is part of a class hierarchy.
+    */
+  def generateTransferObjectCodec(generationAggr: GenerationAggr,
+                                  toClassDefinition: TransferObjectClassDefinition,
+                                  actualClassReference: ClassReference,
+                                  fields: Seq[Field],
+                                  jsonTypeInfo: Option[JsonTypeInfo]): SourceFile = {
+
+    val canonicalName  = toClassDefinition.reference.canonicalName
+    val codecReference = codecReferenceFor(actualClassReference)
+    val actualClass    = actualClassReference.classDefinition
+    // The type by which other transfer objects refer to this one, which is its interface if it has one.
+    val referredClass = toClassDefinition.reference.classDefinition
+
+    val subtypes: Seq[(String, ClassReference)] =
+      if (generationAggr.hasChildren(canonicalName)) {
+        generationAggr.allChildren(canonicalName).map { child =>
+          val childDefinition =
+            generationAggr.toMap.getOrElse(child, sys.error(s"Expected to find $child in the generation aggregate."))
+          childDefinition.actualTypeDiscriminatorValue -> childDefinition.reference
+        }
+      } else {
+        Seq.empty
+      }
+
+    val indexedFields = fields.zipWithIndex
+
+    val writeDiscriminator =
+      jsonTypeInfo.map(typeInfo => s"""gen.writeStringField("${typeInfo.discriminator}", "${typeInfo.discriminatorValue}");""").toList
+
+    val writeFields =
+      fields.map { field =>
+        val fieldName = field.fieldName
+        val getter    = s"value.get${field.safeFieldName.capitalize}()"
+        field.classPointer match {
+          case StringClassPointer         => s"""gen.writeStringField("$fieldName", $getter);"""
+          case LongClassPointer(true)     => s"""gen.writeNumberField("$fieldName", $getter);"""
+          case DoubleClassPointer(true)   => s"""gen.writeNumberField("$fieldName", $getter);"""
+          case BooleanClassPointer(true)  => s"""gen.writeBooleanField("$fieldName", $getter);"""
+          case LongClassPointer(false)    => s"""writeLongField(gen, "$fieldName", $getter);"""
+          case DoubleClassPointer(false)  => s"""writeDoubleField(gen, "$fieldName", $getter);"""
+          case BooleanClassPointer(false) => s"""writeBooleanField(gen, "$fieldName", $getter);"""
+          case _                          => s"""provider.defaultSerializeField("$fieldName", $getter, gen);"""
+        }
+      }
+
+    val valueFields = indexedFields.filter { case (field, _) => !isReadDirectly(field.classPointer) }
+
+    val valueTypeDeclarations =
+      valueFields.map {
+        case (field, index) =>
+          s"""
+             private static final com.fasterxml.jackson.databind.JavaType FIELD_TYPE_$index =
+               typeOf(new com.fasterxml.jackson.core.type.TypeReference<${field.classPointer.classDefinition}>() {});
+
+             private com.fasterxml.jackson.databind.JsonDeserializer<Object> fieldDeserializer$index;
+           """
+      }
+
+    val resolveValueDeserializers =
+      valueFields.map {
+        case (_, index) => s"fieldDeserializer$index = ctxt.findRootValueDeserializer(FIELD_TYPE_$index);"
+      }
+
+    val resolveSubtypes =
+      subtypes.map {
+        case (typeId, subtypeReference) => s"""addSubtype(ctxt, "$typeId", ${subtypeReference.classDefinition}.class);"""
+      }
+
+    val readFields =
+      indexedFields.map {
+        case (field, index) =>
+          val setter = s"value.set${field.safeFieldName.capitalize}"
+          val read =
+            field.classPointer match {
+              case StringClassPointer         => "readString(p, ctxt)"
+              case LongClassPointer(true)     => "readPrimitiveLong(p, ctxt)"
+              case DoubleClassPointer(true)   => "readPrimitiveDouble(p, ctxt)"
+              case BooleanClassPointer(true)  => "readPrimitiveBoolean(p, ctxt)"
+              case LongClassPointer(false)    => "readLong(p, ctxt)"
+              case DoubleClassPointer(false)  => "readDouble(p, ctxt)"
+              case BooleanClassPointer(false) => "readBoolean(p, ctxt)"
+              case classPointer               => s"(${classPointer.classDefinition}) readValue(p, ctxt, fieldDeserializer$index)"
+            }
+          s"""
+             case "${field.fieldName}":
+               $setter($read);
+               break;
+           """
+      }
+
+    val (deserializerBase, deserializerSuper) =
+      (subtypes, jsonTypeInfo) match {
+        case (Seq(), _) => (s"$jsonPackage.PojoDeserializer<$referredClass>", s"super($referredClass.class);")
+        case (_, Some(typeInfo)) =>
+          (s"$jsonPackage.PolymorphicPojoDeserializer<$referredClass>",
+           s"""super($referredClass.class, "${typeInfo.discriminator}", "${typeInfo.discriminatorValue}");""")
+        case (_, None) => sys.error(s"Expected type info for $canonicalName, because it has subtypes.")
+      }
+
+    val importPointers: Seq[ClassPointer] =
+      fields.map(_.classPointer) ++ subtypes.map(_._2) :+ actualClassReference :+ toClassDefinition.reference
+
+    val imports: Set[String] = platform.importStatements(codecReference, importPointers.toSet)
+
+    val source =
+      s"""
+        package ${codecReference.packageName};
+
+        ${imports.mkString("\n")}
+
+        public final class ${codecReference.name} {
+
+          private ${codecReference.name}() {
+          }
+
+          public static final class Serializer extends $jsonPackage.PojoSerializer<$actualClass> {
+
+            public Serializer() {
+              super($actualClass.class);
+            }
+
+            @Override
+            protected void serializeFields($actualClass value,
+                                           com.fasterxml.jackson.core.JsonGenerator gen,
+                                           com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {
+              ${(writeDiscriminator ++ writeFields).mkString("\n")}
+            }
+
+          }
+
+          public static final class Deserializer extends $deserializerBase {
+
+            ${valueTypeDeclarations.mkString("\n")}
+
+            public Deserializer() {
+              $deserializerSuper
+            }
+
+            @Override
+            public void resolve(com.fasterxml.jackson.databind.DeserializationContext ctxt)
+              throws com.fasterxml.jackson.databind.JsonMappingException {
+              ${(resolveValueDeserializers ++ resolveSubtypes).mkString("\n")}
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public $referredClass deserializeFields(com.fasterxml.jackson.core.JsonParser p,
+                                                    com.fasterxml.jackson.databind.DeserializationContext ctxt) throws java.io.IOException {
+              $actualClass value = new $actualClass();
+              for (com.fasterxml.jackson.core.JsonToken token = p.getCurrentToken();
+                   token == com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+                   token = p.nextToken()) {
+                String fieldName = p.getCurrentName();
+                p.nextToken();
+                switch (fieldName) {
+                  ${readFields.mkString("\n")}
+                  default:
+                    p.skipChildren();
+                }
+              }
+              return value;
+            }
+
+          }
+
+        }
+       """
+
+    SourceFile(filePath = codecReference.toFilePath, content = source)
+  }
+
+  def generateEnumCodec(enumDefinition: EnumDefinition): SourceFile = {
+
+    val enumReference  = enumDefinition.reference
+    val codecReference = codecReferenceFor(enumReference)
+    val enumClass      = enumReference.classDefinition
+
+    val source =
+      s"""
+        package ${codecReference.packageName};
+
+        public final class ${codecReference.name} {
+
+          private ${codecReference.name}() {
+          }
+
+          public static final class Serializer extends com.fasterxml.jackson.databind.ser.std.StdSerializer<$enumClass> {
+
+            public Serializer() {
+              super($enumClass.class);
+            }
+
+            @Override
+            public void serialize($enumClass value,
+                                  com.fasterxml.jackson.core.JsonGenerator gen,
+                                  com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {
+              gen.writeString(value.toString());
+            }
+
+          }
+
+          public static final class Deserializer extends com.fasterxml.jackson.databind.deser.std.StdDeserializer<$enumClass> {
+
+            public Deserializer() {
+              super($enumClass.class);
+            }
+
+            @Override
+            public $enumClass deserialize(com.fasterxml.jackson.core.JsonParser p,
+                                          com.fasterxml.jackson.databind.DeserializationContext ctxt) throws java.io.IOException {
+              try {
+                return $enumClass.fromValue(p.getText());
+              } catch (IllegalArgumentException e) {
+                throw ctxt.mappingException(e.getMessage());
+              }
+            }
+
+            @Override
+            public boolean isCachable() {
+              return true;
+            }
+
+          }
+
+        }
+       """
+
+    SourceFile(filePath = codecReference.toFilePath, content = source)
+  }
+
+  /**
+    * Generate the Jackson module that registers the codecs of all transfer objects and enums.
+    */
+  def generateModule(generationAggr: GenerationAggr, moduleReference: ClassReference): SourceFile = {
+
+    val transferObjectRegistrations =
+      generationAggr.toMap.toSeq
+        .sortBy { case (_, toClassDefinition) => toClassDefinition.reference.fullyQualifiedName }
+        .collect {
+          case (canonicalName, toClassDefinition) if hasCodec(toClassDefinition) =>
+            val actualClassReference =
+              if (generationAggr.isParentInMultipleInheritanceRelation(canonicalName)) toClassDefinition.implementingInterfaceReference
+              else toClassDefinition.reference
+            val codec = codecReferenceFor(actualClassReference).fullyQualifiedName
+            s"""
+               addSerializer(${actualClassReference.fullyQualifiedName}.class, new $codec.Serializer());
+               addDeserializer(${toClassDefinition.reference.fullyQualifiedName}.class, new $codec.Deserializer());
+             """
+        }
+
+    val enumRegistrations =
+      generationAggr.canonicalToMap.values.toSeq
+        .collect {
+          case enumType: EnumType => ClassReference(name = enumType.canonicalName.name, packageParts = enumType.canonicalName.packagePath)
+        }
+        .sortBy(_.fullyQualifiedName)
+        .map { enumReference =>
+          val codec = codecReferenceFor(enumReference).fullyQualifiedName
+          s"""
+             addSerializer(${enumReference.fullyQualifiedName}.class, new $codec.Serializer());
+             addDeserializer(${enumReference.fullyQualifiedName}.class, new $codec.Deserializer());
+           """
+        }
+
+    val source =
+      s"""
+        package ${moduleReference.packageName};
+
+        /**
+         * Registers the generated streaming serializers and deserializers of all transfer objects and enums.
+         */
+        public class ${moduleReference.name} extends com.fasterxml.jackson.databind.module.SimpleModule {
+
+          public ${moduleReference.name}() {
+            super("${moduleReference.name}", com.fasterxml.jackson.core.Version.unknownVersion());
+            ${(transferObjectRegistrations ++ enumRegistrations).mkString("\n")}
+          }
+
+        }
+       """
+
+    SourceFile(filePath = moduleReference.toFilePath, content = source)
+  }
+
+  def hasCodec(toClassDefinition: TransferObjectClassDefinition): Boolean = toClassDefinition.reference.typeParameters.isEmpty
+
+  private def codecReferenceFor(classReference: ClassReference): ClassReference =
+    ClassReference(name = s"${classReference.name}JsonCodec", packageParts = classReference.packageParts)
+
+  private def isReadDirectly(classPointer: ClassPointer): Boolean =
+    classPointer match {
+      case StringClassPointer | LongClassPointer(_) | DoubleClassPointer(_) | BooleanClassPointer(_) => true
+      case _                                                                                         => false
+    }
+
+}
+
+object JacksonCodecGenerator {
+
+  def moduleReference(clientClassReference: ClassReference): ClassReference =
+    ClassReference(name = s"${clientClassReference.name}JacksonModule", packageParts = clientClassReference.packageParts)
+
+}
@@ -186,7 +186,7 @@ class JavaActionCodeGenerator(val javaJackson: CommonJavaJacksonPlatform) extend
   def getCallMethod: String =
     platform match {
       case AndroidJavaJackson(_) => ""
-      case JavaJackson(_)        => ".call()"
+      case JavaJackson(_, _, _)  => ".call()"
     }
 
   def generateAction(actionSelection: ActionSelection,
@@ -255,7 +255,7 @@ class JavaActionCodeGenerator(val javaJackson: CommonJavaJacksonPlatform) extend
     val callResponseType: String =
       platform match {
         case AndroidJavaJackson(_) => segmentType
-        case JavaJackson(_)        => responseClassDefinition(responseType)
+        case JavaJackson(_, _, _)  => responseClassDefinition(responseType)
       }
 
     val primitiveBody = hasPrimitiveBody(segmentBodyType)
@@ -24,8 +24,13 @@ import io.atomicbits.scraml.generator.platform.Platform
 
 /**
   * Created by peter on 10/01/17.
+  *
+  * @param jacksonCodecs   Also generate streaming Jackson serializers and deserializers for the transfer objects and enums.
+  * @param primitiveFields Use primitive types for required integer, number and boolean fields of transfer objects and primitive
+  *                        arrays for their integer and number lists.
   */
-case class JavaJackson(apiBasePackageParts: List[String]) extends CommonJavaJacksonPlatform {
+case class JavaJackson(apiBasePackageParts: List[String], jacksonCodecs: Boolean = false, primitiveFields: Boolean = false)
+    extends CommonJavaJacksonPlatform {
 
   implicit val platform: Platform = this
 
@@ -35,4 +40,8 @@ case class JavaJackson(apiBasePackageParts: List[String]) extends CommonJavaJack
 
   override val rewrittenDslBasePackage: List[String] = apiBasePackageParts ++ List("dsl", "javajackson")
 
+  override val generateJacksonCodecs: Boolean = jacksonCodecs
+
+  override val generatePrimitiveFields: Boolean = primitiveFields
+
 }
@@ -55,7 +55,7 @@ case class PojoGenerator(javaJackson: CommonJavaJacksonPlatform) extends SourceG
       if (toHasOwnInterface) Seq(toClassDefinition)
       else Seq.empty
 
-    val ownFields: Seq[Field]            = toClassDefinition.fields
+    val ownFields: Seq[Field]            = javaFields(toClassDefinition)
     val parentNames: List[CanonicalName] = generationAggr.allParents(originalToCanonicalName)
     val interfacesAndFieldsAggr          = (initialTosWithInterface, ownFields)
 
@@ -64,7 +64,7 @@ case class PojoGenerator(javaJackson: CommonJavaJacksonPlatform) extends SourceG
         val (interfaces, fields) = aggr
         val parentDefinition: TransferObjectClassDefinition =
           generationAggr.toMap.getOrElse(parentName, sys.error(s"Expected to find $parentName in the generation aggregate."))
-        val withParentFields    = fields ++ parentDefinition.fields
+        val withParentFields    = fields ++ javaFields(parentDefinition)
         val withParentInterface = interfaces :+ parentDefinition
         (withParentInterface, withParentFields)
       }
@@ -156,7 +156,23 @@ case class PojoGenerator(javaJackson: CommonJavaJacksonPlatform) extends SourceG
         content  = source
       )
 
-    generationAggrWithAddedInterfaces.addSourceFile(sourceFile)
+    val codecGenerator = JacksonCodecGenerator(javaJackson)
+
+    val codecSourceFiles =
+      if (javaJackson.generateJacksonCodecs && codecGenerator.hasCodec(toClassDefinition)) {
+        val codecFields = allFields.filterNot(field => skipFieldName.contains(field.fieldName)).sortBy(_.safeFieldName)
+        Seq(
+          codecGenerator.generateTransferObjectCodec(generationAggr,
+                                                     toClassDefinition,
+                                                     actualToCanonicalClassReference,
+                                                     codecFields,
+                                                     jsonTypeInfo)
+        )
+      } else {
+        Seq.empty
+      }
+
+    generationAggrWithAddedInterfaces.addSourceFile(sourceFile).addSourceFiles(codecSourceFiles)
   }
 
   private def generatePojoSource(toClassReference: ClassReference,
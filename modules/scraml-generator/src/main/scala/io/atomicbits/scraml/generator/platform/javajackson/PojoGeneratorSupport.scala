@@ -22,7 +22,7 @@ package io.atomicbits.scraml.generator.platform.javajackson
 
 import io.atomicbits.scraml.generator.codegen.GenerationAggr
 import io.atomicbits.scraml.generator.platform.Platform
-import io.atomicbits.scraml.generator.typemodel.{ ClassReference, JsonTypeInfo, TransferObjectClassDefinition }
+import io.atomicbits.scraml.generator.typemodel._
 import io.atomicbits.scraml.ramlparser.model.canonicaltypes.CanonicalName
 
 /**
@@ -32,6 +32,37 @@ trait PojoGeneratorSupport {
 
   implicit def platform: Platform
 
+  def javaJackson: CommonJavaJacksonPlatform
+
+  /**
+    * The fields of a transfer object as they are declared in Java. When the platform generates primitive fields, required
+    * integer, number and boolean fields get a primitive type and lists of integers or numbers become primitive arrays.
+    */
+  def javaFields(toClassDefinition: TransferObjectClassDefinition): Seq[Field] =
+    if (javaJackson.generatePrimitiveFields) toClassDefinition.fields.map(primitiveField)
+    else toClassDefinition.fields
+
+  private def primitiveField(field: Field): Field = {
+
+    def withPrimitiveArrays(classPointer: ClassPointer): ClassPointer =
+      classPointer match {
+        case ListClassPointer(LongClassPointer(_))   => ArrayClassPointer(LongClassPointer(primitive = true))
+        case ListClassPointer(DoubleClassPointer(_)) => ArrayClassPointer(DoubleClassPointer(primitive = true))
+        case ListClassPointer(elementType)           => ListClassPointer(withPrimitiveArrays(elementType))
+        case other                                   => other
+      }
+
+    val classPointer =
+      field.classPointer match {
+        case LongClassPointer(_) if field.required    => LongClassPointer(primitive = true)
+        case DoubleClassPointer(_) if field.required  => DoubleClassPointer(primitive = true)
+        case BooleanClassPointer(_) if field.required => BooleanClassPointer(primitive = true)
+        case other                                    => withPrimitiveArrays(other)
+      }
+
+    field.copy(classPointer = classPointer)
+  }
+
   def hasOwnInterface(canonicalName: CanonicalName, generationAggr: GenerationAggr): Boolean = {
     generationAggr.isParentInMultipleInheritanceRelation(canonicalName)
   }
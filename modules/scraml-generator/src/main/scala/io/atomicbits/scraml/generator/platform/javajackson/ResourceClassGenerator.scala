@@ -22,6 +22,7 @@ package io.atomicbits.scraml.generator.platform.javajackson
 
 import io.atomicbits.scraml.generator.codegen.{ ActionGenerator, DslSourceRewriter, GenerationAggr, SourceCodeFragment }
 import io.atomicbits.scraml.generator.platform.{ CleanNameTools, Platform, SourceGenerator }
+import io.atomicbits.scraml.generator.platform.androidjavajackson.AndroidJavaJackson
 import io.atomicbits.scraml.generator.typemodel.ResourceClassDefinition
 import io.atomicbits.scraml.generator.platform.Platform._
 import io.atomicbits.scraml.generator.util.CleanNameUtil
@@ -104,12 +105,19 @@ case class ResourceClassGenerator(javaJackson: CommonJavaJacksonPlatform) extend
     val resourceClassReference = resourceClassDefinition.classReference
     val resource               = resourceClassDefinition.resource
 
+    // The Android DSL keeps track of the resource template (with the path parameter names) for per-resource call metrics.
+    val superParamArguments =
+      platform match {
+        case AndroidJavaJackson(_) => s"""value, "${resource.urlSegment}", requestBuilder"""
+        case _                     => "value, requestBuilder"
+      }
+
     resourceClassDefinition.urlParamClassPointer().map(_.native) match {
       case Some(paramClassReference) =>
         List(
           s"""
                public ${resourceClassReference.name}(${paramClassReference.name} value, RequestBuilder requestBuilder) {
-                 super(value, requestBuilder);
+                 super($superParamArguments);
                }
              """,
           s"""
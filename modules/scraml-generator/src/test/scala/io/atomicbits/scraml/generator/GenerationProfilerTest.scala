@@ -0,0 +1,61 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+package io.atomicbits.scraml.generator
+
+import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
+import io.atomicbits.scraml.profiling.GenerationProfiler
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+import play.api.libs.json.JsArray
+
+class GenerationProfilerTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("Profile the phases of code generation") {
+
+    Scenario("profiling a generation run records each phase once with its item count") {
+
+      Given("a RAML specification")
+      val platform = JavaJackson(List("io", "atomicbits"))
+
+      When("we profile the generation of its code")
+      val (sources, profile) =
+        GenerationProfiler.profiled(jfrEvents = true) {
+          val (raml, canonicalLookup) =
+            ScramlGenerator.parseRaml("multipleacceptheaders/TestMultipleAcceptHeaders.raml", platform, None)
+          ScramlGenerator.generateSources(platform, raml, canonicalLookup, "TestMultipleAcceptHeaders", null, null)
+        }
+
+      Then("the profile has the parse, canonicalize, render, map-sources, license and format phases")
+      val phases = profile.phases.map(phase => phase.phase -> phase).toMap
+      List("parse", "canonicalize", "render", "map-sources", "license", "format").foreach { phase =>
+        phases.get(phase).map(_.invocations) shouldBe Some(1)
+      }
+      phases("format").items shouldBe sources.size
+      phases("parse").wallNanos should be > 0L
+
+      And("the profile can be reported as JSON and as a table")
+      (profile.toJson \ "phases").as[JsArray].value.size shouldBe profile.phases.size
+      profile.summaryTable.linesIterator.size shouldBe profile.phases.size + 1
+    }
+
+  }
+
+}
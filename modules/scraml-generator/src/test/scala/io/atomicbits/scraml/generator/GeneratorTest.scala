@@ -220,5 +220,56 @@ class GeneratorTest extends AnyFeatureSpec with GivenWhenThen with BeforeAndAfte
       expectedFilePaths -- generatedFilePaths shouldBe Set.empty
     }
 
+    Scenario("test generated Java DSL with primitive fields") {
+
+      Given("a RAML specification")
+      val apiLocation = "io/atomicbits/scraml/TestApi.raml"
+
+      When("we generate the RAMl specification for Java with primitive fields")
+      implicit val platform: Platform = JavaJackson(List("io", "atomicbits", "scraml"), primitiveFields = true)
+
+      val generationAggr: GenerationAggr =
+        ScramlGenerator
+          .buildGenerationAggr(
+            ramlApiPath  = apiLocation,
+            apiClassName = "TestApi",
+            platform
+          )
+          .generate
+
+      def generatedSource(filePath: String): String =
+        generationAggr.sourceFilesGenerated.find(_.filePath.toString == filePath).map(_.content).getOrElse(fail(s"No $filePath"))
+
+      Then("required integer and boolean fields get a primitive type")
+      generatedSource("io/atomicbits/schema/User.java") should include("private long age;")
+      generatedSource("io/atomicbits/schema/User.java") should include("public void setAge(long age)")
+      generatedSource("io/atomicbits/schema/Dog.java") should include("private boolean canBark;")
+      generatedSource("io/atomicbits/schema/PagedList.java") should include("private long count;")
+
+      And("lists of other types stay lists")
+      generatedSource("io/atomicbits/schema/PagedList.java") should include("private List<T> elements;")
+
+      And("number lists become primitive arrays")
+      generatedSource("io/atomicbits/schema/Geometry.java") should include("private double[] bbox;")
+    }
+
+    Scenario("test parallel source file rendering") {
+
+      Given("a RAML specification")
+      val apiLocation = "io/atomicbits/scraml/TestApi.raml"
+
+      When("we generate the code once on a single thread and once in parallel")
+      implicit val platform: Platform = JavaJackson(List("io", "atomicbits", "scraml"))
+
+      val generationAggr: GenerationAggr =
+        ScramlGenerator.buildGenerationAggr(ramlApiPath = apiLocation, apiClassName = "TestApi", platform)
+
+      val sequentiallyGenerated = generationAggr.generateWithParallelism(1)
+      val parallellyGenerated   = generationAggr.generateWithParallelism(4)
+
+      Then("we should get the same source files in the same order")
+      parallellyGenerated.sourceFilesGenerated shouldBe sequentiallyGenerated.sourceFilesGenerated
+      parallellyGenerated.sourceDefinitionsProcessed shouldBe sequentiallyGenerated.sourceDefinitionsProcessed
+    }
   }
 }
@@ -0,0 +1,148 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path }
+
+import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+class IncrementalGenerationTest extends AnyFeatureSpec with GivenWhenThen {
+
+  def ramlWithTypes(types: String): String =
+    s"""#%RAML 1.0
+       |---
+       |title: incremental
+       |version: 1.0
+       |mediaType: application/json
+       |
+       |types:
+       |$types
+       |/books:
+       |  get:
+       |    responses:
+       |      200:
+       |        body:
+       |          application/json:
+       |            type: Book
+       |""".stripMargin
+
+  val bookType =
+    """  Book:
+      |    type: object
+      |    properties:
+      |      title: string
+      |""".stripMargin
+
+  val authorType =
+    """  Author:
+      |    type: object
+      |    properties:
+      |      name: string
+      |""".stripMargin
+
+  Feature("Regenerate code incrementally based on a generation manifest") {
+
+    Scenario("only the source files of changed types are written and those of removed types are deleted") {
+
+      Given("a RAML specification that was generated into an output directory before")
+      val ramlDirectory: Path   = Files.createTempDirectory("scraml-incremental-raml")
+      val outputDirectory: Path = Files.createTempDirectory("scraml-incremental-out")
+      val ramlFile              = ramlDirectory.resolve("api.raml")
+      Files.write(ramlFile, ramlWithTypes(bookType + authorType).getBytes(StandardCharsets.UTF_8))
+
+      val platform = JavaJackson(List("io", "atomicbits", "incremental"))
+
+      def generate(): GenerationManifest =
+        ScramlGenerator.generateIncrementally(platform,
+                                              ramlFile.toString,
+                                              "IncrementalApi",
+                                              null,
+                                              null,
+                                              None,
+                                              None,
+                                              outputDirectory,
+                                              generatorVersion = Some("test"))
+
+      val firstManifest = generate()
+      val bookFile      = firstManifest.files.collectFirst { case (path, entry) if entry.origin.endsWith(".Book") => path }.get
+      val authorFile    = firstManifest.files.collectFirst { case (path, entry) if entry.origin.endsWith(".Author") => path }.get
+      val apiFile       = firstManifest.files.collectFirst { case (path, entry) if path.endsWith("IncrementalApi.java") => path }.get
+
+      When("we generate the code again without any change")
+      val unchangedManifest = generate()
+
+      Then("the manifest stays the same")
+      unchangedManifest shouldBe firstManifest
+
+      When("we change the Book type and remove the Author type")
+      Files.write(ramlFile, ramlWithTypes(bookType + "      isbn: string\n").getBytes(StandardCharsets.UTF_8))
+      val changedManifest = generate()
+
+      Then("only the Book source file is written again and the Author source file is deleted")
+      changedManifest.files(bookFile).contentHash should not be firstManifest.files(bookFile).contentHash
+      changedManifest.files(bookFile).lastModified should be >= firstManifest.files(bookFile).lastModified
+      changedManifest.files(apiFile) shouldBe firstManifest.files(apiFile)
+      changedManifest.files.get(authorFile) shouldBe None
+      Files.exists(outputDirectory.resolve(authorFile)) shouldBe false
+      new String(Files.readAllBytes(outputDirectory.resolve(bookFile)), StandardCharsets.UTF_8) should include("isbn")
+    }
+
+    Scenario("a manifest that lists files outside of the output directory is ignored") {
+
+      Given("an output directory with a manifest that lists a file outside of the output directory")
+      val ramlDirectory: Path   = Files.createTempDirectory("scraml-incremental-raml")
+      val parentDirectory: Path = Files.createTempDirectory("scraml-incremental-parent")
+      val outputDirectory: Path = Files.createDirectories(parentDirectory.resolve("out"))
+      val ramlFile              = ramlDirectory.resolve("api.raml")
+      val outsideFile           = Files.write(parentDirectory.resolve("outside.txt"), "keep me".getBytes(StandardCharsets.UTF_8))
+      Files.write(ramlFile, ramlWithTypes(bookType).getBytes(StandardCharsets.UTF_8))
+      GenerationManifest.write(
+        outputDirectory,
+        GenerationManifest("fingerprint", Map.empty, Map("../outside.txt" -> ManifestEntry("origin", "hash", "hash", 7L, 0L)))
+      )
+
+      When("we generate the code into the output directory")
+      val platform = JavaJackson(List("io", "atomicbits", "incremental"))
+      val manifest =
+        ScramlGenerator.generateIncrementally(platform,
+                                              ramlFile.toString,
+                                              "IncrementalApi",
+                                              null,
+                                              null,
+                                              None,
+                                              None,
+                                              outputDirectory,
+                                              generatorVersion = Some("test"))
+
+      Then("the file outside of the output directory is not deleted")
+      manifest.files should not be empty
+      GenerationManifest.read(outputDirectory) shouldBe Some(manifest)
+      Files.exists(outsideFile) shouldBe true
+    }
+
+  }
+
+}
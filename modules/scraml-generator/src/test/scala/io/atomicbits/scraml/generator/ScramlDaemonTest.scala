@@ -0,0 +1,119 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+package io.atomicbits.scraml.generator
+
+import java.io.{ BufferedReader, InputStreamReader, OutputStreamWriter }
+import java.net.{ InetAddress, Socket }
+import java.nio.charset.StandardCharsets
+import java.nio.file.attribute.PosixFilePermission
+import java.nio.file.{ Files, Path }
+
+import io.atomicbits.scraml.generator.ScramlDaemon.{ DaemonRequest, DaemonResponse, TokenFile }
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+import play.api.libs.json.Json
+
+import scala.collection.JavaConverters._
+
+class ScramlDaemonTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("Hand generation requests to a long-lived generator daemon") {
+
+    Scenario("a daemon answers several generation requests on one connection") {
+
+      Given("a running daemon")
+      val tokenFile = tokenFileIn(Files.createTempDirectory("scraml-daemon"))
+      val daemon    = new ScramlDaemon(tokenFile = tokenFile)
+      val thread    = new Thread(daemon)
+      thread.start()
+
+      When("we send the daemon's token, a valid request twice and an invalid request once")
+      val request =
+        DaemonRequest("scalaplay", "multipleacceptheaders/TestMultipleAcceptHeaders.raml", "io.atomicbits", "TestMultipleAcceptHeaders")
+      val requestLines = List(Json.stringify(Json.toJson(request)), Json.stringify(Json.toJson(request)), "{}")
+      val responses    = send(TokenFile.read(tokenFile), TokenFile.read(tokenFile).token, requestLines)
+      daemon.close()
+      thread.join(5000)
+
+      Then("the valid requests return the same generated files and the invalid request returns an error")
+      val List(first, second, invalid) = responses
+      first.error shouldBe None
+      first.files.getOrElse(Map.empty) should not be empty
+      second.files shouldBe first.files
+      invalid.error should not be empty
+    }
+
+    Scenario("a daemon only serves connections that start with its token") {
+
+      Given("a running daemon")
+      val tokenFile = tokenFileIn(Files.createTempDirectory("scraml-daemon"))
+      val daemon    = new ScramlDaemon(tokenFile = tokenFile)
+      val thread    = new Thread(daemon)
+      thread.start()
+
+      When("we send a request after a wrong token")
+      val daemonToken = TokenFile.read(tokenFile)
+      val request     = DaemonRequest("scalaplay", "multipleacceptheaders/TestMultipleAcceptHeaders.raml", "io.atomicbits", "Api")
+      val responses   = send(daemonToken, "wrong-token", List(Json.stringify(Json.toJson(request))))
+
+      Then("the token file holds the daemon's port, only its owner can read it and the request is refused")
+      daemonToken.port shouldBe daemon.localPort
+      daemonToken.token.length shouldBe 64
+      if (tokenFile.getFileSystem.supportedFileAttributeViews().contains("posix")) {
+        Files.getPosixFilePermissions(tokenFile).asScala shouldBe Set(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE)
+      }
+      val List(refused) = responses
+      refused.error shouldBe Some("Invalid token.")
+      refused.files shouldBe None
+
+      When("the daemon is closed")
+      daemon.close()
+      thread.join(5000)
+
+      Then("its token file is deleted")
+      Files.exists(tokenFile) shouldBe false
+    }
+
+  }
+
+  private def tokenFileIn(directory: Path): Path = directory.resolve("daemon.json")
+
+  /**
+    * Send the token and the request lines on one connection and collect the responses until the daemon closes the connection.
+    */
+  private def send(daemonToken: TokenFile, token: String, requestLines: List[String]): List[DaemonResponse] = {
+    val socket = new Socket(InetAddress.getLoopbackAddress, daemonToken.port)
+    try {
+      val writer = new OutputStreamWriter(socket.getOutputStream, StandardCharsets.UTF_8)
+      val reader = new BufferedReader(new InputStreamReader(socket.getInputStream, StandardCharsets.UTF_8))
+      writer.write(token + "\n")
+      writer.flush()
+      requestLines.flatMap { line =>
+        writer.write(line + "\n")
+        writer.flush()
+        Option(reader.readLine()).map(Json.parse(_).as[DaemonResponse])
+      }
+    } finally {
+      socket.close()
+    }
+  }
+
+}
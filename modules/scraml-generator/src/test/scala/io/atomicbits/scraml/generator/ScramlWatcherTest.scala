@@ -0,0 +1,181 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Path }
+
+import io.atomicbits.scraml.generator.platform.scalaplay.ScalaPlay
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+import scala.collection.JavaConverters._
+
+class ScramlWatcherTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("Watch a RAML specification and keep the generated code up to date") {
+
+    Scenario("regenerating code for an unchanged RAML specification writes no files") {
+
+      Given("a watcher on a RAML specification")
+      val outputDirectory: Path = Files.createTempDirectory("scraml-watcher")
+      val watcher =
+        new ScramlWatcher(ScalaPlay(List("io", "atomicbits")),
+                          "multipleacceptheaders/TestMultipleAcceptHeaders.raml",
+                          "TestMultipleAcceptHeaders",
+                          null,
+                          null,
+                          outputDirectory)
+
+      When("we generate the code twice")
+      val firstRun  = watcher.regenerate()
+      val secondRun = watcher.regenerate()
+      watcher.close()
+
+      Then("the first run writes all files and the second run none")
+      firstRun should not be empty
+      firstRun.forall(relativePath => Files.isRegularFile(outputDirectory.resolve(relativePath))) shouldBe true
+      secondRun shouldBe empty
+    }
+
+    Scenario("a watcher that starts from an invalid RAML specification generates the code once the specification is fixed") {
+
+      Given("a watcher running on an invalid RAML specification")
+      val specDirectory: Path   = Files.createTempDirectory("scraml-watcher-spec")
+      val outputDirectory: Path = Files.createTempDirectory("scraml-watcher")
+      val specFile              = specDirectory.resolve("books.raml")
+      write(specFile, "#%RAML 1.0\n---\ntitle: [unclosed\n")
+      val watcher = runWatcher(specFile, outputDirectory)
+
+      try {
+        When("the specification is fixed")
+        Thread.sleep(1000L)
+        write(specDirectory.resolve("book.raml"), bookType("title"))
+        write(specFile, specification("types:\n  Book: !include book.raml"))
+
+        Then("the code is generated")
+        eventually(generatedFiles(outputDirectory).nonEmpty) shouldBe true
+      } finally {
+        watcher.close()
+      }
+    }
+
+    Scenario("a watcher keeps watching the included files of a RAML specification after a failed run") {
+
+      Given("a watcher running on a RAML specification that includes its type")
+      val specDirectory: Path   = Files.createTempDirectory("scraml-watcher-spec")
+      val outputDirectory: Path = Files.createTempDirectory("scraml-watcher")
+      val specFile              = specDirectory.resolve("books.raml")
+      val bookFile              = specDirectory.resolve("book.raml")
+      write(specFile, specification("types:\n  Book: !include book.raml"))
+      write(bookFile, bookType("title"))
+      val watcher = runWatcher(specFile, outputDirectory)
+
+      try {
+        eventually(generatedFiles(outputDirectory).exists(contains(_, "title"))) shouldBe true
+
+        When("the included type is broken and then fixed")
+        write(bookFile, "type: [unclosed\n")
+        Thread.sleep(1000L)
+        write(bookFile, bookType("subtitle"))
+
+        Then("the code is generated again")
+        eventually(generatedFiles(outputDirectory).exists(contains(_, "subtitle"))) shouldBe true
+      } finally {
+        watcher.close()
+      }
+    }
+
+    Scenario("a watcher stops watching the directory of an include that was removed") {
+
+      Given("a watcher on a RAML specification that includes its type from a subdirectory")
+      val specDirectory: Path   = Files.createTempDirectory("scraml-watcher-spec")
+      val outputDirectory: Path = Files.createTempDirectory("scraml-watcher")
+      val specFile              = specDirectory.resolve("books.raml")
+      val typesDirectory        = Files.createDirectories(specDirectory.resolve("types"))
+      write(specFile, specification("types:\n  Book: !include types/book.raml"))
+      write(typesDirectory.resolve("book.raml"), bookType("title"))
+      val watcher =
+        new ScramlWatcher(ScalaPlay(List("io", "atomicbits")), specFile.toString, "Books", null, null, outputDirectory)
+
+      try {
+        watcher.regenerate() should not be empty
+        watcher.watchedDirectoryPaths should contain(typesDirectory.toAbsolutePath.normalize())
+
+        When("the include is replaced by an inline type")
+        write(specFile, specification("types:\n  Book:\n    type: object\n    properties:\n      title: string"))
+        watcher.regenerate()
+
+        Then("only the directory of the specification is watched")
+        watcher.watchedDirectoryPaths shouldBe Set(specDirectory.toAbsolutePath.normalize())
+      } finally {
+        watcher.close()
+      }
+    }
+
+  }
+
+  private def runWatcher(specFile: Path, outputDirectory: Path): ScramlWatcher = {
+    val watcher =
+      new ScramlWatcher(ScalaPlay(List("io", "atomicbits")), specFile.toString, "Books", null, null, outputDirectory, debounceMillis = 50L)
+    val thread = new Thread(watcher, "scraml-watcher-test")
+    thread.setDaemon(true)
+    thread.start()
+    watcher
+  }
+
+  private def specification(types: String): String =
+    s"""#%RAML 1.0
+       |---
+       |title: books
+       |version: v1
+       |$types
+       |/books:
+       |  get:
+       |    responses:
+       |      200:
+       |        body:
+       |          application/json:
+       |            type: Book[]
+       |""".stripMargin
+
+  private def bookType(property: String): String =
+    s"""type: object
+       |properties:
+       |  $property: string
+       |""".stripMargin
+
+  private def write(file: Path, content: String): Unit = Files.write(file, content.getBytes(StandardCharsets.UTF_8))
+
+  private def generatedFiles(outputDirectory: Path): List[Path] =
+    Files.walk(outputDirectory).iterator().asScala.filter(Files.isRegularFile(_)).toList
+
+  private def contains(file: Path, text: String): Boolean = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains(text)
+
+  private def eventually(condition: => Boolean): Boolean = {
+    val deadline = System.currentTimeMillis() + 20000L
+    while (!condition && System.currentTimeMillis() < deadline) Thread.sleep(100L)
+    condition
+  }
+
+}
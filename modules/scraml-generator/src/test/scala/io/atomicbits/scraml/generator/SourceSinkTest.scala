@@ -0,0 +1,88 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator
+
+import java.nio.file.{ Files, Path }
+
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+class SourceSinkTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("Stream the generated source files into a source sink") {
+
+    Scenario("streaming the generated source files into a sink gives the same sources as generating them all at once") {
+
+      Given("a RAML specification")
+      val apiLocation = "io/atomicbits/scraml/TestApi.raml"
+
+      When("we generate the code all at once and into a collecting sink")
+      val generated: Map[String, String] =
+        ScramlGenerator
+          .generateScramlCode(ScramlGenerator.JAVA_JACKSON, apiLocation, "io.atomicbits.scraml", "TestApi", "", "", "", null, null)
+          .asScala
+          .toMap
+
+      val streamed = mutable.Map.empty[String, String]
+      ScramlGenerator.generateScramlCode(
+        ScramlGenerator.JAVA_JACKSON,
+        apiLocation,
+        "io.atomicbits.scraml",
+        "TestApi",
+        "",
+        "",
+        "",
+        null,
+        null,
+        new SourceSink {
+          override def write(filePath: String, content: String): Unit = streamed += filePath -> content
+        }
+      )
+
+      Then("both contain the same source files")
+      streamed.toMap shouldBe generated
+    }
+
+    Scenario("a directory sink only writes source files that changed") {
+
+      Given("a directory with previously generated source files")
+      val outputDirectory: Path = Files.createTempDirectory("scraml-sink")
+      val sink                  = new DirectorySourceSink(outputDirectory)
+      sink.writeIfChanged("io/atomicbits/Foo.java", "class Foo {}") shouldBe true
+
+      When("we write the same source files again")
+      val rewritten = sink.writeIfChanged("io/atomicbits/Foo.java", "class Foo {}")
+      val changed   = sink.writeIfChanged("io/atomicbits/Foo.java", "class Foo { int bar; }")
+
+      Then("only the changed source file is written")
+      rewritten shouldBe false
+      changed shouldBe true
+      new String(Files.readAllBytes(outputDirectory.resolve("io/atomicbits/Foo.java")), "UTF-8") shouldBe "class Foo { int bar; }"
+    }
+
+  }
+
+}
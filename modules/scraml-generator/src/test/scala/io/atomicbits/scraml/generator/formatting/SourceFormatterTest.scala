@@ -0,0 +1,66 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.generator.formatting
+
+import java.nio.file.{ Files, Path, Paths }
+
+import io.atomicbits.scraml.generator.platform.javajackson.JavaJackson
+import io.atomicbits.scraml.ramlparser.parser.SourceFile
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+import scala.collection.JavaConverters._
+
+class SourceFormatterTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("Format generated source files in parallel with a persistent cache") {
+
+    Scenario("formatted source files are taken from the cache in a later build") {
+
+      Given("a set of unformatted Java source files and a cache directory")
+      val cacheDirectory: Path = Files.createTempDirectory("scraml-format-cache")
+      val sourceFiles =
+        (1 to 8).map { index =>
+          SourceFile(Paths.get(s"io/atomicbits/Foo$index.java"), s"package io.atomicbits; public class Foo$index { int bar; }")
+        }
+
+      When("we format the source files twice, with a separate formatter each time")
+      def format(): Seq[SourceFile] = {
+        val formatter = new SourceFormatter(JavaJackson(List("io", "atomicbits")), Some(cacheDirectory), parallelism = 4)
+        try formatter.format(sourceFiles)
+        finally formatter.close()
+      }
+      val firstFormatted  = format()
+      val cacheFiles      = Files.walk(cacheDirectory).iterator().asScala.filter(Files.isRegularFile(_)).toList
+      val secondFormatted = format()
+
+      Then("the source files are formatted in their original order and cached once")
+      firstFormatted.map(_.filePath) shouldBe sourceFiles.map(_.filePath)
+      firstFormatted.head.content should include("public class Foo1 {\n  int bar;\n}")
+      cacheFiles.size shouldBe sourceFiles.size
+      secondFormatted shouldBe firstFormatted
+    }
+
+  }
+
+}
@@ -0,0 +1,164 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.profiling
+
+import java.lang.management.ManagementFactory
+
+import play.api.libs.json._
+
+import scala.util.DynamicVariable
+
+/**
+  * The accumulated cost of one phase of a profiled run.
+  *
+  * @param phase          The name of the phase.
+  * @param invocations    The number of times the phase ran.
+  * @param wallNanos      The wall clock time the phase took.
+  * @param cpuNanos       The CPU time the process spent during the phase, or -1 if the JVM can't tell.
+  * @param allocatedBytes The bytes allocated by all live threads during the phase, or -1 if the JVM can't tell.
+  * @param items          The number of items the phase produced, e.g. parsed files or generated source files.
+  */
+case class PhaseProfile(phase: String, invocations: Int, wallNanos: Long, cpuNanos: Long, allocatedBytes: Long, items: Long) {
+
+  def add(other: PhaseProfile): PhaseProfile =
+    PhaseProfile(
+      phase,
+      invocations + other.invocations,
+      wallNanos + other.wallNanos,
+      PhaseProfile.addKnown(cpuNanos, other.cpuNanos),
+      PhaseProfile.addKnown(allocatedBytes, other.allocatedBytes),
+      items + other.items
+    )
+
+}
+
+object PhaseProfile {
+
+  implicit val format: Format[PhaseProfile] = Json.format[PhaseProfile]
+
+  private def addKnown(first: Long, second: Long): Long = if (first < 0 || second < 0) -1L else first + second
+
+}
+
+/**
+  * The phases of a profiled run, in the order in which they first started.
+  */
+class GenerationProfile {
+
+  private var profiles: Vector[PhaseProfile] = Vector.empty
+
+  def phases: Seq[PhaseProfile] = synchronized(profiles)
+
+  private[profiling] def record(profile: PhaseProfile): Unit = synchronized {
+    profiles.indexWhere(_.phase == profile.phase) match {
+      case -1    => profiles :+= profile
+      case index => profiles = profiles.updated(index, profiles(index).add(profile))
+    }
+  }
+
+  def toJson: JsValue = Json.obj("phases" -> phases)
+
+  def summaryTable: String = {
+    def millis(nanos: Long): String    = if (nanos < 0) "n/a" else f"${nanos / 1000000.0}%.1f"
+    def megabytes(bytes: Long): String = if (bytes < 0) "n/a" else f"${bytes / (1024.0 * 1024.0)}%.1f"
+
+    val header = f"${"phase"}%-20s ${"calls"}%8s ${"items"}%8s ${"wall ms"}%12s ${"cpu ms"}%12s ${"alloc MB"}%12s"
+    val rows =
+      phases.map { phase =>
+        f"${phase.phase}%-20s ${phase.invocations}%8d ${phase.items}%8d ${millis(phase.wallNanos)}%12s ${millis(phase.cpuNanos)}%12s " +
+          f"${megabytes(phase.allocatedBytes)}%12s"
+      }
+    (header +: rows).mkString("\n")
+  }
+
+}
+
+/**
+  * Records the wall time, CPU time, allocation and item count of the phases of parsing and code generation.
+  *
+  * Phases are only recorded for code that runs within GenerationProfiler.profiled, on the calling thread or on threads that it
+  * starts, so profiling costs next to nothing when it is not active. CPU time and allocation are measured for the whole process,
+  * because several phases hand off their work to worker threads. They include the work of concurrent runs in the same JVM and
+  * allocation by worker threads that finish before the phase ends is not counted. Nested phases are recorded separately and are
+  * also part of the cost of their enclosing phase.
+  */
+object GenerationProfiler {
+
+  private val activeProfile = new DynamicVariable[Option[(GenerationProfile, Option[JfrPhaseEvents])]](None)
+
+  private lazy val threadMXBean: Option[com.sun.management.ThreadMXBean] =
+    ManagementFactory.getThreadMXBean match {
+      case bean: com.sun.management.ThreadMXBean if bean.isThreadAllocatedMemorySupported =>
+        bean.setThreadAllocatedMemoryEnabled(true)
+        Some(bean)
+      case _ => None
+    }
+
+  private lazy val operatingSystemMXBean: Option[com.sun.management.OperatingSystemMXBean] =
+    ManagementFactory.getOperatingSystemMXBean match {
+      case bean: com.sun.management.OperatingSystemMXBean => Some(bean)
+      case _                                              => None
+    }
+
+  /**
+    * Profile the phases of the given computation.
+    *
+    * @param jfrEvents Emit a Java Flight Recorder event for each phase as well, if the JVM supports it.
+    */
+  def profiled[T](jfrEvents: Boolean = false)(fn: => T): (T, GenerationProfile) = {
+    val profile = new GenerationProfile
+    val jfr     = if (jfrEvents) JfrPhaseEvents.create() else None
+    val result  = activeProfile.withValue(Some((profile, jfr)))(fn)
+    (result, profile)
+  }
+
+  def phase[T](name: String)(fn: => T): T = phase[T](name, (_: T) => 0)(fn)
+
+  /**
+    * Record the given phase when profiling is active.
+    *
+    * @param items Counts the items in the result of the phase.
+    */
+  def phase[T](name: String, items: T => Int)(fn: => T): T =
+    activeProfile.value match {
+      case None => fn
+      case Some((profile, jfr)) =>
+        val event           = jfr.map(_.begin(name))
+        val cpuBefore       = processCpuNanos
+        val allocatedBefore = allocatedBytes
+        val start           = System.nanoTime()
+        val result          = fn
+        val wallNanos       = System.nanoTime() - start
+        val cpuNanos        = if (cpuBefore < 0) -1L else processCpuNanos - cpuBefore
+        val allocated       = if (allocatedBefore < 0) -1L else allocatedBytes - allocatedBefore
+        val itemCount       = items(result)
+        event.foreach(_.commit(itemCount))
+        profile.record(PhaseProfile(name, 1, wallNanos, cpuNanos, allocated, itemCount))
+        result
+    }
+
+  private def processCpuNanos: Long = operatingSystemMXBean.map(_.getProcessCpuTime).getOrElse(-1L)
+
+  private def allocatedBytes: Long =
+    threadMXBean.map(bean => bean.getThreadAllocatedBytes(bean.getAllThreadIds).filter(_ > 0).sum).getOrElse(-1L)
+
+}
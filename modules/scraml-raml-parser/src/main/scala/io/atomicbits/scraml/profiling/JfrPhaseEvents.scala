@@ -0,0 +1,99 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.profiling
+
+import java.util.{ Arrays => JArrays, List => JList }
+
+import scala.util.Try
+
+/**
+  * Emits Java Flight Recorder events for profiled phases. The events are defined at runtime through jdk.jfr.EventFactory, which
+  * is only available as of Java 11, so it is accessed reflectively to keep running on older JVMs.
+  */
+private[profiling] class JfrPhaseEvents(newEvent: () => AnyRef) {
+
+  private val eventClass   = Class.forName("jdk.jfr.Event")
+  private val beginMethod  = eventClass.getMethod("begin")
+  private val endMethod    = eventClass.getMethod("end")
+  private val commitMethod = eventClass.getMethod("commit")
+  private val setMethod    = eventClass.getMethod("set", classOf[Int], classOf[AnyRef])
+
+  def begin(phase: String): PhaseEvent = {
+    val event = newEvent()
+    setMethod.invoke(event, Int.box(0), phase)
+    beginMethod.invoke(event)
+    new PhaseEvent(event)
+  }
+
+  class PhaseEvent(event: AnyRef) {
+
+    def commit(items: Int): Unit = {
+      endMethod.invoke(event)
+      setMethod.invoke(event, Int.box(1), Long.box(items.toLong))
+      commitMethod.invoke(event)
+    }
+
+  }
+
+}
+
+private[profiling] object JfrPhaseEvents {
+
+  val eventName = "io.atomicbits.scraml.Phase"
+
+  /**
+    * Define the phase event type, or None when the JVM has no Flight Recorder event API.
+    */
+  def create(): Option[JfrPhaseEvents] = {
+    val events =
+      Try {
+        val annotationElementClass = Class.forName("jdk.jfr.AnnotationElement")
+        val valueDescriptorClass   = Class.forName("jdk.jfr.ValueDescriptor")
+        val eventFactoryClass      = Class.forName("jdk.jfr.EventFactory")
+
+        val annotationElementConstructor = annotationElementClass.getConstructor(classOf[Class[_]], classOf[AnyRef])
+        def annotation(annotationClassName: String, value: AnyRef): AnyRef =
+          annotationElementConstructor.newInstance(Class.forName(annotationClassName), value).asInstanceOf[AnyRef]
+
+        val valueDescriptorConstructor = valueDescriptorClass.getConstructor(classOf[Class[_]], classOf[String])
+
+        def field(fieldType: Class[_], name: String): AnyRef = valueDescriptorConstructor.newInstance(fieldType, name).asInstanceOf[AnyRef]
+
+        val annotations: JList[AnyRef] =
+          JArrays.asList(
+            annotation("jdk.jfr.Name", eventName),
+            annotation("jdk.jfr.Label", "Scraml Phase"),
+            annotation("jdk.jfr.Category", Array("Scraml"))
+          )
+        val fields: JList[AnyRef] = JArrays.asList(field(classOf[String], "phase"), field(classOf[Long], "items"))
+
+        val factory  = eventFactoryClass.getMethod("create", classOf[JList[_]], classOf[JList[_]]).invoke(null, annotations, fields)
+        val newEvent = eventFactoryClass.getMethod("newEvent")
+        new JfrPhaseEvents(() => newEvent.invoke(factory))
+      }
+    events.failed.foreach { e =>
+      println(s"Flight Recorder events are not available on this JVM: ${e.getMessage}")
+    }
+    events.toOption
+  }
+
+}
@@ -25,6 +25,7 @@ import io.atomicbits.scraml.ramlparser.model.canonicaltypes.{ CanonicalName, Can
 /**
   * Created by peter on 17/12/16.
   */
+@SerialVersionUID(1L)
 case class CanonicalLookup(map: Map[CanonicalName, NonPrimitiveType] = Map.empty) {
 
   def apply(canonicalName: CanonicalName): NonPrimitiveType = map(canonicalName)
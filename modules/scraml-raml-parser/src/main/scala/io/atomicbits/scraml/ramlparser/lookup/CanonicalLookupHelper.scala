@@ -43,6 +43,7 @@ import org.slf4j.{ Logger, LoggerFactory }
   *                                        have their own json-schema id internally. This map enables us to translate the canonical
   *                                        name that matches the native id to the canonical name that matches the json-schema id.
   */
+@SerialVersionUID(1L)
 case class CanonicalLookupHelper(lookupTable: Map[CanonicalName, NonPrimitiveType]          = Map.empty,
                                  parsedTypeIndex: Map[UniqueId, ParsedType]                 = Map.empty,
                                  referenceOnlyParsedTypeIndex: Map[UniqueId, ParsedType]    = Map.empty,
@@ -26,6 +26,7 @@ import io.atomicbits.scraml.ramlparser.model.canonicaltypes.CanonicalName
 /**
   * Created by peter on 17/12/16.
   */
+@SerialVersionUID(1L)
 case class CanonicalNameGenerator(defaultBasePath: List[String]) {
 
   def generate(id: Id): CanonicalName = id match {
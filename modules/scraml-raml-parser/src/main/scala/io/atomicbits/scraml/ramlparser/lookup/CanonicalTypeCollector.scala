@@ -21,8 +21,10 @@
 package io.atomicbits.scraml.ramlparser.lookup
 
 import io.atomicbits.scraml.ramlparser.model._
-import io.atomicbits.scraml.ramlparser.model.canonicaltypes.{ CanonicalName, TypeReference }
+import io.atomicbits.scraml.ramlparser.model.canonicaltypes.{ CanonicalName, NonPrimitiveType, TypeReference }
 import io.atomicbits.scraml.ramlparser.model.parsedtypes._
+import io.atomicbits.scraml.ramlparser.parser.RamlParser
+import io.atomicbits.scraml.util.Parallel
 import org.slf4j.{ Logger, LoggerFactory }
 
 /**
@@ -30,7 +32,8 @@ import org.slf4j.{ Logger, LoggerFactory }
   *
   *
   */
-case class CanonicalTypeCollector(canonicalNameGenerator: CanonicalNameGenerator) {
+@SerialVersionUID(1L)
+case class CanonicalTypeCollector(canonicalNameGenerator: CanonicalNameGenerator, parallelism: Int = RamlParser.defaultParallelism) {
 
   implicit val cNGenerator: CanonicalNameGenerator = canonicalNameGenerator
 
@@ -63,22 +66,33 @@ case class CanonicalTypeCollector(canonicalNameGenerator: CanonicalNameGenerator
     (ramlUpdated, canonicalLookupWithCanonicals)
   }
 
+  /**
+    * The transformation of a parsed type only reads the parsed type indices of the canonical lookup helper, it never reads the
+    * lookup table it adds the canonical types to. This means that the parsed types don't depend on each other during this phase,
+    * so we transform them in parallel, each against a lookup helper with an empty lookup table. Afterwards, we add the canonical
+    * types that each transformation registered in the order of the parsed type index, which results in the same lookup table as
+    * transforming the parsed types one after the other.
+    */
   private def transformParsedTypeIndexToCanonicalTypes(canonicalLookupHelper: CanonicalLookupHelper): CanonicalLookupHelper = {
 
-    canonicalLookupHelper.parsedTypeIndex.foldLeft(canonicalLookupHelper) { (canonicalLH, idWithParsedType) =>
-      val (id, parsedType) = idWithParsedType
-      parsedType.id match {
-        case ImplicitId =>
-          val generatedCanonicalName = canonicalNameGenerator.generate(id)
+    val withoutCanonicals = canonicalLookupHelper.copy(lookupTable = Map.empty)
+
+    val registeredCanonicals: Vector[Map[CanonicalName, NonPrimitiveType]] =
+      Parallel.map(canonicalLookupHelper.parsedTypeIndex.toVector, parallelism) {
+        case (id, parsedType) =>
+          val nameSuggestion =
+            parsedType.id match {
+              case ImplicitId => Some(canonicalNameGenerator.generate(id))
+              case otherId    => None
+            }
           val (canonicalType, updatedCanonicalLH) =
-            ParsedToCanonicalTypeTransformer.transform(parsedType, canonicalLH, Some(generatedCanonicalName))
-          updatedCanonicalLH
-        case otherId =>
-          val (canonicalType, updatedCanonicalLH) = ParsedToCanonicalTypeTransformer.transform(parsedType, canonicalLH, None)
-          updatedCanonicalLH
+            ParsedToCanonicalTypeTransformer.transform(parsedType, withoutCanonicals, nameSuggestion)
+          updatedCanonicalLH.lookupTable
       }
-    }
 
+    registeredCanonicals.foldLeft(canonicalLookupHelper) { (canonicalLH, canonicals) =>
+      canonicalLH.copy(lookupTable = canonicalLH.lookupTable ++ canonicals)
+    }
   }
 
   private def transformResourceParsedTypesToCanonicalTypes(raml: Raml, canonicalLookupHelper: CanonicalLookupHelper): Raml = {
@@ -115,7 +129,7 @@ case class CanonicalTypeCollector(canonicalNameGenerator: CanonicalNameGenerator
     }
 
     def transformBody(body: Body): Body = {
-      val updatedContentMap = body.contentMap.mapValues(transformBodyContent).toMap
+      val updatedContentMap = body.contentMap.map { case (mediaType, bodyContent) => mediaType -> transformBodyContent(bodyContent) }
       body.copy(contentMap = updatedContentMap)
     }
 
@@ -129,10 +143,11 @@ case class CanonicalTypeCollector(canonicalNameGenerator: CanonicalNameGenerator
 
       val updatedBody = transformBody(action.body)
 
-      val updatedResponseMap = action.responses.responseMap.mapValues { response =>
-        val updatedResponseBody = transformBody(response.body)
-        response.copy(body = updatedResponseBody)
-      }.toMap
+      val updatedResponseMap = action.responses.responseMap.map {
+        case (status, response) =>
+          val updatedResponseBody = transformBody(response.body)
+          status -> response.copy(body = updatedResponseBody)
+      }
       val updatedResponses = action.responses.copy(responseMap = updatedResponseMap)
 
       action.copy(headers         = updatedHeaders,
@@ -149,7 +164,8 @@ case class CanonicalTypeCollector(canonicalNameGenerator: CanonicalNameGenerator
       resource.copy(urlParameter = transformedUrlParameter, actions = transformedActions, resources = transformedSubResources)
     }
 
-    val updatedResources = raml.resources.map(transformResource)
+    // The canonical lookup helper isn't updated here, so the resources can be transformed independently.
+    val updatedResources = Parallel.map(raml.resources.toVector, parallelism)(transformResource).toList
     raml.copy(resources = updatedResources)
   }
 
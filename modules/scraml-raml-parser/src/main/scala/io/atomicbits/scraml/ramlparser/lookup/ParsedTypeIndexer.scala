@@ -20,6 +20,9 @@
 
 package io.atomicbits.scraml.ramlparser.lookup
 
+import java.util
+import java.util.Collections
+
 import io.atomicbits.scraml.ramlparser.model.parsedtypes._
 import io.atomicbits.scraml.ramlparser.model._
 import io.atomicbits.scraml.ramlparser.parser.RamlParseException
@@ -27,8 +30,17 @@ import io.atomicbits.scraml.ramlparser.parser.RamlParseException
 /**
   * Created by peter on 14/02/17.
   */
+@SerialVersionUID(1L)
 case class ParsedTypeIndexer(canonicalNameGenerator: CanonicalNameGenerator) {
 
+  /**
+    * The json-schema types with their ids expanded, by the parsed type they were expanded from (compared by reference). The types
+    * in the RAML model are expanded once while they are indexed and looked up here when they're transformed to canonical types.
+    */
+  private val expandedParsedTypes = Collections.synchronizedMap(new util.IdentityHashMap[ParsedType, ParsedType]())
+
+  private lazy val anonymousRootId: RootId = canonicalNameGenerator.toRootId(NativeId("anonymous"))
+
   def indexParsedTypes(raml: Raml, canonicalLookupHelper: CanonicalLookupHelper): CanonicalLookupHelper = {
     // First, index all the parsed types on their Id so that we can perform forward lookups when creating the canonical types.
     val canonicalLookupHelperWithJsonSchemas  = raml.types.typeReferences.foldLeft(canonicalLookupHelper)(indexParsedTypesInt)
@@ -201,10 +213,24 @@ case class ParsedTypeIndexer(canonicalNameGenerator: CanonicalNameGenerator) {
   /**
     * Expand all relative ids to absolute ids and also expand all $ref pointers.
     *
+    * The expansion of a given parsed type instance is done only once, later calls get the earlier expanded result.
+    *
     * @param ttype
     * @return
     */
-  def expandRelativeToAbsoluteIds(ttype: ParsedType): ParsedType = { // ToDo: move this into a separate class
+  def expandRelativeToAbsoluteIds(ttype: ParsedType): ParsedType = {
+    if (ttype.model == RamlModel) {
+      ttype
+    } else {
+      Option(expandedParsedTypes.get(ttype)).getOrElse {
+        val expanded = expandIds(ttype)
+        expandedParsedTypes.put(ttype, expanded)
+        expanded
+      }
+    }
+  }
+
+  private def expandIds(ttype: ParsedType): ParsedType = { // ToDo: move this into a separate class
 
     /**
       * Expand the ids in a schema based on the nearest root id of the enclosing schemas.
@@ -271,7 +297,6 @@ case class ParsedTypeIndexer(canonicalNameGenerator: CanonicalNameGenerator) {
       ttype.id match {
         case rootId: RootId => expandWithRootAndPath(ttype, rootId, rootId)
         case relativeId: RelativeId =>
-          val anonymousRootId = canonicalNameGenerator.toRootId(NativeId("anonymous"))
           expandWithRootAndPath(ttype, anonymousRootId, anonymousRootId)
         case ImplicitId =>
           // We assume we hit an inline schema without an id, so we may just invent a random unique one since it will never be referenced.
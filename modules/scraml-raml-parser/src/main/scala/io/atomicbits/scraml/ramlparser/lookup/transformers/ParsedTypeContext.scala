@@ -37,6 +37,7 @@ import io.atomicbits.scraml.ramlparser.model.parsedtypes.ParsedType
   *                      for json-schema type definitions.
   * @param imposedTypeDiscriminator The optional type discriminator property name that was specified by a parent class
   */
+@SerialVersionUID(1L)
 case class ParsedTypeContext(parsedType: ParsedType,
                              canonicalLookupHelper: CanonicalLookupHelper,
                              canonicalNameOpt: Option[CanonicalName]  = None,
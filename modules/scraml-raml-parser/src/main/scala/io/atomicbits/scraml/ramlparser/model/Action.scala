@@ -29,6 +29,7 @@ import scala.util.{ Success, Try }
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Action(actionType: Method,
                   headers: Parameters,
                   queryParameters: Parameters,
@@ -29,6 +29,7 @@ import scala.util.{ Success, Try }
 /**
   * Created by peter on 26/08/16.
   */
+@SerialVersionUID(1L)
 case class Body(contentMap: Map[MediaType, BodyContent] = Map.empty) {
 
   def forHeader(mimeType: MediaType): Option[BodyContent] = contentMap.get(mimeType)
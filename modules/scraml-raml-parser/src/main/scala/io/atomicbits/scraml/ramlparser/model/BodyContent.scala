@@ -30,6 +30,7 @@ import io.atomicbits.scraml.util.TryUtils._
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class BodyContent(mediaType: MediaType, bodyType: Option[TypeRepresentation] = None, formParameters: Parameters = new Parameters())
 
 object BodyContentAsMediaTypeMap {
@@ -33,6 +33,7 @@ sealed trait DateFormat {
 
 }
 
+@SerialVersionUID(1L)
 case object RFC3339FullDate extends DateFormat {
 
   val pattern = "yyyy-MM-dd"
@@ -41,6 +42,7 @@ case object RFC3339FullDate extends DateFormat {
 
 }
 
+@SerialVersionUID(1L)
 case object RFC3339PartialTime extends DateFormat {
 
   val pattern = "HH:mm:ss[.SSS]"
@@ -49,6 +51,7 @@ case object RFC3339PartialTime extends DateFormat {
 
 }
 
+@SerialVersionUID(1L)
 case object DateOnlyTimeOnly extends DateFormat {
 
   val pattern = "yyyy-MM-dd'T'HH:mm:ss[.SSS]"
@@ -62,6 +65,7 @@ case object DateOnlyTimeOnly extends DateFormat {
 
 }
 
+@SerialVersionUID(1L)
 case object RFC3339DateTime extends DateFormat {
 
   val pattern = "yyyy-MM-dd'T'HH:mm:ss[.SSS]XXX"
@@ -73,6 +77,7 @@ case object RFC3339DateTime extends DateFormat {
 
 }
 
+@SerialVersionUID(1L)
 case object RFC2616 extends DateFormat {
 
   val pattern = "EEE, dd MMM yyyy HH:mm:ss 'GMT'"
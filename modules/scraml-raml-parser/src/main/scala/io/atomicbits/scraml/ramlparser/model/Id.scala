@@ -21,6 +21,7 @@
 package io.atomicbits.scraml.ramlparser.model
 
 import io.atomicbits.scraml.ramlparser.model.canonicaltypes.CanonicalName
+import io.atomicbits.scraml.util.Interner
 
 /**
   * Created by peter on 25/03/16.
@@ -56,8 +57,14 @@ trait AbsoluteId extends UniqueId {
   *
   *
   */
+@SerialVersionUID(1L)
 case class RootId(hostPath: List[String], path: List[String], name: String) extends AbsoluteId {
 
+  /**
+    * Ids that are deserialized, e.g. from a parse snapshot, are interned just like the ids we create.
+    */
+  private def readResolve(): AnyRef = RootId.intern(this)
+
   val anchor: String = s"http://${hostPath.mkString(".")}/${path.mkString("/")}"
 
   def toAbsoluteId(id: Id, path: List[String] = List.empty): AbsoluteId = {
@@ -89,6 +96,13 @@ case class RootId(hostPath: List[String], path: List[String], name: String) exte
 
 object RootId {
 
+  private val rootIds = new Interner[RootId]()
+
+  def apply(hostPath: List[String], path: List[String], name: String): RootId = intern(new RootId(hostPath, path, name))
+
+  private def intern(rootId: RootId): RootId =
+    rootIds.intern(rootId, id => new RootId(Interner.intern(id.hostPath), Interner.intern(id.path), Interner.intern(id.name)))
+
   /**
     * @param id The string representation of the id
     */
@@ -144,6 +158,7 @@ object RootId {
   *
   * @param id The string representation of the id
   */
+@SerialVersionUID(1L)
 case class RelativeId(id: String) extends Id {
 
   val name: String = RootId.fileNameToName(id.split('/').filter(_.nonEmpty).takeRight(1).head)
@@ -159,7 +174,22 @@ case class RelativeId(id: String) extends Id {
   * We cannot use the RootId concept here, because a NativeID has a free format whereas the RootId is a json-schema concept that
   * has to meet strict formatting rules.
   */
-case class NativeId(id: String) extends UniqueId
+@SerialVersionUID(1L)
+case class NativeId(id: String) extends UniqueId {
+
+  private def readResolve(): AnyRef = NativeId.intern(this)
+
+}
+
+object NativeId {
+
+  private val nativeIds = new Interner[NativeId]()
+
+  def apply(id: String): NativeId = intern(new NativeId(id))
+
+  private def intern(nativeId: NativeId): NativeId = nativeIds.intern(nativeId, id => new NativeId(Interner.intern(id.id)))
+
+}
 
 /**
   * A fragment id identifies its schema uniquely by the schema path (JSON path in the original JSON representation)
@@ -169,6 +199,7 @@ case class NativeId(id: String) extends UniqueId
   *
   * @param fragments The path that composes the fragment id.
   */
+@SerialVersionUID(1L)
 case class FragmentId(fragments: List[String]) extends Id {
 
   def id: String = s"#/${fragments.mkString("/")}"
@@ -182,8 +213,11 @@ case class FragmentId(fragments: List[String]) extends Id {
   * @param root      The root of this absolute fragment id.
   * @param fragments The path that composes the fragment id.
   */
+@SerialVersionUID(1L)
 case class AbsoluteFragmentId(root: RootId, override val fragments: List[String]) extends AbsoluteId {
 
+  private def readResolve(): AnyRef = AbsoluteFragmentId.intern(this)
+
   def id: String = s"${root.id}#/${fragments.mkString("/")}"
 
   val rootPart: RootId = root
@@ -194,6 +228,17 @@ case class AbsoluteFragmentId(root: RootId, override val fragments: List[String]
 
 }
 
+object AbsoluteFragmentId {
+
+  private val absoluteFragmentIds = new Interner[AbsoluteFragmentId]()
+
+  def apply(root: RootId, fragments: List[String]): AbsoluteFragmentId = intern(new AbsoluteFragmentId(root, fragments))
+
+  private def intern(fragmentId: AbsoluteFragmentId): AbsoluteFragmentId =
+    absoluteFragmentIds.intern(fragmentId, id => new AbsoluteFragmentId(id.root, Interner.intern(id.fragments)))
+
+}
+
 /**
   * An implicit id marks the absense of an id. It implies that the schema should be uniquely identified by the schema
   * path (JSON path in the original JSON representation) from its nearest root schema towards itself. In other words,
@@ -201,11 +246,13 @@ case class AbsoluteFragmentId(root: RootId, override val fragments: List[String]
   *
   * It is not a UniqueId since may items can have ImplicitId's.
   */
+@SerialVersionUID(1L)
 case object ImplicitId extends Id
 
 /**
   * Placeholder object for an ID that points to nowhere.
   */
+@SerialVersionUID(1L)
 case object NoId extends AbsoluteId {
 
   override def id: String = "http://no.where"
@@ -28,8 +28,10 @@ trait MediaType {
   def value: String
 
 }
+@SerialVersionUID(1L)
 case class ActualMediaType(value: String) extends MediaType
 
+@SerialVersionUID(1L)
 case object NoMediaType extends MediaType {
 
   val value: String = ""
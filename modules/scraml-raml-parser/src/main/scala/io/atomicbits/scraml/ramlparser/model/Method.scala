@@ -46,41 +46,49 @@ object Method {
 
 }
 
+@SerialVersionUID(1L)
 case object Get extends Method {
 
   val action = "get"
 }
 
+@SerialVersionUID(1L)
 case object Post extends Method {
 
   val action = "post"
 }
 
+@SerialVersionUID(1L)
 case object Put extends Method {
 
   val action = "put"
 }
 
+@SerialVersionUID(1L)
 case object Delete extends Method {
 
   val action = "delete"
 }
 
+@SerialVersionUID(1L)
 case object Head extends Method {
 
   val action = "head"
 }
 
+@SerialVersionUID(1L)
 case object Patch extends Method {
 
   val action = "patch"
 }
 
+@SerialVersionUID(1L)
 case object Options extends Method {
 
   val action = "options"
 }
 
+@SerialVersionUID(1L)
 case object Trace extends Method {
 
   val action = "trace"
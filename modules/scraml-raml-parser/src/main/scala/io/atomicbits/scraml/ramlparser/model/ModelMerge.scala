@@ -26,6 +26,8 @@ import io.atomicbits.scraml.ramlparser.parser.{ KeyedList, ParseContext, RamlPar
 import play.api.libs.json._
 import io.atomicbits.scraml.util.TryUtils._
 
+import scala.collection.concurrent.TrieMap
+import scala.collection.mutable
 import scala.language.postfixOps
 import scala.util.matching.Regex
 import scala.util.{ Failure, Try }
@@ -35,7 +37,9 @@ import scala.util.{ Failure, Try }
   */
 trait ModelMerge {
 
-  val replaceStringPattern: Regex = """<<([^<>]*)>>""".r
+  val replaceStringPattern: Regex = MergeTemplate.replaceStringPattern
+
+  @transient private lazy val compiledMerges = TrieMap.empty[String, CompiledMerge]
 
   def findMergeNames(jsObject: JsObject, selectionKey: String): MergeApplicationMap = {
     (jsObject \ selectionKey).toOption
@@ -62,7 +66,7 @@ trait ModelMerge {
                 case e => Failure(RamlParseException(s"Unknown trait or resourceType name $mergeName in ${parseContext.head}."))
               }
               .map { jsObj =>
-                applyMerge(jsObj, mergeApplication)
+                applyMerge(mergeName, jsObj, mergeApplication)
               }
         } toSeq
       )
@@ -128,10 +132,10 @@ trait ModelMerge {
       * Merges the source array into the target array by value.
       */
     def mergeArrays(jsArrSource: JsArray, jsArrTarget: JsArray): JsArray = {
-      jsArrSource.value.foldLeft(jsArrTarget) { (aggr, sourceValue) =>
-        if (!aggr.value.contains(sourceValue)) aggr.+:(sourceValue)
-        else aggr
-      }
+      val present = mutable.HashSet(jsArrTarget.value: _*)
+      val missing = jsArrSource.value.filter(present.add)
+      if (missing.isEmpty) jsArrTarget
+      else JsArray(missing.reverse ++ jsArrTarget.value)
     }
 
     source.value.toMap.foldLeft(target)(mergeFieldInto)
@@ -147,31 +151,119 @@ trait ModelMerge {
       .toSeq
   }
 
-  private def applyMerge(jsObject: JsObject, mergeApplication: MergeApplication)(implicit parseContext: ParseContext): JsObject = {
-
-    def mergeStringAsJsValue(text: String): JsValue = {
-      val replaceStrings: Seq[ReplaceString] = fetchReplaceStrings(text)
-      if (replaceStrings.size == 1 && !replaceStrings.head.partial) {
-        mergeApplication.get(replaceStrings.head.matchString) match {
-          case Some(jsValue) => jsValue
-          case None          => sys.error(s"Did not find trait or resourceType replacement for value ${replaceStrings.head.matchString}.")
+  private def applyMerge(mergeName: String, jsObject: JsObject, mergeApplication: MergeApplication)(
+      implicit parseContext: ParseContext): JsObject = {
+
+    val compiledMerge =
+      compiledMerges
+        .get(mergeName)
+        .filter(_.declaration eq jsObject)
+        .getOrElse {
+          val compiled = new CompiledMerge(jsObject)
+          compiledMerges.put(mergeName, compiled)
+          compiled
         }
-      } else {
-        val replaced = mergeStringAsStringHelper(text, replaceStrings)
-        JsString(replaced)
-      }
-    }
 
-    def mergeStringAsString(text: String): String = {
-      val replaceStrings: Seq[ReplaceString] = fetchReplaceStrings(text)
-      mergeStringAsStringHelper(text, replaceStrings)
+    compiledMerge.applyWith(parameter => mergeApplication.get(parameter))
+  }
+
+}
+
+/**
+  * A trait or resourceType declaration whose replace strings are located once, together with the substituted bodies
+  * that were already produced for it, keyed by the values of the parameters the declaration actually refers to.
+  */
+private[model] class CompiledMerge(val declaration: JsObject) {
+
+  private val template: ObjectTemplate = MergeTemplate.forObject(declaration)
+
+  private val applied = TrieMap.empty[Map[String, Option[JsValue]], JsObject]
+
+  def applyWith(lookup: String => Option[JsValue]): JsObject = {
+    val parameterValues = template.parameters.map(parameter => parameter -> lookup(parameter)).toMap
+    applied.getOrElseUpdate(parameterValues, template.renderObject(lookup))
+  }
+
+}
+
+/**
+  * A JSON value in which the <<parameter>> replace strings are parsed into their positions up front.
+  */
+private[model] sealed trait MergeTemplate {
+
+  def parameters: Set[String]
+
+  def render(lookup: String => Option[JsValue]): JsValue
+
+}
+
+private[model] object MergeTemplate {
+
+  val replaceStringPattern: Regex = """<<([^<>]*)>>""".r
+
+  def apply(jsValue: JsValue): MergeTemplate =
+    jsValue match {
+      case jsObject: JsObject =>
+        forObject(jsObject)
+      case JsString(text) =>
+        val stringTemplate = forString(text)
+        if (stringTemplate.parameters.isEmpty) LiteralTemplate(jsValue)
+        else stringTemplate
+      case JsArray(items) => ArrayTemplate(items.map(MergeTemplate(_)))
+      case other          => LiteralTemplate(other)
     }
 
-    def mergeStringAsStringHelper(text: String, replaceStrings: Seq[ReplaceString]): String = {
+  def forObject(jsObject: JsObject): ObjectTemplate =
+    ObjectTemplate(
+      jsObject,
+      jsObject.fields.map {
+        case (fieldName, jsValue) => (forString(fieldName), MergeTemplate(jsValue))
+      }
+    )
+
+  def forString(text: String): StringTemplate = {
+    val matches = replaceStringPattern.findAllMatchIn(text).toSeq
+    val (parts, end) =
+      matches.foldLeft((Vector.empty[Either[String, ReplaceString]], 0)) {
+        case ((aggr, position), m) =>
+          val replaceString = ReplaceString(m.matched, m.group(1), m.matched != text)
+          val withText      = if (m.start > position) aggr :+ Left(text.substring(position, m.start)) else aggr
+          (withText :+ Right(replaceString), m.end)
+      }
+    val allParts = if (end < text.length) parts :+ Left(text.substring(end)) else parts
+    StringTemplate(allParts)
+  }
+
+}
+
+private[model] case class LiteralTemplate(value: JsValue) extends MergeTemplate {
+
+  val parameters: Set[String] = Set.empty
+
+  def render(lookup: String => Option[JsValue]): JsValue = value
+
+}
 
-      replaceStrings.foldLeft(text) { (aggrText, replaceString) =>
+private[model] case class StringTemplate(parts: Seq[Either[String, ReplaceString]]) extends MergeTemplate {
+
+  val parameters: Set[String] = parts.collect { case Right(replaceString) => replaceString.matchString }.toSet
+
+  def render(lookup: String => Option[JsValue]): JsValue =
+    parts match {
+      case Seq(Right(replaceString)) if !replaceString.partial =>
+        lookup(replaceString.matchString) match {
+          case Some(jsValue) => jsValue
+          case None          => sys.error(s"Did not find trait or resourceType replacement for value ${replaceString.matchString}.")
+        }
+      case _ => JsString(renderString(lookup))
+    }
+
+  def renderString(lookup: String => Option[JsValue]): String =
+    parts.map {
+      case Left(text) => text
+      case Right(replaceString) =>
         val replacement: String =
-          mergeApplication.get(replaceString.matchString) match {
+          lookup(replaceString.matchString) match {
             case Some(JsString(stringVal))   => stringVal
             case Some(JsBoolean(booleanVal)) => booleanVal.toString
             case Some(JsNumber(number))      => number.toString
@@ -179,30 +271,38 @@ trait ModelMerge {
               sys.error(s"Cannot replace the following ${replaceString.matchString} value in a trait or resourceType: $jsValue")
             case None => sys.error(s"Did not find trait or resourceType replacement for value ${replaceString.matchString}.")
           }
-        val transformedReplacement = replaceString.transformReplacementString(replacement)
-        text.replaceAllLiterally(replaceString.toReplace, transformedReplacement)
-      }
+        replaceString.transformReplacementString(replacement)
+    }.mkString
 
-    }
+}
 
-    def mergeJsObject(jsObject: JsObject): JsObject = {
-      val mergedFields =
-        jsObject.fields.map {
-          case (fieldName, jsValue) => (mergeStringAsString(fieldName), mergeJsValue(jsValue))
-        }
-      JsObject(mergedFields)
-    }
+private[model] case class ArrayTemplate(items: Seq[MergeTemplate]) extends MergeTemplate {
 
-    def mergeJsValue(jsValue: JsValue): JsValue =
-      jsValue match {
-        case jsObject: JsObject  => mergeJsObject(jsObject)
-        case JsString(stringVal) => mergeStringAsJsValue(stringVal)
-        case JsArray(items)      => JsArray(items.map(mergeJsValue))
-        case other               => other
-      }
+  val parameters: Set[String] = items.flatMap(_.parameters).toSet
 
-    mergeJsObject(jsObject)
-  }
+  def render(lookup: String => Option[JsValue]): JsValue = JsArray(items.map(_.render(lookup)))
+
+}
+
+private[model] case class ObjectTemplate(original: JsObject, fields: Seq[(StringTemplate, MergeTemplate)]) extends MergeTemplate {
+
+  val parameters: Set[String] =
+    fields.flatMap {
+      case (fieldName, value) => fieldName.parameters ++ value.parameters
+    }.toSet
+
+  def render(lookup: String => Option[JsValue]): JsValue = renderObject(lookup)
+
+  def renderObject(lookup: String => Option[JsValue]): JsObject =
+    if (parameters.isEmpty) {
+      original
+    } else {
+      JsObject(
+        fields.map {
+          case (fieldName, value) => (fieldName.renderString(lookup), value.render(lookup))
+        }
+      )
+    }
 
 }
 
@@ -227,8 +327,10 @@ trait ModelMerge {
   * @param name
   * @param value
   */
+@SerialVersionUID(1L)
 case class MergeSubstitution(name: String, value: JsValue)
 
+@SerialVersionUID(1L)
 case class MergeApplication(name: String, substitutions: Seq[MergeSubstitution]) {
 
   private val mergeDef: Map[String, JsValue] = substitutions.map(sub => (sub.name, sub.value)).toMap
@@ -262,6 +364,7 @@ object MergeApplication {
 
 }
 
+@SerialVersionUID(1L)
 case class MergeApplicationMap(mergeApplications: Seq[MergeApplication] = Seq.empty) {
 
   val mergeMap: Map[String, MergeApplication] = mergeApplications.map(md => (md.name, md)).toMap
@@ -311,6 +414,7 @@ object ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object Singularize extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -320,6 +424,7 @@ case object Singularize extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object Pluralize extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -329,18 +434,21 @@ case object Pluralize extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object Uppercase extends ReplaceOp {
 
   def apply(text: String): String = text.toUpperCase(Locale.US)
 
 }
 
+@SerialVersionUID(1L)
 case object Lowercase extends ReplaceOp {
 
   def apply(text: String): String = text.toLowerCase(Locale.US)
 
 }
 
+@SerialVersionUID(1L)
 case object LowerCamelcase extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -355,6 +463,7 @@ case object LowerCamelcase extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object UpperCamelcase extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -369,6 +478,7 @@ case object UpperCamelcase extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object LowerUnderscorecase extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -381,6 +491,7 @@ case object LowerUnderscorecase extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object UpperUnderscorecase extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -393,6 +504,7 @@ case object UpperUnderscorecase extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object LowerHyphencase extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -405,6 +517,7 @@ case object LowerHyphencase extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object UpperHyphencase extends ReplaceOp {
 
   def apply(text: String): String = {
@@ -417,12 +530,14 @@ case object UpperHyphencase extends ReplaceOp {
 
 }
 
+@SerialVersionUID(1L)
 case object NoOp extends ReplaceOp {
 
   def apply(text: String): String = text
 
 }
 
+@SerialVersionUID(1L)
 case class ReplaceString(toReplace: String, matchString: String, operations: Seq[ReplaceOp], partial: Boolean) {
 
   def transformReplacementString(replacement: String): String =
@@ -432,6 +547,7 @@ case class ReplaceString(toReplace: String, matchString: String, operations: Seq
 
 }
 
+@SerialVersionUID(1L)
 case object ReplaceString {
 
   def apply(toReplaceInput: String, matchStringWithOps: String, partial: Boolean): ReplaceString = {
@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Parameter(name: String, parameterType: TypeRepresentation, required: Boolean = true) {
 
   def asRequired: Parameter = this.copy(required = true)
@@ -28,6 +28,7 @@ import play.api.libs.json.{ JsObject, JsValue }
 import scala.language.postfixOps
 import scala.util.{ Success, Try }
 
+@SerialVersionUID(1L)
 case class Parameters(valueMap: Map[String, Parameter] = Map.empty) {
 
   def nonEmpty: Boolean = valueMap.nonEmpty
@@ -38,7 +39,7 @@ case class Parameters(valueMap: Map[String, Parameter] = Map.empty) {
 
   val isEmpty = valueMap.isEmpty
 
-  def mapValues(fn: Parameter => Parameter): Parameters = copy(valueMap = valueMap.mapValues(fn).toMap)
+  def mapValues(fn: Parameter => Parameter): Parameters = copy(valueMap = valueMap.map { case (name, parameter) => name -> fn(parameter) })
 
 }
 
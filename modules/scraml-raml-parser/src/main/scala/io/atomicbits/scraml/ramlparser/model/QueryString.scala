@@ -23,4 +23,5 @@ package io.atomicbits.scraml.ramlparser.model
 /**
   * Created by peter on 14/05/17.
   */
+@SerialVersionUID(1L)
 case class QueryString(queryStringType: TypeRepresentation)
@@ -20,6 +20,7 @@
 
 package io.atomicbits.scraml.ramlparser.model
 
+import io.atomicbits.scraml.profiling.GenerationProfiler
 import io.atomicbits.scraml.ramlparser.lookup._
 import io.atomicbits.scraml.ramlparser.model.parsedtypes.Types
 import io.atomicbits.scraml.ramlparser.parser.{ ParseContext, RamlParseException }
@@ -32,6 +33,7 @@ import io.atomicbits.scraml.util.TryUtils._
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Raml(title: String,
                 mediaType: Option[MediaType],
                 description: Option[String],
@@ -46,7 +48,9 @@ case class Raml(title: String,
   def collectCanonicals(defaultBasePath: List[String]): (Raml, CanonicalLookup) = {
     implicit val canonicalNameGenerator = CanonicalNameGenerator(defaultBasePath)
     val canonicalTypeCollector          = CanonicalTypeCollector(canonicalNameGenerator)
-    canonicalTypeCollector.collect(this)
+    GenerationProfiler.phase("canonicalize", (collected: (Raml, CanonicalLookup)) => collected._2.map.size) {
+      canonicalTypeCollector.collect(this)
+    }
   }
 
   lazy val resourceMap: Map[String, Resource] = resources.map(resource => resource.urlSegment -> resource).toMap
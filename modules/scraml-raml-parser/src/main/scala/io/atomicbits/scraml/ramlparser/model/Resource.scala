@@ -33,6 +33,7 @@ import scala.language.postfixOps
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Resource(urlSegment: String,
                     urlParameter: Option[Parameter] = None,
                     displayName: Option[String]     = None,
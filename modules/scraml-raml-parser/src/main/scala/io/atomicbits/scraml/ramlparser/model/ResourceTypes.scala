@@ -28,6 +28,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 25/05/17.
   */
+@SerialVersionUID(1L)
 case class ResourceTypes(resourceTypesMap: Map[String, JsObject]) extends ModelMerge {
 
   def applyToResource[T](jsObject: JsObject)(f: JsObject => Try[T])(implicit parseContext: ParseContext): Try[T] = {
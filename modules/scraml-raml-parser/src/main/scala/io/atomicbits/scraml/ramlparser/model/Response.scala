@@ -28,6 +28,7 @@ import scala.util.Try
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Response(status: StatusCode, headers: Parameters, body: Body, description: Option[String] = None) // ToDo add description from parsed model
 
 object Response {
@@ -29,6 +29,7 @@ import io.atomicbits.scraml.util.TryUtils._
 /**
   * Created by peter on 26/08/16.
   */
+@SerialVersionUID(1L)
 case class Responses(responseMap: Map[StatusCode, Response] = Map.empty) {
 
   val isEmpty = responseMap.isEmpty
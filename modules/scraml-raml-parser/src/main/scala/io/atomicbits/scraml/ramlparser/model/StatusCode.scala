@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model
 /**
   * Created by peter on 26/08/16.
   */
+@SerialVersionUID(1L)
 case class StatusCode(code: String)
 
 object StatusCode {
@@ -28,6 +28,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Traits(traitsMap: Map[String, JsObject]) extends ModelMerge {
 
   /**
@@ -31,12 +31,14 @@ sealed trait TypeModel {
 
 }
 
+@SerialVersionUID(1L)
 case object RamlModel extends TypeModel {
 
   def mark(json: JsValue): JsValue = json
 
 }
 
+@SerialVersionUID(1L)
 case object JsonSchemaModel extends TypeModel {
 
   val markerField = "$schema"
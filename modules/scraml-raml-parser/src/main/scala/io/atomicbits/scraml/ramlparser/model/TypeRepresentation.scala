@@ -26,4 +26,5 @@ import io.atomicbits.scraml.ramlparser.model.parsedtypes.ParsedType
 /**
   * Created by peter on 12/12/16.
   */
+@SerialVersionUID(1L)
 case class TypeRepresentation(parsed: ParsedType, canonical: Option[TypeReference] = None)
@@ -20,6 +20,8 @@
 
 package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 
+import io.atomicbits.scraml.util.Interner
+
 /**
   * Created by peter on 9/12/16.
   */
@@ -31,24 +33,47 @@ trait CanonicalName {
 
 }
 
+@SerialVersionUID(1L)
 case class RealCanonicalName private[canonicaltypes] (name: String, packagePath: List[String] = List.empty) extends CanonicalName {
 
   val value: String = s"${packagePath.mkString(".")}.$name"
 
+  /**
+    * Canonical names that are deserialized, e.g. from a parse snapshot, are interned just like the names we create.
+    */
+  private def readResolve(): AnyRef = CanonicalName.intern(this)
+
 }
 
+@SerialVersionUID(1L)
 case class NoName private[canonicaltypes] (packagePath: List[String] = List.empty) extends CanonicalName {
 
   override def name: String = "NoName"
 
+  private def readResolve(): AnyRef = CanonicalName.intern(this)
+
 }
 
 object CanonicalName {
 
+  /**
+    * Canonical names are created over and over again for the same types, so we share one instance per canonical name.
+    */
+  private val canonicalNames = new Interner[CanonicalName]()
+
   def create(name: String, packagePath: List[String] = List.empty): CanonicalName =
-    new RealCanonicalName(cleanClassName(name), cleanPackage(packagePath))
+    intern(new RealCanonicalName(cleanClassName(name), cleanPackage(packagePath)))
+
+  def noName(packagePath: List[String]): CanonicalName = intern(NoName(cleanPackage(packagePath)))
 
-  def noName(packagePath: List[String]): CanonicalName = NoName(cleanPackage(packagePath))
+  private[canonicaltypes] def intern(canonicalName: CanonicalName): CanonicalName =
+    canonicalNames.intern(
+      canonicalName, {
+        case RealCanonicalName(name, packagePath) => new RealCanonicalName(Interner.intern(name), Interner.intern(packagePath))
+        case NoName(packagePath)                  => NoName(Interner.intern(packagePath))
+        case other                                => other
+      }
+    )
 
   def cleanClassName(dirtyName: String): String = {
     // capitalize after special characters and drop those characters along the way
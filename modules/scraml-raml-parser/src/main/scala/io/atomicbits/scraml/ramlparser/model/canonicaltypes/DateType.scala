@@ -31,6 +31,7 @@ trait DateType extends PrimitiveType {
 
 }
 
+@SerialVersionUID(1L)
 case object DateOnlyType extends DateType {
 
   val format = RFC3339FullDate
@@ -41,6 +42,7 @@ case object DateOnlyType extends DateType {
 
 }
 
+@SerialVersionUID(1L)
 case object TimeOnlyType extends DateType {
 
   val format = RFC3339PartialTime
@@ -51,6 +53,7 @@ case object TimeOnlyType extends DateType {
 
 }
 
+@SerialVersionUID(1L)
 case object DateTimeOnlyType extends DateType {
 
   val format = DateOnlyTimeOnly
@@ -61,6 +64,7 @@ case object DateTimeOnlyType extends DateType {
 
 }
 
+@SerialVersionUID(1L)
 case object DateTimeDefaultType extends DateType {
 
   val format = RFC3339DateTime
@@ -71,6 +75,7 @@ case object DateTimeDefaultType extends DateType {
 
 }
 
+@SerialVersionUID(1L)
 case object DateTimeRFC2616Type extends DateType {
 
   val format = RFC2616
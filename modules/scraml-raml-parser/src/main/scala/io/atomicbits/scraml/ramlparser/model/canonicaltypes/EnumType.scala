@@ -23,4 +23,5 @@ package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 /**
   * Created by peter on 9/12/16.
   */
+@SerialVersionUID(1L)
 case class EnumType(canonicalName: CanonicalName, choices: List[String]) extends NonPrimitiveType
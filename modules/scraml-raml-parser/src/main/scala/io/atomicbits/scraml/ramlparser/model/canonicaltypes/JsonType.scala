@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 /**
   * Created by peter on 15/03/17.
   */
+@SerialVersionUID(1L)
 case object JsonType extends PrimitiveType {
 
   val canonicalName = CanonicalName.create("Json")
@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 /**
   * Created by peter on 29/04/17.
   */
+@SerialVersionUID(1L)
 case object ObjectMapType extends CanonicalType with TypeReference {
 
   val canonicalName = CanonicalName.create("ObjectMap")
@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 /**
   * Created by peter on 9/12/16.
   */
+@SerialVersionUID(1L)
 case class Property[T <: GenericReferrable](name: String,
                                             ttype: T,
                                             required: Boolean                           = true,
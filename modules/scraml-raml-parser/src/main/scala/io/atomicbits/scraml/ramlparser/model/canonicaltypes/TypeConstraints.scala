@@ -25,21 +25,25 @@ package io.atomicbits.scraml.ramlparser.model.canonicaltypes
   */
 trait TypeConstraints[T <: GenericReferrable]
 
+@SerialVersionUID(1L)
 case class StringConstraints(format: Option[String]  = None,
                              pattern: Option[String] = None,
                              minLength: Option[Int]  = None,
                              maxLength: Option[Int]  = None)
     extends TypeConstraints[StringType.type]
 
+@SerialVersionUID(1L)
 case class FileConstraints(fileTypes: Option[Seq[String]] = None, minLength: Option[Int] = None, maxLength: Option[Int] = None)
     extends TypeConstraints[FileType.type]
 
+@SerialVersionUID(1L)
 case class IntegerConstraints(format: Option[String]  = None,
                               minimum: Option[Int]    = None,
                               maximum: Option[Int]    = None,
                               multipleOf: Option[Int] = None)
     extends TypeConstraints[IntegerType.type]
 
+@SerialVersionUID(1L)
 case class NumberConstraints(format: Option[String]  = None,
                              minimum: Option[Int]    = None,
                              maximum: Option[Int]    = None,
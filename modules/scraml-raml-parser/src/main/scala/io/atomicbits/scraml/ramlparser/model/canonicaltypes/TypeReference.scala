@@ -20,6 +20,8 @@
 
 package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 
+import io.atomicbits.scraml.util.Interner
+
 /**
   * Created by peter on 9/12/16.
   */
@@ -33,11 +35,24 @@ trait TypeReference extends GenericReferrable {
 
 }
 
+@SerialVersionUID(1L)
 case class NonPrimitiveTypeReference(refers: CanonicalName,
                                      genericTypes: List[GenericReferrable]      = List.empty,
                                      genericTypeParameters: List[TypeParameter] = List.empty)
     extends TypeReference
 
+object NonPrimitiveTypeReference {
+
+  private val typeReferences = new Interner[NonPrimitiveTypeReference]()
+
+  def apply(refers: CanonicalName,
+            genericTypes: List[GenericReferrable]      = List.empty,
+            genericTypeParameters: List[TypeParameter] = List.empty): NonPrimitiveTypeReference =
+    typeReferences.intern(new NonPrimitiveTypeReference(refers, genericTypes, genericTypeParameters))
+
+}
+
+@SerialVersionUID(1L)
 case class ArrayTypeReference(genericType: GenericReferrable) extends TypeReference {
 
   val refers = ArrayType.canonicalName
@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model.canonicaltypes
 /**
   * Created by peter on 11/12/16.
   */
+@SerialVersionUID(1L)
 case class UnionType(types: Set[TypeReference]) extends NonPrimitiveType {
 
   lazy val canonicalName: CanonicalName = {
@@ -30,6 +30,7 @@ import scala.util.{ Success, Try }
 /**
   * Created by peter on 1/04/16.
   */
+@SerialVersionUID(1L)
 case class Fragments(id: Id = ImplicitId, fragmentMap: Map[String, ParsedType] = Map.empty) extends ParsedType with Fragmented {
 
   override def updated(updatedId: Id): Fragments = copy(id = updatedId)
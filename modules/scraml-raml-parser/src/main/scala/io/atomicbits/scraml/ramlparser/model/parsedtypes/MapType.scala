@@ -25,6 +25,7 @@ import io.atomicbits.scraml.ramlparser.model.{ Id, RamlModel, TypeModel }
 /**
   * Created by peter on 25/03/16.
   */
+@SerialVersionUID(1L)
 case class MapType(id: Id, baseType: List[String], elementType: String, required: Option[Boolean] = None, model: TypeModel = RamlModel)
     extends ParsedType {
 
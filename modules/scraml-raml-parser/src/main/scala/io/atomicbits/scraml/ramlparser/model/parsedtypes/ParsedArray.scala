@@ -31,6 +31,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 25/03/16.
   */
+@SerialVersionUID(1L)
 case class ParsedArray(items: ParsedType,
                        id: Id                    = ImplicitId,
                        required: Option[Boolean] = None,
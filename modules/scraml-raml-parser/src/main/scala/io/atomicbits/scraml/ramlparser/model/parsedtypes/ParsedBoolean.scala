@@ -29,6 +29,7 @@ import io.atomicbits.scraml.ramlparser.parser.JsUtils._
 /**
   * Created by peter on 1/04/16.
   */
+@SerialVersionUID(1L)
 case class ParsedBoolean(id: Id = ImplicitId, required: Option[Boolean] = None, model: TypeModel = RamlModel)
     extends PrimitiveType
     with AllowedAsObjectField {
@@ -44,6 +44,7 @@ trait ParsedDate extends NonPrimitiveType with AllowedAsObjectField {
   *
   * example: 2015-05-23
   */
+@SerialVersionUID(1L)
 case class ParsedDateOnly(id: Id = ImplicitId, required: Option[Boolean] = None) extends ParsedDate {
 
   val format = RFC3339FullDate
@@ -54,6 +55,7 @@ case class ParsedDateOnly(id: Id = ImplicitId, required: Option[Boolean] = None)
 
 }
 
+@SerialVersionUID(1L)
 case object ParsedDateOnly {
 
   val value = "date-only"
@@ -71,6 +73,7 @@ case object ParsedDateOnly {
   *
   * example: 12:30:00
   */
+@SerialVersionUID(1L)
 case class ParsedTimeOnly(id: Id = ImplicitId, required: Option[Boolean] = None) extends ParsedDate {
 
   val format = RFC3339PartialTime
@@ -81,6 +84,7 @@ case class ParsedTimeOnly(id: Id = ImplicitId, required: Option[Boolean] = None)
 
 }
 
+@SerialVersionUID(1L)
 case object ParsedTimeOnly {
 
   val value = "time-only"
@@ -99,6 +103,7 @@ case object ParsedTimeOnly {
   *
   * example: 2015-07-04T21:00:00
   */
+@SerialVersionUID(1L)
 case class ParsedDateTimeOnly(id: Id = ImplicitId, required: Option[Boolean] = None) extends ParsedDate {
 
   val format = DateOnlyTimeOnly
@@ -109,6 +114,7 @@ case class ParsedDateTimeOnly(id: Id = ImplicitId, required: Option[Boolean] = N
 
 }
 
+@SerialVersionUID(1L)
 case object ParsedDateTimeOnly {
 
   val value = "datetime-only"
@@ -139,6 +145,7 @@ object ParsedDateTime {
 
 }
 
+@SerialVersionUID(1L)
 case class ParsedDateTimeDefault(id: Id = ImplicitId, required: Option[Boolean] = None) extends ParsedDateTime {
 
   val format = RFC3339DateTime
@@ -149,6 +156,7 @@ case class ParsedDateTimeDefault(id: Id = ImplicitId, required: Option[Boolean]
 
 }
 
+@SerialVersionUID(1L)
 case object ParsedDateTimeDefault {
 
   def unapply(json: JsValue): Option[Try[ParsedDateTimeDefault]] = {
@@ -163,6 +171,7 @@ case object ParsedDateTimeDefault {
 
 }
 
+@SerialVersionUID(1L)
 case class ParsedDateTimeRFC2616(id: Id = ImplicitId, required: Option[Boolean] = None) extends ParsedDateTime {
 
   val format = RFC2616
@@ -173,6 +182,7 @@ case class ParsedDateTimeRFC2616(id: Id = ImplicitId, required: Option[Boolean]
 
 }
 
+@SerialVersionUID(1L)
 case object ParsedDateTimeRFC2616 {
 
   def unapply(json: JsValue): Option[Try[ParsedDateTimeRFC2616]] = {
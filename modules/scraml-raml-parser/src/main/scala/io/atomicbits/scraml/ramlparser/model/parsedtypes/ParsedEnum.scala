@@ -28,6 +28,7 @@ import scala.util.{ Success, Try }
 /**
   * Created by peter on 1/04/16.
   */
+@SerialVersionUID(1L)
 case class ParsedEnum(id: Id, choices: List[String], required: Option[Boolean] = None, model: TypeModel = RamlModel)
     extends NonPrimitiveType
     with AllowedAsObjectField {
@@ -29,6 +29,7 @@ import scala.util.{ Success, Try }
 /**
   * Created by peter on 26/08/16.
   */
+@SerialVersionUID(1L)
 case class ParsedFile(id: Id                         = ImplicitId,
                       fileTypes: Option[Seq[String]] = None,
                       minLength: Option[Int]         = None,
@@ -47,6 +48,7 @@ case class ParsedFile(id: Id                         = ImplicitId,
 
 }
 
+@SerialVersionUID(1L)
 case object ParsedFile {
 
   val value = "file"
@@ -64,6 +64,7 @@ import scala.util.{ Failure, Success, Try }
   *
   *
   */
+@SerialVersionUID(1L)
 case class ParsedGenericObject(id: Id,
                                typeVariable: String,
                                required: Option[Boolean] = None,
@@ -32,6 +32,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 1/11/16.
   */
+@SerialVersionUID(1L)
 case class ParsedMultipleInheritance(parents: Set[ParsedTypeReference],
                                      properties: ParsedProperties,
                                      requiredProperties: List[String]       = List.empty,
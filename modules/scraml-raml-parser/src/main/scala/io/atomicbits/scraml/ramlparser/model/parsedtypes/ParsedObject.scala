@@ -30,6 +30,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 25/03/16.
   */
+@SerialVersionUID(1L)
 case class ParsedObject(id: Id,
                         properties: ParsedProperties,
                         required: Option[Boolean]              = None,
@@ -30,6 +30,7 @@ import scala.util.{ Success, Try }
 /**
   * Created by peter on 4/12/16.
   */
+@SerialVersionUID(1L)
 case class ParsedProperties(valueMap: Map[String, ParsedProperty] = Map.empty) {
 
   def apply(name: String): ParsedProperty = valueMap(name)
@@ -39,12 +40,12 @@ case class ParsedProperties(valueMap: Map[String, ParsedProperty] = Map.empty) {
   def -(name: String): ParsedProperties = copy(valueMap = valueMap - name)
 
   def map(f: ParsedProperty => ParsedProperty): ParsedProperties = {
-    copy(valueMap = valueMap.mapValues(f).toMap)
+    copy(valueMap = valueMap.map { case (name, property) => name -> f(property) })
   }
 
   def asTypeMap: Map[String, ParsedType] = {
-    valueMap.mapValues(_.propertyType.parsed)
-  }.toMap
+    valueMap.map { case (name, property) => name -> property.propertyType.parsed }
+  }
 
   val values: List[ParsedProperty] = valueMap.values.toList
 
@@ -25,4 +25,5 @@ import io.atomicbits.scraml.ramlparser.model.TypeRepresentation
 /**
   * Created by peter on 4/12/16.
   */
+@SerialVersionUID(1L)
 case class ParsedProperty(name: String, propertyType: TypeRepresentation, required: Boolean = true)
@@ -31,6 +31,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 1/04/16.
   */
+@SerialVersionUID(1L)
 case class ParsedTypeReference(refersTo: Id,
                                id: Id                         = ImplicitId,
                                required: Option[Boolean]      = None,
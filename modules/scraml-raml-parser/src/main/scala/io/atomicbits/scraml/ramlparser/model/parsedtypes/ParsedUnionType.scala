@@ -31,6 +31,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 1/11/16.
   */
+@SerialVersionUID(1L)
 case class ParsedUnionType(types: Set[ParsedType], required: Option[Boolean] = None, model: TypeModel = RamlModel, id: Id = ImplicitId)
     extends NonPrimitiveType
     with AllowedAsObjectField {
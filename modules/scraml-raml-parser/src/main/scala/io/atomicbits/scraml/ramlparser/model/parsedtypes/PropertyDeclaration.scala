@@ -23,4 +23,5 @@ package io.atomicbits.scraml.ramlparser.model.parsedtypes
 /**
   * Created by peter on 25/03/16.
   */
+@SerialVersionUID(1L)
 case class PropertyDeclaration(typeName: String, required: Boolean = true)
@@ -31,17 +31,20 @@ sealed trait Selection {
 
 }
 
+@SerialVersionUID(1L)
 case class OneOf(selection: List[ParsedType]) extends Selection {
 
   override def map(f: (ParsedType) => ParsedType): Selection = copy(selection = selection.map(f))
 }
 
+@SerialVersionUID(1L)
 case class AnyOf(selection: List[ParsedType]) extends Selection {
 
   override def map(f: (ParsedType) => ParsedType): Selection = copy(selection = selection.map(f))
 
 }
 
+@SerialVersionUID(1L)
 case class AllOf(selection: List[ParsedType]) extends Selection {
 
   override def map(f: (ParsedType) => ParsedType): Selection = copy(selection = selection.map(f))
@@ -30,6 +30,7 @@ import scala.util.{ Failure, Success, Try }
 /**
   * Created by peter on 10/02/16.
   */
+@SerialVersionUID(1L)
 case class Types(typeReferences: Map[NativeId, ParsedType] = Map.empty) {
 
   def apply(nativeId: NativeId): ParsedType = typeReferences(nativeId)
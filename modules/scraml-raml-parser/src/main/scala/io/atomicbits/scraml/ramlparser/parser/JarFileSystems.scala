@@ -0,0 +1,119 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser.parser
+
+import java.net.URI
+import java.nio.file.attribute.FileTime
+import java.nio.file.{ FileSystem, FileSystemAlreadyExistsException, FileSystems, Files, Paths }
+import java.util.Collections
+
+import scala.util.Try
+
+/**
+  * Shares the file systems of jar files between threads with reference counting.
+  *
+  * A jar file system can only be opened once, and closing it while another thread is still reading from it breaks that other
+  * thread. Here, the first user opens the file system and concurrent users share it. Only the opening and closing is synchronized,
+  * the actual reading from the file system happens in parallel.
+  *
+  * Opening a jar file system reads the jar's central directory, so we keep a file system open when its last user is done and
+  * sequential users reuse it. An idle file system is reopened when its jar file changed on disk and it is closed by `closeIdle()`.
+  */
+object JarFileSystems {
+
+  private class OpenFileSystem(val fileSystem: FileSystem, val owned: Boolean, val jarVersion: Option[FileTime]) {
+    var references: Int = 0
+  }
+
+  private var openFileSystems: Map[String, OpenFileSystem] = Map.empty
+
+  /**
+    * Run the given function on the file system of the jar that contains the given resource.
+    *
+    * @param uri A jar URI of the form jar:file:/path/to/archive.jar!/path/in/archive
+    */
+  def withFileSystem[T](uri: URI)(fn: FileSystem => T): T = {
+    val key        = jarKey(uri)
+    val fileSystem = acquire(key, uri)
+    try {
+      fn(fileSystem)
+    } finally {
+      release(key)
+    }
+  }
+
+  /**
+    * Close the jar file systems that we opened and that are not in use at this moment.
+    */
+  def closeIdle(): Unit = synchronized {
+    val (idle, inUse) = openFileSystems.partition { case (_, openFileSystem) => openFileSystem.references <= 0 }
+    openFileSystems = inUse
+    idle.values.foreach(close)
+  }
+
+  private def jarKey(uri: URI): String = {
+    val uriString = uri.toString
+    val sepIndex  = uriString.indexOf("!/")
+    if (sepIndex >= 0) uriString.substring(0, sepIndex) else uriString
+  }
+
+  /**
+    * The last modified time of the jar file itself, the key is of the form jar:file:/path/to/archive.jar
+    */
+  private def jarVersion(key: String): Option[FileTime] =
+    Try(Files.getLastModifiedTime(Paths.get(URI.create(key.stripPrefix("jar:"))))).toOption
+
+  private def acquire(key: String, uri: URI): FileSystem = synchronized {
+    val version = jarVersion(key)
+    val reusable =
+      openFileSystems.get(key).filter { openFileSystem =>
+        openFileSystem.references > 0 || (openFileSystem.jarVersion == version && openFileSystem.fileSystem.isOpen)
+      }
+    val openFileSystem =
+      reusable.getOrElse {
+        openFileSystems.get(key).foreach(close) // An idle file system of a jar that changed on disk.
+        val opened =
+          Try(new OpenFileSystem(FileSystems.newFileSystem(uri, Collections.emptyMap[String, Any]), owned = true, version))
+            .recover {
+              // Someone outside of scraml opened it, we may use it, but we must not close it.
+              case exc: FileSystemAlreadyExistsException => new OpenFileSystem(FileSystems.getFileSystem(uri), owned = false, version)
+            }
+            .getOrElse {
+              sys.error(s"Could not create or open filesystem for resource $uri")
+            }
+        openFileSystems += key -> opened
+        opened
+      }
+    openFileSystem.references += 1
+    openFileSystem.fileSystem
+  }
+
+  private def release(key: String): Unit = synchronized {
+    openFileSystems.get(key).foreach { openFileSystem =>
+      openFileSystem.references -= 1
+    }
+  }
+
+  private def close(openFileSystem: OpenFileSystem): Unit =
+    if (openFileSystem.owned) Try(openFileSystem.fileSystem.close())
+
+}
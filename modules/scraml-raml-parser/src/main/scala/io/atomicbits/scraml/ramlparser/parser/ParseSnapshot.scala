@@ -0,0 +1,254 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser.parser
+
+import java.io._
+import java.nio.file.{ Files, Path, StandardCopyOption }
+import java.util.zip.{ GZIPInputStream, GZIPOutputStream }
+
+import io.atomicbits.scraml.ramlparser.lookup.CanonicalLookup
+import io.atomicbits.scraml.ramlparser.model.Raml
+
+import scala.util.{ Failure, Success, Try }
+
+/**
+  * An on-disk snapshot of a parsed RAML model and its canonical types, keyed by the content hashes of all the source files
+  * that were visited while parsing it, includes included.
+  *
+  * @param ramlSource      The RAML source the snapshot was parsed from.
+  * @param defaultBasePath The default base path that was used to collect the canonical types.
+  * @param sources         All visited source files, by source reference.
+  * @param raml            The parsed RAML model, after collecting the canonical types.
+  * @param canonicalLookup The canonical types.
+  */
+@SerialVersionUID(1L)
+case class ParseSnapshot(ramlSource: String,
+                         defaultBasePath: List[String],
+                         sources: Map[String, ParsedSource],
+                         raml: Raml,
+                         canonicalLookup: CanonicalLookup) {
+
+  /**
+    * The snapshot is up to date when none of the source files it was parsed from has changed.
+    */
+  def isUpToDate(charsetName: String): Boolean = ParseSnapshot.isUpToDate(sourceHashes, charsetName)
+
+  /**
+    * The content hashes of all visited source files, by source reference.
+    */
+  def sourceHashes: Map[String, String] = sources.map { case (source, parsedSource) => source -> parsedSource.contentHash }
+
+}
+
+object ParseSnapshot {
+
+  /**
+    * Increase this version whenever the serialized form of the model changes in an incompatible way.
+    */
+  val formatVersion: Int = 2
+
+  /**
+    * Parse the given RAML source and collect its canonical types, using the snapshot in the given file when none of the
+    * source files changed. When some source files did change, only those are parsed again before the model is rebuilt.
+    * The snapshot file is (re)written after every parse.
+    */
+  def parse(snapshotFile: Path, ramlSource: String, charsetName: String, defaultBasePath: List[String]): Try[(Raml, CanonicalLookup)] = {
+
+    parseSnapshot(snapshotFile, ramlSource, charsetName, defaultBasePath).map { snapshot =>
+      (snapshot.raml, snapshot.canonicalLookup)
+    }
+  }
+
+  /**
+    * Same as parse above, but returns the whole snapshot.
+    */
+  def parseSnapshot(snapshotFile: Path, ramlSource: String, charsetName: String, defaultBasePath: List[String]): Try[ParseSnapshot] = {
+
+    val previous = read(snapshotFile)
+
+    parse(previous, ramlSource, charsetName, defaultBasePath).map { snapshot =>
+      if (previous.exists(_ eq snapshot)) println(s"RAML model taken from snapshot $snapshotFile")
+      else write(snapshotFile, snapshot)
+      snapshot
+    }
+  }
+
+  /**
+    * Source files are up to date when the content hashes of all of them are still the same.
+    *
+    * @param sourceHashes The content hashes of the source files, by source reference.
+    */
+  def isUpToDate(sourceHashes: Map[String, String], charsetName: String): Boolean =
+    sourceHashes.forall {
+      case (source, contentHash) =>
+        Try(SourceReader.read(source, charsetName)).toOption.exists(sourceFile => ParsedSource.hash(sourceFile.content) == contentHash)
+    }
+
+  /**
+    * Parse the given RAML source and collect its canonical types, reusing the given previous snapshot. The previous snapshot
+    * itself is returned when none of its source files changed.
+    */
+  def parse(previous: Option[ParseSnapshot], ramlSource: String, charsetName: String, defaultBasePath: List[String]): Try[ParseSnapshot] = {
+
+    val matchingPrevious = previous.filter(snapshot => snapshot.ramlSource == ramlSource && snapshot.defaultBasePath == defaultBasePath)
+
+    matchingPrevious.filter(_.isUpToDate(charsetName)) match {
+      case Some(snapshot) => Success(snapshot)
+      case None =>
+        val reusable = matchingPrevious.map(_.sources).getOrElse(Map.empty[String, ParsedSource])
+        RamlParser(ramlSource, charsetName).parseSources(reusable).map {
+          case (raml, sources) =>
+            val (ramlExp, canonicalLookup) = raml.collectCanonicals(defaultBasePath)
+            ParseSnapshot(ramlSource, defaultBasePath, sources, ramlExp, canonicalLookup)
+        }
+    }
+  }
+
+  /**
+    * Read the snapshot in the given file. A missing, corrupt or outdated snapshot file results in None.
+    */
+  def read(snapshotFile: Path): Option[ParseSnapshot] = {
+    if (!Files.isRegularFile(snapshotFile)) {
+      None
+    } else {
+      val snapshot =
+        Try {
+          val in = new SnapshotInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshotFile))))
+          try {
+            if (in.readInt() == formatVersion) Some(in.readObject().asInstanceOf[ParseSnapshot])
+            else None
+          } finally {
+            in.close()
+          }
+        }
+      snapshot match {
+        case Success(snapshotOpt) => snapshotOpt
+        case Failure(e) =>
+          println(s"Ignoring unreadable RAML model snapshot $snapshotFile: ${e.getMessage}")
+          None
+      }
+    }
+  }
+
+  /**
+    * Write the snapshot to the given file. The snapshot is written to a temporary file first that then replaces the given file,
+    * so that concurrent readers never see a partially written snapshot. Failing to write a snapshot is not fatal.
+    */
+  def write(snapshotFile: Path, snapshot: ParseSnapshot): Unit = {
+    val written =
+      Try {
+        Option(snapshotFile.toAbsolutePath.getParent).foreach(Files.createDirectories(_))
+        val tempFile = Files.createTempFile(snapshotFile.toAbsolutePath.getParent, snapshotFile.getFileName.toString, ".tmp")
+        try {
+          val out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))
+          try {
+            out.writeInt(formatVersion)
+            out.writeObject(snapshot)
+          } finally {
+            out.close()
+          }
+          Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } finally {
+          Files.deleteIfExists(tempFile)
+        }
+      }
+    written.failed.foreach { e =>
+      println(s"Could not write the RAML model snapshot $snapshotFile: ${e.getMessage}")
+    }
+  }
+
+}
+
+/**
+  * Reads a snapshot with Java deserialization restricted to the classes a RAML model consists of, so that a tampered snapshot file
+  * cannot instantiate arbitrary classes from the class path. All other classes are rejected before they are loaded.
+  *
+  * The model classes have a fixed serialVersionUID, so we compare the serialized fields of every class with its current fields
+  * and reject a snapshot that was written with a different version of the model, instead of reading it with missing fields.
+  *
+  * The classes are resolved via the class loader that loaded the parser, which is not necessarily the class loader that the
+  * default ObjectInputStream picks when we run inside a build tool plugin.
+  */
+private class SnapshotInputStream(in: InputStream) extends ObjectInputStream(in) {
+
+  override protected def resolveClass(desc: ObjectStreamClass): Class[_] = {
+    if (!SnapshotInputStream.isAllowed(desc.getName))
+      throw new InvalidClassException(desc.getName, "Class is not allowed in a RAML model snapshot")
+    val clazz: Class[_] =
+      Try[Class[_]](Class.forName(desc.getName, false, classOf[ParseSnapshot].getClassLoader)).getOrElse(super.resolveClass(desc))
+    Option(ObjectStreamClass.lookup(clazz)).foreach { current =>
+      if (SnapshotInputStream.fields(current) != SnapshotInputStream.fields(desc))
+        throw new InvalidClassException(desc.getName, "The RAML model changed since the snapshot was written")
+    }
+    clazz
+  }
+
+  override protected def resolveProxyClass(interfaces: Array[String]): Class[_] =
+    throw new InvalidClassException("Proxy classes are not allowed in a RAML model snapshot")
+
+}
+
+private object SnapshotInputStream {
+
+  private val allowedPackages =
+    List("io.atomicbits.scraml.ramlparser.", "play.api.libs.json.", "scala.collection.", "scala.math.", "scala.util.matching.")
+
+  private val allowedClasses =
+    Set(
+      "scala.Option",
+      "scala.Some",
+      "scala.None$",
+      "scala.Tuple2",
+      "java.lang.Boolean",
+      "java.lang.Enum",
+      "java.lang.Integer",
+      "java.lang.Long",
+      "java.lang.Double",
+      "java.lang.Number",
+      "java.lang.Object",
+      "java.lang.String",
+      "java.math.BigDecimal",
+      "java.math.BigInteger",
+      "java.math.MathContext",
+      "java.math.RoundingMode",
+      "java.util.ArrayList",
+      "java.util.HashMap",
+      "java.util.LinkedHashMap",
+      "java.util.regex.Pattern"
+    )
+
+  /**
+    * Arrays are allowed when their element type is a primitive or an allowed class, e.g. "[B" or "[Ljava.lang.Object;".
+    */
+  def isAllowed(className: String): Boolean =
+    if (className.startsWith("[")) {
+      val elementName = className.dropWhile(_ == '[')
+      elementName.length == 1 ||
+      (elementName.startsWith("L") && elementName.endsWith(";") && isAllowed(elementName.substring(1, elementName.length - 1)))
+    } else {
+      allowedClasses.contains(className) || allowedPackages.exists(className.startsWith)
+    }
+
+  def fields(desc: ObjectStreamClass): List[(String, String)] =
+    desc.getFields.toList.map(field => (field.getName, field.getTypeString + field.getTypeCode))
+
+}
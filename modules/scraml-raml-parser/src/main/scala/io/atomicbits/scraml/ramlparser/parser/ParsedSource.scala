@@ -0,0 +1,53 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser.parser
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Path, Paths }
+import java.security.MessageDigest
+
+import play.api.libs.json.JsValue
+
+/**
+  * A parsed RAML or JSON source file together with the hash of the content it was parsed from.
+  *
+  * @param filePath    The path of the source file, as a string so that the parsed source can be serialized.
+  * @param contentHash The SHA-256 hash of the source file's content.
+  * @param content     The source file's content converted to JSON.
+  */
+@SerialVersionUID(1L)
+case class ParsedSource(filePath: String, contentHash: String, content: JsValue) {
+
+  def path: Path = Paths.get(filePath)
+
+  def jsonFile: JsonFile = JsonFile(path, content)
+
+}
+
+object ParsedSource {
+
+  def hash(content: String): String = {
+    val digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8))
+    digest.map(byte => f"${byte & 0xff}%02x").mkString
+  }
+
+}
@@ -21,63 +21,169 @@
 package io.atomicbits.scraml.ramlparser.parser
 
 import java.nio.file.{ Path, Paths }
+import java.util.concurrent.ForkJoinPool
 
+import io.atomicbits.scraml.profiling.GenerationProfiler
 import io.atomicbits.scraml.ramlparser.model.{ JsInclude, Raml }
 import play.api.libs.json._
 
+import scala.annotation.tailrec
+import scala.collection.parallel.ForkJoinTaskSupport
 import scala.util.Try
 
 /**
   * Created by peter on 6/02/16.
   */
-case class RamlParser(ramlSource: String, charsetName: String) {
+case class RamlParser(ramlSource: String, charsetName: String, parallelism: Int = RamlParser.defaultParallelism) {
 
-  def parse: Try[Raml] = {
-    val JsonFile(path, ramlJson) = RamlToJsonParser.parseToJson(ramlSource, charsetName)
-    val parsed: JsObject =
-      ramlJson match {
-        case ramlJsObj: JsObject => parseRamlJsonDocument(path.getParent, ramlJsObj)
+  def parse: Try[Raml] = parseSources().map(_._1)
+
+  /**
+    * Parse the RAML model and return it together with all the source files that were visited, by source reference.
+    *
+    * @param reusable Sources that were parsed before, by source reference. A source whose content hash didn't change is taken from
+    *                 this map instead of being parsed again.
+    */
+  def parseSources(reusable: Map[String, ParsedSource] = Map.empty): Try[(Raml, Map[String, ParsedSource])] =
+    GenerationProfiler.phase("parse", (parsed: Try[(Raml, Map[String, ParsedSource])]) => parsed.map(_._2.size).getOrElse(0)) {
+      parseSourcesUnprofiled(reusable)
+    }
+
+  private def parseSourcesUnprofiled(reusable: Map[String, ParsedSource]): Try[(Raml, Map[String, ParsedSource])] = {
+    val rootSource = parseSource(ramlSource, reusable)
+    val (parsed, includedSources): (JsObject, Map[String, ParsedSource]) =
+      rootSource.content match {
+        case ramlJsObj: JsObject => parseRamlJsonDocument(rootSource.path.getParent, ramlJsObj, reusable)
         case x                   => sys.error(s"Could not parse $ramlSource, expected a RAML document.")
       }
 
     val parseContext = ParseContext(List(ramlSource), List.empty)
 
-    Raml(parsed)(parseContext)
+    Raml(parsed)(parseContext).map(raml => (raml, includedSources + (ramlSource -> rootSource)))
+  }
+
+  private def parseSource(source: String, reusable: Map[String, ParsedSource]): ParsedSource = {
+    val sourceFile  = SourceReader.read(source, charsetName)
+    val contentHash = ParsedSource.hash(sourceFile.content)
+    reusable.get(source).filter(_.contentHash == contentHash) getOrElse {
+      val JsonFile(path, json) = RamlToJsonParser.parseToJson(source, sourceFile)
+      ParsedSource(path.toString, contentHash, json)
+    }
   }
 
   /**
     * Recursively parse all RAML documents by following all include statements and packing everything in one big JSON object.
     * The source references will be injected under the "_source" fields so that we can trace the origin of all documents later on.
     *
+    * This happens in two phases. First, we walk the include graph level by level and parse each distinct included file (by
+    * normalized path) exactly once, the files of a level are parsed in parallel. Then, we put the parsed documents in place
+    * in one sequential pass over the include tree.
+    *
     * @param raml
     */
-  private def parseRamlJsonDocument(basePath: Path, raml: JsObject): JsObject = {
+  private def parseRamlJsonDocument(basePath: Path,
+                                    raml: JsObject,
+                                    reusable: Map[String, ParsedSource]): (JsObject, Map[String, ParsedSource]) = {
+
+    val includedFiles = parseIncludedFiles(includePaths(raml, basePath), reusable)
 
-    def parseNested(doc: JsValue, currentBasePath: Path): JsValue = {
+    def parseNested(doc: JsValue, currentBasePath: Path, includeTrail: List[String]): JsValue = {
       doc match {
         case JsInclude(source) =>
-          // The check for empty base path below needs to be there for Windows machines, to avoid paths like "/C:/Users/..."
-          // that don't resolve because of the leading "/".
-          // ToDo: Refactor to use file system libraries to merge paths (and test on Windows as well).
-          val nextPath =
-            if (currentBasePath.normalize().toString.isEmpty) Paths.get(source)
-            else currentBasePath.resolve(source) // s"$currentBasePath/$source"
-          val JsonFile(newFilePath, included) = RamlToJsonParser.parseToJson(nextPath.normalize().toString)
+          val includePath = resolveIncludePath(currentBasePath, source)
+          if (includeTrail.contains(includePath))
+            sys.error(s"Cyclic include of $includePath via ${includeTrail.reverse.mkString(" -> ")}")
+          val JsonFile(newFilePath, included) = includedFiles(includePath).jsonFile
           included match {
-            case incl: JsObject => parseNested(incl + (Sourced.sourcefield -> JsString(source)), newFilePath.getParent)
-            case x              => parseNested(x, newFilePath.getParent)
+            case incl: JsObject =>
+              parseNested(incl + (Sourced.sourcefield -> JsString(source)), newFilePath.getParent, includePath :: includeTrail)
+            case x => parseNested(x, newFilePath.getParent, includePath :: includeTrail)
           }
         case jsObj: JsObject =>
           val mappedFields = jsObj.fields.collect {
-            case (key, value) => key -> parseNested(value, currentBasePath)
+            case (key, value) => key -> parseNested(value, currentBasePath, includeTrail)
           }
           JsObject(mappedFields)
-        case jsArr: JsArray => JsArray(jsArr.value.map(parseNested(_, currentBasePath)))
+        case jsArr: JsArray => JsArray(jsArr.value.map(parseNested(_, currentBasePath, includeTrail)))
         case x              => x
       }
     }
 
-    parseNested(raml, basePath).asInstanceOf[JsObject]
+    (parseNested(raml, basePath, List.empty).asInstanceOf[JsObject], includedFiles)
+  }
+
+  /**
+    * Parse all files that are (transitively) included from the given include paths.
+    *
+    * @param rootIncludes The normalized paths of the includes in the root document.
+    * @param reusable     Previously parsed sources that may be reused when their content didn't change.
+    * @return The parsed files by their normalized include path.
+    */
+  private def parseIncludedFiles(rootIncludes: Set[String], reusable: Map[String, ParsedSource]): Map[String, ParsedSource] = {
+
+    // With a parallelism of 1, we parse on the calling thread.
+    val forkJoinPool = if (parallelism > 1) Some(new ForkJoinPool(parallelism)) else None
+
+    def parseAll(paths: Vector[String]): Vector[(String, ParsedSource)] =
+      forkJoinPool match {
+        case Some(pool) =>
+          val parallelPaths = paths.par
+          parallelPaths.tasksupport = new ForkJoinTaskSupport(pool)
+          parallelPaths.map(includePath => includePath -> parseSource(includePath, reusable)).seq
+        case None =>
+          paths.map(includePath => includePath -> parseSource(includePath, reusable))
+      }
+
+    @tailrec
+    def parseLevel(toParse: Set[String], parsed: Map[String, ParsedSource]): Map[String, ParsedSource] = {
+      if (toParse.isEmpty) {
+        parsed
+      } else {
+        val parsedLevel: Map[String, ParsedSource] = parseAll(toParse.toVector).toMap
+        val allParsed                              = parsed ++ parsedLevel
+        val nextLevel =
+          parsedLevel.values.flatMap { parsedSource =>
+            includePaths(parsedSource.content, parsedSource.path.getParent)
+          }.toSet -- allParsed.keySet
+        parseLevel(nextLevel, allParsed)
+      }
+    }
+
+    try {
+      GenerationProfiler.phase("parse-includes", (parsed: Map[String, ParsedSource]) => parsed.size) {
+        parseLevel(rootIncludes, Map.empty)
+      }
+    } finally {
+      forkJoinPool.foreach(_.shutdown())
+    }
+  }
+
+  /**
+    * Collect the normalized paths of all includes in the given document, without following them.
+    */
+  private def includePaths(doc: JsValue, currentBasePath: Path): Set[String] = {
+    doc match {
+      case JsInclude(source) => Set(resolveIncludePath(currentBasePath, source))
+      case jsObj: JsObject   => jsObj.values.flatMap(includePaths(_, currentBasePath)).toSet
+      case jsArr: JsArray    => jsArr.value.flatMap(includePaths(_, currentBasePath)).toSet
+      case _                 => Set.empty
+    }
+  }
+
+  private def resolveIncludePath(currentBasePath: Path, source: String): String = {
+    // The check for empty base path below needs to be there for Windows machines, to avoid paths like "/C:/Users/..."
+    // that don't resolve because of the leading "/".
+    // ToDo: Refactor to use file system libraries to merge paths (and test on Windows as well).
+    val nextPath =
+      if (currentBasePath.normalize().toString.isEmpty) Paths.get(source)
+      else currentBasePath.resolve(source) // s"$currentBasePath/$source"
+    nextPath.normalize().toString
   }
 
 }
+
+object RamlParser {
+
+  val defaultParallelism: Int = Runtime.getRuntime.availableProcessors()
+
+}
@@ -22,10 +22,6 @@ package io.atomicbits.scraml.ramlparser.parser
 
 import java.net.URI
 
-import org.yaml.snakeyaml.Yaml
-import play.api.libs.json._
-
-import scala.collection.JavaConverters._
 import scala.util.{ Failure, Success, Try }
 
 /**
@@ -38,13 +34,18 @@ object RamlToJsonParser {
   }
 
   def parseToJson(source: String, charsetName: String): JsonFile = {
+    parseToJson(source, SourceReader.read(source, charsetName))
+  }
+
+  /**
+    * Parse the content of a source that was already read.
+    */
+  def parseToJson(source: String, sourceFile: SourceFile): JsonFile = {
     Try {
-      val SourceFile(path, ramlContent) = SourceReader.read(source, charsetName)
+      val SourceFile(path, ramlContent) = sourceFile
       val ramlContentNoTabs             = ramlContent.replace("\t", "  ") // apparently, the yaml parser does not handle tabs well
-      val yaml                          = new Yaml(SimpleRamlConstructor())
-      val ramlMap: Any                  = yaml.load(ramlContentNoTabs)
 
-      (path, anyToJson(ramlMap))
+      (path, YamlToJsonParser.parse(ramlContentNoTabs))
     } match {
       case Success((path, jsvalue)) => JsonFile(path, jsvalue)
       case Failure(ex) =>
@@ -61,45 +62,4 @@ object RamlToJsonParser {
     }
   }
 
-  private def anyToJson(value: Any): JsValue = {
-    value match {
-      case s: String                      => unwrapJsonString(Json.toJson(s))
-      case b: Boolean                     => Json.toJson(b)
-      case i: java.lang.Integer           => Json.toJson(i.doubleValue())
-      case l: java.lang.Long              => Json.toJson(l.doubleValue())
-      case d: Double                      => Json.toJson(d)
-      case list: java.util.ArrayList[_] => JsArray(list.asScala.map(anyToJson))
-      case map: java.util.Map[_, _] =>
-        val mapped =
-          mapAsScalaMap(map).map {
-            case (field, theValue) => field.toString -> anyToJson(theValue)
-          }
-        JsObject(mapped.toSeq)
-      case include: Include =>
-        Json.toJson(include) // the included body is attached in a json object as the string value of the !include field of that JSON object
-      case null => JsNull
-      case x    => sys.error(s"Cannot parse unknown type $x (${x.getClass.getCanonicalName})")
-    }
-  }
-
-  /**
-    * One time 'unwrap' of a JSON value that is wrapped as a string value.
-    */
-  private def unwrapJsonString(json: JsValue): JsValue = {
-    json match {
-      case JsString(stringVal) =>
-        Try(Json.parse(stringVal)) match {
-          case Success(jsObject: JsObject) =>
-            if (jsObject.\("$schema").toOption.isEmpty) {
-              jsObject + ("$schema" -> JsString("http://json-schema.org/draft-03/schema"))
-            } else {
-              jsObject
-            }
-          case Success(nonStringJsValue) => nonStringJsValue
-          case _                         => json
-        }
-      case _ => json
-    }
-  }
-
 }
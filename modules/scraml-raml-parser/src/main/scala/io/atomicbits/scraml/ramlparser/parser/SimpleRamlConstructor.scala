@@ -32,6 +32,14 @@ class SimpleRamlConstructor extends SafeConstructor {
     this.yamlConstructors.put(tag, construct)
   }
 
+  /**
+    * Constructs the value of a single scalar node without registering it in the constructor's object graph.
+    */
+  def constructScalarValue(node: ScalarNode): Any = {
+    val construct = Option(this.yamlConstructors.get(node.getTag)).getOrElse(this.yamlConstructors.get(null))
+    construct.construct(node)
+  }
+
 }
 
 class ConstructInclude extends AbstractConstruct {
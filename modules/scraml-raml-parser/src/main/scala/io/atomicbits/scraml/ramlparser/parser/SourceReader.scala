@@ -22,10 +22,11 @@ package io.atomicbits.scraml.ramlparser.parser
 
 import java.io._
 import java.net.{ URI, URL }
-import java.nio.file.{ FileSystems, Files, Path, Paths, FileSystem }
-import java.nio.file.{ FileSystem => _, _ }
-import java.util.Collections
+import java.nio.file.{ FileSystems, Files, Path, Paths }
+import java.nio.file.attribute.FileTime
+import java.util.concurrent.ConcurrentHashMap
 
+import scala.annotation.tailrec
 import scala.util.Try
 // We don't use CollectionConverters yet since we still want to cross-compile to scala 2.11 and 2.12
 //import scala.jdk.CollectionConverters
@@ -40,8 +41,6 @@ object SourceReader {
   /**
     * Read the content of a given source.
     *
-    * Mind that this function is NOT thread safe when reading from jar files.
-    *
     * ToDo: extract & refactor the common parts in 'read' and 'readResources'
     *
     * @param source      The source to read.
@@ -69,34 +68,24 @@ object SourceReader {
     val uris: List[Option[URI]] = List(resource, classLoaderResource, file, url) // ToDo: replace with orElse structure & test
     val uri: URI                = uris.flatten.headOption.getOrElse(sys.error(s"Unable to find resource $source"))
 
-    val (thePath, fs): (Path, Option[FileSystem]) =
+    val (thePath, encoded): (Path, Array[Byte]) =
       uri.getScheme match {
         case "jar" =>
-          val fileSystem: FileSystem =
-            Try(FileSystems.newFileSystem(uri, Collections.emptyMap[String, Any]))
-              .recover {
-                case exc: FileSystemAlreadyExistsException => FileSystems.getFileSystem(uri)
-                // ToDo: see if reusing an open filesystem is a problem because it is closed below by the first thread that reaches that statement
-              }
-              .getOrElse {
-                sys.error(s"Could not create or open filesystem for resource $uri")
-              }
-          (fileSystem.getPath(source), Some(fileSystem))
-        case _ => (Paths.get(uri), None)
+          JarFileSystems.withFileSystem(uri) { fileSystem =>
+            val jarPath = fileSystem.getPath(source)
+            (jarPath, readBytes(jarPath))
+          }
+        case _ =>
+          val filePath = Paths.get(uri)
+          (filePath, readBytes(filePath))
       }
 
-    val encoded: Array[Byte] = Files.readAllBytes(thePath)
-
-    fs.foreach(_.close())
-
     SourceFile(toDefaultFileSystem(thePath), new String(encoded, charsetName)) // ToDo: encoding detection via the file's BOM
   }
 
   /**
     * Read all files with a given extension in a given path, recursively through all subdirectories.
     *
-    * Mind that this function is NOT thread safe when reading from jar files.
-    *
     * http://www.uofr.net/~greg/java/get-resource-listing.html
     * http://alvinalexander.com/source-code/scala/create-list-all-files-beneath-directory-scala
     * http://stackoverflow.com/questions/31406471/get-resource-file-from-dependency-in-sbt
@@ -115,37 +104,66 @@ object SourceReader {
     val uris: List[Option[URI]] = List(resource, classLoaderResource) // ToDo: replace with orElse structure & test
     val uri: URI                = uris.flatten.headOption.getOrElse(sys.error(s"Unable to find resource $path"))
 
-    val (thePath, fs): (Path, Option[FileSystem]) =
-      uri.getScheme match {
-        case "jar" =>
-          val fileSystem =
-            Try(FileSystems.newFileSystem(uri, Collections.emptyMap[String, Any]))
-              .recover {
-                case exc: FileSystemAlreadyExistsException => FileSystems.getFileSystem(uri)
-                // ToDo: see if reusing an open filesystem is a problem because it is closed below by the first thread that reaches that statement
-              }
-              .getOrElse {
-                sys.error(s"Could not create or open filesystem for resource $uri")
-              }
-          (fileSystem.getPath(path), Some(fileSystem))
-        case _ =>
-          (Paths.get(uri), None)
-      }
-
-    val walk             = Files.walk(thePath)
-    val paths: Set[Path] = walk.iterator.asScala.toSet
-
     def isFileWithExtension(somePath: Path): Boolean =
       Files.isRegularFile(somePath) && somePath.getFileName.toString.toLowerCase.endsWith(extension.toLowerCase)
 
-    val sourceFiles =
+    def readAll(thePath: Path): Set[SourceFile] = {
+      val walk = Files.walk(thePath)
+      val paths: Set[Path] =
+        try {
+          walk.iterator.asScala.toSet
+        } finally {
+          walk.close()
+        }
+
       paths.collect {
         case currentPath if isFileWithExtension(currentPath) =>
-          val enc: Array[Byte] = Files.readAllBytes(currentPath)
+          val enc: Array[Byte] = readBytes(currentPath)
           SourceFile(toDefaultFileSystem(currentPath), new String(enc, charsetName))
       }
-    fs.foreach(_.close())
-    sourceFiles
+    }
+
+    uri.getScheme match {
+      case "jar" => JarFileSystems.withFileSystem(uri)(fileSystem => readAll(fileSystem.getPath(path)))
+      case _     => readAll(Paths.get(uri))
+    }
+  }
+
+  /**
+    * The content of the jar entries we've read, by URI. The last modified time and size of the entry are kept with the content, so
+    * that we read the entry again when it has changed.
+    *
+    * Files on the default file system are not cached. Their last modified time and size are not a reliable change detection
+    * (e.g. an edit within the file system's timestamp granularity that keeps the size), and the snapshot, the watcher and the
+    * incremental generation must see the file's real content to know whether it changed.
+    */
+  private val contentCache = new ConcurrentHashMap[URI, ((FileTime, Long), Array[Byte])]()
+
+  /**
+    * Read all bytes of the given path, jar entries are taken from the content cache if they didn't change since the last read.
+    */
+  private def readBytes(thePath: Path): Array[Byte] =
+    if (thePath.getFileSystem == FileSystems.getDefault) {
+      Files.readAllBytes(thePath)
+    } else {
+      val uri     = thePath.toUri
+      val version = Try((Files.getLastModifiedTime(thePath), Files.size(thePath))).toOption
+      val cached  = Option(contentCache.get(uri))
+      (cached, version) match {
+        case (Some((cachedVersion, bytes)), Some(currentVersion)) if cachedVersion == currentVersion => bytes
+        case _ =>
+          val bytes = Files.readAllBytes(thePath)
+          version.foreach(currentVersion => contentCache.put(uri, (currentVersion, bytes)))
+          bytes
+      }
+    }
+
+  /**
+    * Empty the content cache and close the jar file systems that are no longer in use, e.g. to free memory after code generation.
+    */
+  def clearCache(): Unit = {
+    contentCache.clear()
+    JarFileSystems.closeIdle()
   }
 
   /**
@@ -167,8 +185,22 @@ object SourceReader {
     }
   }
 
-  def getInputStreamContent(inputStream: InputStream): Array[Byte] =
-    Stream.continually(inputStream.read).takeWhile(_ != -1).map(_.toByte).toArray
+  def getInputStreamContent(inputStream: InputStream): Array[Byte] = {
+    val output = new ByteArrayOutputStream()
+    val buffer = new Array[Byte](8192)
+
+    @tailrec
+    def copy(): Unit = {
+      val read = inputStream.read(buffer)
+      if (read != -1) {
+        output.write(buffer, 0, read)
+        copy()
+      }
+    }
+
+    copy()
+    output.toByteArray
+  }
 
   /**
     * Beware, Windows paths are represented as URL as follows: file:///C:/Users/someone
@@ -0,0 +1,275 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser.parser
+
+import java.io.StringReader
+
+import org.yaml.snakeyaml.Yaml
+import org.yaml.snakeyaml.error.Mark
+import org.yaml.snakeyaml.events._
+import org.yaml.snakeyaml.nodes.{ NodeId, ScalarNode, Tag }
+import org.yaml.snakeyaml.resolver.Resolver
+import play.api.libs.json._
+
+import scala.collection.mutable
+import scala.util.{ Success, Try }
+
+/**
+  * Builds the JSON representation of a YAML document directly from the SnakeYAML parser events, without composing
+  * SnakeYAML's node graph and constructing an intermediate Java object graph first.
+  *
+  * Scalars get the same types the SafeConstructor would give them, '!include' tags become {"!include": "path"} objects
+  * and anchors, aliases and '<<' merge keys are resolved while the events stream by.
+  */
+class YamlToJsonParser(content: String) {
+
+  private val resolver    = new Resolver
+  private val constructor = SimpleRamlConstructor()
+  private val anchors     = mutable.Map.empty[String, JsValue]
+
+  /**
+    * The mapping keys of this document. Each file is parsed on one thread, so we deduplicate the keys per document without the
+    * locking of the shared Interner. That saves as much heap as interning them globally, measured with the ScalingBenchmark.
+    */
+  private val keys = mutable.HashMap.empty[String, String]
+
+  private var stack: List[Collector]    = List.empty
+  private var document: Option[JsValue] = None
+
+  def parse(): JsValue = {
+    val events = new Yaml().parse(new StringReader(content)).iterator()
+    while (events.hasNext) {
+      events.next() match {
+        case event: ScalarEvent =>
+          val tag = scalarTag(event)
+          expectingKey match {
+            case Some(mapping) =>
+              if (tag == Tag.MERGE) mapping.mergeKey()
+              else mapping.fieldKey(scalarToKey(event, tag))
+            case None => emit(event.getAnchor, scalarToJson(event, tag), event.getStartMark)
+          }
+        case event: AliasEvent =>
+          val value = anchors.getOrElse(event.getAnchor, parseError(s"Found undefined alias '${event.getAnchor}'", event.getStartMark))
+          expectingKey match {
+            case Some(mapping) => mapping.fieldKey(jsonToKey(value, event.getStartMark))
+            case None          => emit(null, value, event.getStartMark)
+          }
+        case event: SequenceStartEvent =>
+          checkNoComplexKey(event.getStartMark)
+          stack = new SequenceCollector(event.getAnchor) :: stack
+        case event: MappingStartEvent =>
+          checkNoComplexKey(event.getStartMark)
+          stack = new MappingCollector(event.getAnchor) :: stack
+        case event: CollectionEndEvent =>
+          val collector :: rest = stack
+          stack = rest
+          emit(collector.anchor, collector.result(event.getStartMark), event.getStartMark)
+        case _ => // stream and document start and end events carry no content
+      }
+    }
+    document.getOrElse(JsNull)
+  }
+
+  private def expectingKey: Option[MappingCollector] =
+    stack.headOption.collect {
+      case mapping: MappingCollector if mapping.expectsKey => mapping
+    }
+
+  private def checkNoComplexKey(mark: Mark): Unit =
+    if (expectingKey.isDefined) parseError("Complex mapping keys are not supported", mark)
+
+  private def emit(anchor: String, value: JsValue, mark: Mark): Unit = {
+    Option(anchor).foreach(anchors.put(_, value))
+    stack match {
+      case collector :: _ => collector.add(value, mark)
+      case Nil =>
+        if (document.isDefined) parseError("Expected a single document in the stream", mark)
+        document = Some(value)
+    }
+  }
+
+  private def scalarTag(event: ScalarEvent): Tag =
+    Option(event.getTag).filterNot(_ == "!") match {
+      case Some(tag) => new Tag(tag)
+      case None      => resolver.resolve(NodeId.scalar, event.getValue, event.getImplicit.canOmitTagInPlainScalar())
+    }
+
+  private def constructScalar(event: ScalarEvent, tag: Tag): Any =
+    constructor.constructScalarValue(new ScalarNode(tag, event.getValue, event.getStartMark, event.getEndMark, event.getStyle))
+
+  /**
+    * Mapping keys, such as property names and RAML keywords, repeat a lot throughout a specification, so we share one instance
+    * per key within the document.
+    */
+  private def scalarToKey(event: ScalarEvent, tag: Tag): String = {
+    val key = if (tag == Tag.STR) event.getValue else String.valueOf(constructScalar(event, tag))
+    keys.getOrElseUpdate(key, key)
+  }
+
+  /**
+    * The key of an aliased scalar. Numbers are kept as doubles in the JSON tree, so we give integral numbers their integer form
+    * again, just like the key of a plain integer scalar.
+    */
+  private def jsonToKey(value: JsValue, mark: Mark): String =
+    value match {
+      case JsString(string)                   => string
+      case JsNumber(number) if number.isWhole => number.toBigInt.toString
+      case JsNumber(number)                   => number.toDouble.toString
+      case JsBoolean(boolean)                 => boolean.toString
+      case JsNull                             => "null"
+      case _                                  => parseError("Complex mapping keys are not supported", mark)
+    }
+
+  private def scalarToJson(event: ScalarEvent, tag: Tag): JsValue =
+    if (tag == Tag.STR) {
+      YamlToJsonParser.unwrapJsonString(event.getValue)
+    } else {
+      constructScalar(event, tag) match {
+        case s: String                => YamlToJsonParser.unwrapJsonString(s)
+        case b: java.lang.Boolean     => JsBoolean(b)
+        case i: java.lang.Integer     => Json.toJson(i.doubleValue())
+        case l: java.lang.Long        => Json.toJson(l.doubleValue())
+        case bi: java.math.BigInteger => Json.toJson(bi.doubleValue())
+        case d: java.lang.Double      => Json.toJson(d.doubleValue())
+        case include: Include         => Json.toJson(include) // the included body is attached later under the !include field
+        case null                     => JsNull
+        case x                        => parseError(s"Cannot parse unknown type $x (${x.getClass.getCanonicalName})", event.getStartMark)
+      }
+    }
+
+  private def parseError(message: String, mark: Mark): Nothing =
+    sys.error(s"$message at line ${mark.getLine + 1}, column ${mark.getColumn + 1}")
+
+  private sealed trait Collector {
+
+    def anchor: String
+
+    def add(value: JsValue, mark: Mark): Unit
+
+    def result(mark: Mark): JsValue
+
+  }
+
+  private class SequenceCollector(val anchor: String) extends Collector {
+
+    private val values = mutable.ArrayBuffer.empty[JsValue]
+
+    def add(value: JsValue, mark: Mark): Unit = values += value
+
+    def result(mark: Mark): JsValue = JsArray(values)
+
+  }
+
+  private class MappingCollector(val anchor: String) extends Collector {
+
+    private val fields = mutable.ArrayBuffer.empty[(String, JsValue)]
+    private val merges = mutable.ArrayBuffer.empty[JsObject]
+
+    private var key: Option[String] = None
+    private var merging             = false
+
+    def expectsKey: Boolean = key.isEmpty && !merging
+
+    def fieldKey(name: String): Unit = key = Some(name)
+
+    def mergeKey(): Unit = merging = true
+
+    def add(value: JsValue, mark: Mark): Unit = {
+      if (merging) {
+        value match {
+          case obj: JsObject => merges += obj
+          case JsArray(values) =>
+            values.foreach {
+              case obj: JsObject => merges += obj
+              case _             => parseError("Expected a mapping for merging", mark)
+            }
+          case _ => parseError("Expected a mapping or a list of mappings for merging", mark)
+        }
+      } else {
+        key.foreach(name => fields += name -> value)
+      }
+      key     = None
+      merging = false
+    }
+
+    def result(mark: Mark): JsValue = {
+      if (merges.isEmpty) {
+        JsObject(fields)
+      } else {
+        // Explicit keys override merged ones, and earlier merged mappings override later ones.
+        val combined = mutable.LinkedHashMap.empty[String, JsValue]
+        merges.foreach { merged =>
+          merged.fields.foreach {
+            case (name, value) => if (!combined.contains(name)) combined.put(name, value)
+          }
+        }
+        fields.foreach {
+          case (name, value) => combined.put(name, value)
+        }
+        JsObject(combined.toSeq)
+      }
+    }
+
+  }
+
+}
+
+object YamlToJsonParser {
+
+  def parse(content: String): JsValue = new YamlToJsonParser(content).parse()
+
+  /**
+    * One time 'unwrap' of a JSON value that is wrapped as a string value.
+    *
+    * Strings that hold a JSON value, including quoted numbers and booleans such as "200" or "true", become that JSON value.
+    * Only strings that can start a JSON value are handed to the JSON parser, the others (e.g. descriptions) stay as they are
+    * without paying for a failed parse.
+    */
+  def unwrapJsonString(stringVal: String): JsValue = {
+    val json = JsString(stringVal)
+    if (!looksLikeJson(stringVal)) {
+      json
+    } else {
+      Try(Json.parse(stringVal)) match {
+        case Success(jsObject: JsObject) =>
+          if (jsObject.\("$schema").toOption.isEmpty) {
+            jsObject + ("$schema" -> JsString("http://json-schema.org/draft-03/schema"))
+          } else {
+            jsObject
+          }
+        case Success(nonStringJsValue) => nonStringJsValue
+        case _                         => json
+      }
+    }
+  }
+
+  /**
+    * The characters a JSON object, array, string, number, boolean or null can start with.
+    */
+  private val jsonValueStart = "{[\"-0123456789tfn"
+
+  private def looksLikeJson(stringVal: String): Boolean = {
+    val firstNonBlank = stringVal.indexWhere(!Character.isWhitespace(_))
+    firstNonBlank >= 0 && jsonValueStart.indexOf(stringVal.charAt(firstNonBlank)) >= 0
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.util
+
+import java.lang.ref.WeakReference
+import java.util
+
+/**
+  * Hash-consing of immutable values: intern returns one shared instance for all values that are equal to each other.
+  *
+  * The interned values are only weakly referenced, so values that are no longer used elsewhere can still be garbage collected.
+  * The pool is split in stripes with their own lock to limit contention when interning from several threads.
+  */
+class Interner[T <: AnyRef](stripes: Int = 16) {
+
+  private val pools: Array[util.WeakHashMap[T, WeakReference[T]]] = Array.fill(stripes)(new util.WeakHashMap[T, WeakReference[T]]())
+
+  def intern(value: T): T = intern(value, identity[T])
+
+  /**
+    * Intern the given value. When there is no shared instance yet, the value is first canonicalized with the given function
+    * (e.g. to intern its parts) and the result becomes the shared instance. The function must return a value that is equal
+    * to the given one.
+    */
+  def intern(value: T, canonicalize: T => T): T = {
+    val pool = pools((value.hashCode & Int.MaxValue) % stripes)
+    pool.synchronized {
+      Option(pool.get(value)).flatMap(reference => Option(reference.get)) getOrElse {
+        val canonical = canonicalize(value)
+        pool.put(canonical, new WeakReference(canonical))
+        canonical
+      }
+    }
+  }
+
+}
+
+object Interner {
+
+  private val strings = new Interner[String]()
+
+  private val stringLists = new Interner[List[String]]()
+
+  def intern(value: String): String = strings.intern(value)
+
+  /**
+    * Intern a list of strings, e.g. a package path, together with the strings it contains.
+    */
+  def intern(values: List[String]): List[String] = stringLists.intern(values, _.map(intern))
+
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.util
+
+import java.util.concurrent.ForkJoinPool
+
+import scala.collection.parallel.ForkJoinTaskSupport
+
+/**
+  * Maps collections in parallel on a fork-join pool of our own, so that the parallelism doesn't depend on (and doesn't compete for)
+  * the global fork-join pool of the build tool that runs us.
+  */
+object Parallel {
+
+  /**
+    * Map the given items in parallel on the given fork-join pool, keeping their order.
+    */
+  def map[A, B](items: Vector[A], forkJoinPool: ForkJoinPool)(fn: A => B): Vector[B] =
+    if (forkJoinPool.getParallelism <= 1 || items.size <= 1) {
+      items.map(fn)
+    } else {
+      val parallelItems = items.par
+      parallelItems.tasksupport = new ForkJoinTaskSupport(forkJoinPool)
+      parallelItems.map(fn).seq
+    }
+
+  /**
+    * Map the given items in parallel on a dedicated fork-join pool with the given parallelism, keeping their order.
+    */
+  def map[A, B](items: Vector[A], parallelism: Int)(fn: A => B): Vector[B] =
+    if (parallelism <= 1 || items.size <= 1) {
+      items.map(fn)
+    } else {
+      val forkJoinPool = new ForkJoinPool(parallelism)
+      try {
+        map(items, forkJoinPool)(fn)
+      } finally {
+        forkJoinPool.shutdown()
+      }
+    }
+
+}
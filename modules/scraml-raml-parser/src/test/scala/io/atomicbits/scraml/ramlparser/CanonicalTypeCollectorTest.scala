@@ -257,4 +257,24 @@ class CanonicalTypeCollectorTest extends AnyFeatureSpec with GivenWhenThen with
 
   }
 
+  Feature("Collect the canonical types in parallel") {
+
+    Scenario("test that collecting the canonical types in parallel gives the same result as collecting them sequentially") {
+
+      Given("a RAML specification containing json-schema definitions")
+      val defaultBasePath = List("io", "atomicbits", "schema")
+      val raml            = RamlParser("/raml08/TestApi.raml", "UTF-8").parse.get
+
+      When("we collect the canonical types sequentially and in parallel")
+      val canonicalNameGenerator             = CanonicalNameGenerator(defaultBasePath)
+      val (sequentialRaml, sequentialLookup) = CanonicalTypeCollector(canonicalNameGenerator, parallelism = 1).collect(raml)
+      val (parallelRaml, parallelLookup)     = CanonicalTypeCollector(canonicalNameGenerator, parallelism = 4).collect(raml)
+
+      Then("both results are identical, including the order of the canonical types")
+      parallelRaml shouldBe sequentialRaml
+      parallelLookup.map.toList shouldBe sequentialLookup.map.toList
+    }
+
+  }
+
 }
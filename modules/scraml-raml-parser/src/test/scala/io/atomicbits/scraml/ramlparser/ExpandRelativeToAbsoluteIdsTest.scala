@@ -51,6 +51,7 @@ class ExpandRelativeToAbsoluteIdsTest extends AnyFeatureSpec with GivenWhenThen
       val raml                = parsedModel.get
       val parsedType          = raml.types.get(NativeId("myfragments")).get
       val myFragmentsExpanded = canonicalTypeCollector.indexer.expandRelativeToAbsoluteIds(parsedType).asInstanceOf[ParsedObject]
+      canonicalTypeCollector.indexer.expandRelativeToAbsoluteIds(parsedType) should be theSameInstanceAs myFragmentsExpanded
 
       val definitionsFragment = myFragmentsExpanded.fragments.fragmentMap("definitions").asInstanceOf[Fragments]
 
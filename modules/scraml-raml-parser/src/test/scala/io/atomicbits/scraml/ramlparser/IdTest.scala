@@ -20,7 +20,8 @@
 
 package io.atomicbits.scraml.ramlparser
 
-import io.atomicbits.scraml.ramlparser.model.{ RelativeId, RootId }
+import io.atomicbits.scraml.ramlparser.model.{ NativeId, RelativeId, RootId }
+import io.atomicbits.scraml.ramlparser.model.canonicaltypes.CanonicalName
 import org.scalatest.{ BeforeAndAfterAll, GivenWhenThen }
 import org.scalatest.featurespec.AnyFeatureSpec
 import org.scalatest.matchers.should.Matchers._
@@ -90,4 +91,26 @@ class IdTest extends AnyFeatureSpec with GivenWhenThen with BeforeAndAfterAll {
 
   }
 
+  Feature("Id sharing") {
+
+    Scenario("test that equal ids and canonical names share one instance") {
+
+      Given("two equal RootId strings")
+      val rootIdString = "http://atomicbits.io/model/home-address.json"
+
+      When("we parse both RootId strings and create the canonical names for both")
+      val rootId1        = RootId(rootIdString)
+      val rootId2        = RootId(new String(rootIdString))
+      val canonicalName1 = CanonicalName.create("Book", List("io", "atomicbits"))
+      val canonicalName2 = CanonicalName.create(new String("Book"), List("io", "atomicbits"))
+
+      Then("we get the same instances")
+      rootId1 should be theSameInstanceAs rootId2
+      NativeId(new String("Book")) should be theSameInstanceAs NativeId("Book")
+      canonicalName1 should be theSameInstanceAs canonicalName2
+
+    }
+
+  }
+
 }
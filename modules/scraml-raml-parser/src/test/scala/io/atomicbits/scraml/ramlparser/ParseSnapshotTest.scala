@@ -0,0 +1,108 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser
+
+import java.io.{ BufferedOutputStream, ObjectOutputStream }
+import java.nio.file.{ Files, Path }
+import java.util.zip.GZIPOutputStream
+
+import io.atomicbits.scraml.ramlparser.model.canonicaltypes.CanonicalName
+import io.atomicbits.scraml.ramlparser.parser.{ ParseSnapshot, RamlParser }
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+class ParseSnapshotTest extends AnyFeatureSpec with GivenWhenThen {
+
+  Feature("Snapshots of the parsed RAML model") {
+
+    Scenario("parse a RAML model via a snapshot") {
+
+      Given("a RAML specification with includes and an empty snapshot location")
+      val ramlSource      = "/typeparameters08/zoo-api.raml"
+      val defaultBasePath = List("io", "atomicbits", "raml08")
+      val snapshotDir     = Files.createTempDirectory("scraml-snapshot")
+      val snapshotFile    = snapshotDir.resolve("raml.snapshot")
+
+      When("we parse the specification via the snapshot")
+      val (raml, canonicalLookup) = ParseSnapshot.parse(snapshotFile, ramlSource, "UTF-8", defaultBasePath).get
+
+      Then("we get the same model as when parsing without snapshot")
+      val (expectedRaml, expectedLookup) = RamlParser(ramlSource, "UTF-8").parse.get.collectCanonicals(defaultBasePath)
+      raml shouldBe expectedRaml
+      canonicalLookup shouldBe expectedLookup
+
+      And("a snapshot was written that covers the included files")
+      val snapshot = ParseSnapshot.read(snapshotFile).get
+      snapshot.sources.size should be > 1
+      snapshot.isUpToDate("UTF-8") shouldBe true
+
+      And("the canonical names read from the snapshot are interned, just like the names the parser creates")
+      snapshot.canonicalLookup.map.keys.foreach { canonicalName =>
+        CanonicalName.create(canonicalName.name, canonicalName.packagePath) should be theSameInstanceAs canonicalName
+      }
+
+      And("parsing again takes the model from the snapshot")
+      val (snapshotRaml, snapshotLookup) = ParseSnapshot.parse(snapshotFile, ramlSource, "UTF-8", defaultBasePath).get
+      snapshotRaml shouldBe expectedRaml
+      snapshotLookup shouldBe expectedLookup
+
+      Files.deleteIfExists(snapshotFile)
+      Files.deleteIfExists(snapshotDir)
+    }
+
+    Scenario("a snapshot with classes that don't belong to a RAML model is ignored") {
+
+      Given("snapshot files that contain other serializable classes, at the top level and nested in a Scala collection")
+      val snapshotDir = Files.createTempDirectory("scraml-snapshot")
+      val topLevel    = snapshotDir.resolve("top-level.snapshot")
+      val nested      = snapshotDir.resolve("nested.snapshot")
+      writeSnapshotFile(topLevel, new java.io.File("not-a-model"))
+      writeSnapshotFile(nested, List(Some("allowed"), new java.util.Date()))
+
+      Then("reading them gives no snapshot")
+      ParseSnapshot.read(topLevel) shouldBe None
+      ParseSnapshot.read(nested) shouldBe None
+
+      And("parsing via such a snapshot file parses the specification and replaces the snapshot")
+      val ramlSource = "/typeparameters08/zoo-api.raml"
+      ParseSnapshot.parse(nested, ramlSource, "UTF-8", List("io", "atomicbits", "raml08")).isSuccess shouldBe true
+      ParseSnapshot.read(nested).map(_.ramlSource) shouldBe Some(ramlSource)
+
+      Files.deleteIfExists(topLevel)
+      Files.deleteIfExists(nested)
+      Files.deleteIfExists(snapshotDir)
+    }
+
+  }
+
+  private def writeSnapshotFile(snapshotFile: Path, content: AnyRef): Unit = {
+    val out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(snapshotFile))))
+    try {
+      out.writeInt(ParseSnapshot.formatVersion)
+      out.writeObject(content)
+    } finally {
+      out.close()
+    }
+  }
+
+}
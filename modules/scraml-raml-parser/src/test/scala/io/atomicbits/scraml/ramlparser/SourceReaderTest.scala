@@ -0,0 +1,139 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser
+
+import java.net.URI
+import java.nio.charset.StandardCharsets
+import java.nio.file.attribute.FileTime
+import java.nio.file.{ FileSystem, Files, Path }
+import java.util.zip.{ ZipEntry, ZipOutputStream }
+
+import io.atomicbits.scraml.ramlparser.parser.{ JarFileSystems, SourceReader }
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+
+import scala.concurrent.duration._
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.{ Await, Future }
+
+class SourceReaderTest extends AnyFeatureSpec with GivenWhenThen {
+
+  private def writeJar(jar: Path, entry: String, content: String): Unit = {
+    val out = new ZipOutputStream(Files.newOutputStream(jar))
+    try {
+      out.putNextEntry(new ZipEntry(entry.stripPrefix("/")))
+      out.write(content.getBytes(StandardCharsets.UTF_8))
+      out.closeEntry()
+    } finally {
+      out.close()
+    }
+  }
+
+  private def readEntry(uri: URI, entry: String): (FileSystem, String) =
+    JarFileSystems.withFileSystem(uri) { fileSystem =>
+      (fileSystem, new String(Files.readAllBytes(fileSystem.getPath(entry)), StandardCharsets.UTF_8))
+    }
+
+  Feature("Reading RAML sources") {
+
+    Scenario("a file that changed is read again, even when its modification time and size stayed the same") {
+
+      Given("a RAML file that we have read")
+      val file         = Files.createTempFile("scraml-source", ".raml")
+      val lastModified = FileTime.fromMillis(1500000000000L)
+      Files.write(file, "title: A".getBytes(StandardCharsets.UTF_8))
+      Files.setLastModifiedTime(file, lastModified)
+      SourceReader.read(file.toString).content shouldBe "title: A"
+
+      When("the file changes without changing its modification time and size")
+      Files.write(file, "title: B".getBytes(StandardCharsets.UTF_8))
+      Files.setLastModifiedTime(file, lastModified)
+
+      Then("we read the new content")
+      SourceReader.read(file.toString).content shouldBe "title: B"
+
+      Files.deleteIfExists(file)
+    }
+
+    Scenario("sequential and concurrent readers share the file system of a jar") {
+
+      Given("a jar file with a RAML file")
+      val jar = Files.createTempFile("scraml-source", ".jar")
+      writeJar(jar, "/api.raml", "title: A")
+      val uri = URI.create(s"jar:${jar.toUri}!/api.raml")
+
+      When("we read from the jar twice, one after the other")
+      val (firstFileSystem, firstContent)   = readEntry(uri, "/api.raml")
+      val (secondFileSystem, secondContent) = readEntry(uri, "/api.raml")
+
+      Then("the jar file system is opened only once and stays open")
+      firstContent shouldBe "title: A"
+      secondContent shouldBe "title: A"
+      secondFileSystem should be theSameInstanceAs firstFileSystem
+      firstFileSystem.isOpen shouldBe true
+
+      When("many threads read from the jar at the same time")
+      val reads   = Future.sequence((1 to 16).map(_ => Future((1 to 20).map(_ => readEntry(uri, "/api.raml")))))
+      val results = Await.result(reads, 30.seconds).flatten
+
+      Then("they all read the content from the same open file system")
+      results.map(_._2).toSet shouldBe Set("title: A")
+      results.map(_._1).toSet.size shouldBe 1
+      results.head._1 should be theSameInstanceAs firstFileSystem
+      firstFileSystem.isOpen shouldBe true
+
+      When("we close the idle jar file systems")
+      JarFileSystems.closeIdle()
+
+      Then("the jar file system is closed")
+      firstFileSystem.isOpen shouldBe false
+
+      Files.deleteIfExists(jar)
+    }
+
+    Scenario("a jar that changed on disk is opened again") {
+
+      Given("a jar file with a RAML file that we have read")
+      val jar = Files.createTempFile("scraml-source", ".jar")
+      writeJar(jar, "/api.raml", "title: A")
+      val uri                             = URI.create(s"jar:${jar.toUri}!/api.raml")
+      val (firstFileSystem, firstContent) = readEntry(uri, "/api.raml")
+      firstContent shouldBe "title: A"
+
+      When("the jar is replaced")
+      writeJar(jar, "/api.raml", "title: Changed")
+      Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis + 10000L))
+
+      Then("we read the new content from a newly opened file system")
+      val (secondFileSystem, secondContent) = readEntry(uri, "/api.raml")
+      secondContent shouldBe "title: Changed"
+      firstFileSystem.isOpen shouldBe false
+      secondFileSystem.isOpen shouldBe true
+
+      JarFileSystems.closeIdle()
+      Files.deleteIfExists(jar)
+    }
+
+  }
+
+}
@@ -0,0 +1,193 @@
+/*
+ *
+ * (C) Copyright 2018 Atomic BITS (http://atomicbits.io).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Contributors:
+ *      Peter Rigole
+ *
+ */
+
+
+package io.atomicbits.scraml.ramlparser
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{ Files, Paths }
+
+import io.atomicbits.scraml.ramlparser.parser.{ Include, SimpleRamlConstructor, YamlToJsonParser }
+import org.scalatest.GivenWhenThen
+import org.scalatest.featurespec.AnyFeatureSpec
+import org.scalatest.matchers.should.Matchers._
+import org.yaml.snakeyaml.Yaml
+import play.api.libs.json._
+
+import scala.collection.JavaConverters._
+
+class YamlToJsonParserTest extends AnyFeatureSpec with GivenWhenThen {
+
+  private def parse(yaml: String): JsValue = YamlToJsonParser.parse(yaml.stripMargin)
+
+  Feature("Parsing YAML to JSON from the parser events") {
+
+    Scenario("anchors and aliases") {
+
+      Given("a YAML document with an anchored mapping and scalar that are aliased")
+      val yaml =
+        """|base: &base
+           |  type: string
+           |  required: true
+           |name: &name Rex
+           |copy: *base
+           |names: [ *name, *name ]
+           |"""
+
+      Then("the aliases are replaced by the anchored values")
+      val json = parse(yaml)
+      (json \ "copy").get shouldBe Json.obj("type" -> "string", "required" -> true)
+      (json \ "names").get shouldBe Json.arr("Rex", "Rex")
+    }
+
+    Scenario("merge keys") {
+
+      Given("a YAML document with '<<' merge keys")
+      val yaml =
+        """|first: &first
+           |  a: first-a
+           |  b: first-b
+           |second: &second
+           |  b: second-b
+           |  c: second-c
+           |single:
+           |  <<: *first
+           |  a: own-a
+           |list:
+           |  <<: [ *first, *second ]
+           |  c: own-c
+           |"""
+
+      Then("explicit keys override merged keys and earlier merged mappings override later ones")
+      val json = parse(yaml)
+      (json \ "single").get shouldBe Json.obj("a" -> "own-a", "b" -> "first-b")
+      (json \ "list").get shouldBe Json.obj("a" -> "first-a", "b" -> "first-b", "c" -> "own-c")
+    }
+
+    Scenario("include tags") {
+
+      Given("a YAML document with '!include' tags")
+      val yaml =
+        """|types:
+           |  Pet: !include pet.raml
+           |schemas: [ !include a.json, !include b.json ]
+           |"""
+
+      Then("the includes become '!include' objects")
+      val json = parse(yaml)
+      (json \ "types" \ "Pet").get shouldBe Json.obj("!include" -> "pet.raml")
+      (json \ "schemas").get shouldBe Json.arr(Json.toJson(Include("a.json")), Json.toJson(Include("b.json")))
+    }
+
+    Scenario("numeric and boolean keys") {
+
+      Given("a YAML document with numeric and boolean keys, also as aliases")
+      val yaml =
+        """|responses:
+           |  200: ok
+           |  404: not found
+           |  1.5: one and a half
+           |  true: yes
+           |codes:
+           |  - &ok 200
+           |  - &half 1.5
+           |aliased:
+           |  *ok : ok
+           |  *half : one and a half
+           |"""
+
+      Then("integral keys keep their integer form")
+      val json = parse(yaml)
+      (json \ "responses").get shouldBe Json.obj("200" -> "ok", "404" -> "not found", "1.5" -> "one and a half", "true" -> true)
+      (json \ "aliased").get shouldBe Json.obj("200" -> "ok", "1.5" -> "one and a half")
+      (json \ "codes").get shouldBe Json.arr(200, 1.5)
+    }
+
+    Scenario("quoted scalars") {
+
+      Given("a YAML document with quoted and plain scalars")
+      val yaml =
+        """|plainNumber: 42
+           |quotedNumber: "42"
+           |quotedBoolean: 'true'
+           |quotedNull: "null"
+           |quotedText: "Rex"
+           |description: 10 little pets
+           |jsonObject: '{"type": "string"}'
+           |jsonArray: "[1, 2]"
+           |jsonString: '"wrapped"'
+           |"""
+
+      Then("strings that hold a JSON value are unwrapped once, just like before")
+      val json = parse(yaml)
+      (json \ "plainNumber").get shouldBe JsNumber(42)
+      (json \ "quotedNumber").get shouldBe JsNumber(42)
+      (json \ "quotedBoolean").get shouldBe JsBoolean(true)
+      (json \ "quotedNull").get shouldBe JsNull
+      (json \ "quotedText").get shouldBe JsString("Rex")
+      (json \ "description").get shouldBe JsString("10 little pets")
+      (json \ "jsonObject").get shouldBe Json.obj("type" -> "string", "$schema" -> "http://json-schema.org/draft-03/schema")
+      (json \ "jsonArray").get shouldBe Json.arr(1, 2)
+      (json \ "jsonString").get shouldBe JsString("wrapped")
+    }
+
+    Scenario("the RAML test resources give the same JSON as the SnakeYAML object graph") {
+
+      Given("all RAML files in the test resources")
+      val root = Paths.get(getClass.getResource("/test001.raml").toURI).getParent
+      val walk = Files.walk(root)
+      val ramlFiles =
+        try {
+          walk.iterator.asScala.filter(_.toString.endsWith(".raml")).toList
+        } finally {
+          walk.close()
+        }
+      ramlFiles.size should be > 10
+
+      Then("parsing from the YAML events gives the same JSON as converting the loaded object graph")
+      ramlFiles.foreach { ramlFile =>
+        val content = new String(Files.readAllBytes(ramlFile), StandardCharsets.UTF_8).replace("\t", "  ")
+        withClue(ramlFile.toString) {
+          YamlToJsonParser.parse(content) shouldBe objectGraphToJson(new Yaml(SimpleRamlConstructor()).load(content))
+        }
+      }
+    }
+
+  }
+
+  /**
+    * The conversion of a loaded YAML object graph to JSON, as the RAML parser did before it parsed the YAML events directly.
+    */
+  private def objectGraphToJson(value: Any): JsValue =
+    value match {
+      case s: String                => YamlToJsonParser.unwrapJsonString(s)
+      case b: java.lang.Boolean     => JsBoolean(b)
+      case i: java.lang.Integer     => Json.toJson(i.doubleValue())
+      case l: java.lang.Long        => Json.toJson(l.doubleValue())
+      case bi: java.math.BigInteger => Json.toJson(bi.doubleValue())
+      case d: java.lang.Double      => Json.toJson(d.doubleValue())
+      case list: java.util.List[_]  => JsArray(list.asScala.map(objectGraphToJson))
+      case map: java.util.Map[_, _] => JsObject(map.asScala.toSeq.map { case (key, item) => key.toString -> objectGraphToJson(item) })
+      case include: Include         => Json.toJson(include)
+      case null                     => JsNull
+      case x                        => sys.error(s"Cannot convert $x")
+    }
+
+}
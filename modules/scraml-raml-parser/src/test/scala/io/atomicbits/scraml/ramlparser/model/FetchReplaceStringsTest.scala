@@ -23,6 +23,7 @@ package io.atomicbits.scraml.ramlparser.model
 import org.scalatest.GivenWhenThen
 import org.scalatest.featurespec.AnyFeatureSpec
 import org.scalatest.matchers.should.Matchers._
+import play.api.libs.json.JsString
 
 /**
   * Created by peter on 14/06/17.
@@ -50,6 +51,20 @@ class FetchReplaceStringsTest extends AnyFeatureSpec with GivenWhenThen {
 
     }
 
+    Scenario("replace all replace strings in a trait or resource type definition") {
+
+      Given("a trait or resource type definition with several replace strings")
+      val definition = "Return <<resourcePathName>> that have their <<queryParamName | !singularize>> matching the given value"
+
+      When("we render the definition with values for its parameters")
+      val parameters = Map("resourcePathName" -> JsString("books"), "queryParamName" -> JsString("titles"))
+      val rendered   = MergeTemplate.forString(definition).renderString(parameters.get)
+
+      Then("every replace string is substituted")
+      rendered shouldBe "Return books that have their title matching the given value"
+
+    }
+
   }
 
 }